@@ -24,11 +24,13 @@ SOFTWARE.
 
 package depends;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
 import depends.deptypes.DependencyType;
 import depends.extractor.LangProcessorRegistration;
+import depends.relations.NameResolutionCache;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
@@ -51,7 +53,7 @@ public class DependsCommand {
     private String src;
 	@Parameters(index = "2",  description = "The output file name")
 	private String output;
-    @Option(names = {"-f", "--format"},split=",",  description = "the output format: [json(default),xml,excel,detail,dot,plantuml]")
+    @Option(names = {"-f", "--format"},split=",",  description = "the output format: [json(default),xml,excel,detail,dot,plantuml,binary]")
     private String[] format=new String[]{"json"};
 	@Option(names = {"-d", "--dir"},  description = "The output directory")
 	private String dir;
@@ -80,6 +82,38 @@ public class DependsCommand {
 	private boolean outputExternalDependencies = false;	
 	@Option(names = {"--duck-typing-deduce"}, description = "Deduce implicit variable types")
 	private boolean duckTypingDeduce = true;	
+	@Option(names = {"--parse-threads"}, description = "The number of threads used to parse files (default 1, sequential parsing)")
+	private int parseThreads = 1;
+	@Option(names = {"--resolve-threads"}, description = "The number of threads used to resolve the relations, after the types are resolved sequentially (default 1; more threads imply --concurrent-repo)")
+	private int resolveThreads = 1;
+	@Option(names = {"--concurrent-repo"}, description = "Use the concurrent entity repo (for multi-threaded parsing and resolving)")
+	private boolean concurrentRepo = false;
+	@Option(names = {"--expr-store"}, description = "Where the expressions are spilled between parsing and resolving.[mapped(default): one memory-mapped file, serialized: one file per entity]")
+	private String expressionStore = "mapped";
+	@Option(names = {"--parse-cache"}, description = "The directory of the persistent parse cache: unchanged files are restored from it instead of being parsed (only for java and go)")
+	private String parseCacheDir = null;
+	@Option(names = {"--parse-cache-size"}, description = "The max size of the parse cache in MB (default 1024), the least recently used entries are evicted")
+	private long parseCacheSize = 1024;
+	@Option(names = {"--git-repo"}, description = "Replay the commit history of the git repository: the oldest commit in range is checked out into <src> as the initial version, the others are applied incrementally")
+	private String gitRepo = null;
+	@Option(names = {"--branch"}, description = "The branch (or revision) of the replayed history (default HEAD)")
+	private String branch = null;
+	@Option(names = {"--since"}, description = "The start of the replayed history, in the format of 'yyyy-MM-dd HH:mm:ss'")
+	private String since = null;
+	@Option(names = {"--until"}, description = "The end of the replayed history, in the format of 'yyyy-MM-dd HH:mm:ss'")
+	private String until = null;
+	@Option(names = {"--cldiff-output"}, description = "The output directory of CLDiff when replaying the history (default: <dir>/cldiff)")
+	private String CLDiffOutput = null;
+	@Option(names = {"--replay-queue"}, description = "The max number of commits diffed ahead of the one being resolved when replaying the history (default 2)")
+	private int replayQueue = 2;
+	@Option(names = {"--in-memory-checkout"}, description = "When replaying the history, parse the initial version from the git objects directly instead of checking it out into <src> (only for java and go)")
+	private boolean inMemoryCheckout = false;
+	@Option(names = {"--primitive-matrix"}, description = "Build the dependency matrix with primitive arrays (less memory and time on large outputs, e.g. method granularity)")
+	private boolean primitiveMatrix = false;
+	@Option(names = {"--stream-output"}, description = "Write the dependencies of the (last) version in the given formats (json, xml, xlsx) row by row, without building the whole matrix in memory")
+	private boolean streamOutput = false;
+	@Option(names = {"--name-cache-size"}, description = "The max number of names cached while resolving (default 1048576, 0 to disable the cache)")
+	private int nameCacheSize = NameResolutionCache.DEFAULT_MAX_SIZE;
 	@Option(names = {"-h","--help"}, usageHelp = true, description = "display this help and exit")
     boolean help;
 	public DependsCommand() {
@@ -158,4 +192,57 @@ public class DependsCommand {
 	public boolean isDuckTypingDeduce() {
 		return this.duckTypingDeduce;
 	}
+
+	public int getParseThreads() {
+		return parseThreads;
+	}
+	public int getResolveThreads() {
+		return resolveThreads;
+	}
+	public String getExpressionStore() {
+		return expressionStore;
+	}
+	public String getParseCacheDir() {
+		return parseCacheDir;
+	}
+	public long getParseCacheSize() {
+		return parseCacheSize;
+	}
+
+	public boolean isConcurrentRepo() {
+		return concurrentRepo;
+	}
+	public String getGitRepo() {
+		return gitRepo;
+	}
+	public String getBranch() {
+		return branch;
+	}
+	public String getSince() {
+		return since;
+	}
+	public String getUntil() {
+		return until;
+	}
+	public String getCLDiffOutput() {
+		if (CLDiffOutput == null) {
+			return getOutputDir() + File.separator + "cldiff";
+		}
+		return CLDiffOutput;
+	}
+	public int getReplayQueue() {
+		return replayQueue;
+	}
+	public boolean isInMemoryCheckout() {
+		return inMemoryCheckout;
+	}
+	public boolean isPrimitiveMatrix() {
+		return primitiveMatrix;
+	}
+	public boolean isStreamOutput() {
+		return streamOutput;
+	}
+	public int getNameCacheSize() {
+		return nameCacheSize;
+	}
 }
@@ -25,6 +25,7 @@ SOFTWARE.
 package depends;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -32,8 +33,15 @@ import java.util.List;
 import org.codehaus.plexus.util.StringUtils;
 
 import depends.addons.DV8MappingFileBuilder;
+import depends.entity.repo.ExpressionStore;
+import depends.entity.repo.MappedExpressionStore;
+import depends.entity.repo.SerializedExpressionStore;
 import depends.extractor.AbstractLangProcessor;
 import depends.extractor.LangProcessorRegistration;
+import depends.extractor.ParseCache;
+import depends.extractor.git.CommitRange;
+import depends.format.DependencyDumper;
+import depends.format.StreamingDependencyWriter;
 import multilang.depends.util.file.path.DotPathFilenameWritter;
 import multilang.depends.util.file.path.EmptyFilenameWritter;
 import multilang.depends.util.file.path.FilenameWritter;
@@ -138,11 +146,57 @@ public class Main {
             dependencyGenerator.setGenerateDetail(true);
         }
         dependencyGenerator.setFilenameRewritter(filenameWritter);
+        dependencyGenerator.setPrimitiveMatrix(app.isPrimitiveMatrix());
+        switch (app.getExpressionStore()) {
+            case "mapped":
+                ExpressionStore.setInstance(new MappedExpressionStore());
+                break;
+            case "serialized":
+                ExpressionStore.setInstance(new SerializedExpressionStore());
+                break;
+            default:
+                throw new ParameterException("Unknown expression store parameter:" + app.getExpressionStore());
+        }
+        langProcessor.setConcurrentEntityRepo(app.isConcurrentRepo() || app.getResolveThreads() > 1);
         langProcessor.initial(inputDir, new ArrayList<>(Arrays.asList(includeDir)), new ArrayList<>(), app.getLang().equals("cpp"), app.isOutputExternalDependencies(), app.isDuckTypingDeduce());
+        langProcessor.setParseThreads(app.getParseThreads());
+        langProcessor.setResolveThreads(app.getResolveThreads());
+        langProcessor.setNameCacheSize(app.getNameCacheSize());
+        if (app.getParseCacheDir() != null) {
+            langProcessor.setParseCache(new ParseCache(app.getParseCacheDir(), app.getParseCacheSize() * 1024 * 1024));
+        }
+        if (app.getGitRepo() != null) {
+            CommitRange commitRange = new CommitRange(app.getGitRepo(), app.getBranch(), app.getSince(), app.getUntil(), app.getCLDiffOutput());
+            commitRange.setQueueSize(app.getReplayQueue());
+            commitRange.setInMemoryCheckout(app.isInMemoryCheckout());
+            langProcessor.setCommitRange(commitRange);
+        }
         langProcessor.buildDependencies();
+        if (app.isStreamOutput()) {
+            streamOutput(app, langProcessor, dependencyGenerator, outputDir);
+        }
         long endTime = System.currentTimeMillis();
+        ExpressionStore.setInstance(null);
         TemporaryFile.getInstance().delete();
         CacheManager.create().shutdown();
         System.out.println("Consumed time: " + (float) ((endTime - startTime) / 1000.00) + " s,  or " + (float) ((endTime - startTime) / 60000.00) + " min.");
     }
+
+    private static void streamOutput(DependsCommand app, AbstractLangProcessor langProcessor, DependencyGenerator dependencyGenerator, String outputDir) {
+        List<StreamingDependencyWriter> writers = new ArrayList<>();
+        try {
+            writers = DependencyDumper.createStreamingWriters(app.getOutputName(), outputDir, app.getFormat());
+            dependencyGenerator.stream(langProcessor.getEntityRepo(), app.getTypeFilter(), writers);
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            for (StreamingDependencyWriter writer : writers) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
 }
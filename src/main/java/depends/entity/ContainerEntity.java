@@ -25,15 +25,17 @@ SOFTWARE.
 package depends.entity;
 
 import depends.entity.repo.EntityRepo;
+import depends.entity.repo.ExpressionStore;
 import depends.extractor.java.JavaBuiltInType;
 import depends.extractor.java.PathConverter;
 import depends.relations.Inferer;
 import depends.relations.Relation;
-import multilang.depends.util.file.TemporaryFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.*;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.lang.ref.WeakReference;
 import java.util.*;
 
@@ -46,8 +48,8 @@ public abstract class ContainerEntity extends DecoratedEntity {
 
 	private ArrayList<VarEntity> vars;
 	private ArrayList<FunctionEntity> functions;
-	WeakReference<HashMap<Object, Expression>> expressionWeakReference;
-	private ArrayList<Expression> expressionList;
+	transient WeakReference<HashMap<Object, Expression>> expressionWeakReference;
+	private transient ArrayList<Expression> expressionList;
 	private int expressionCount = 0;
 	private Collection<GenericName> mixins;
 	private Collection<ContainerEntity> resolvedMixins;
@@ -460,38 +462,38 @@ public abstract class ContainerEntity extends DecoratedEntity {
 	
 	private void cacheExpressionListToFile() {
 		if (expressionCount ==0) return;
-		try {
-			FileOutputStream fileOut = new FileOutputStream(TemporaryFile.getInstance().exprPath(this.id));
-			ObjectOutputStream out = new ObjectOutputStream(fileOut);
-			out.writeObject(this.expressionList);
-			out.close();
-			fileOut.close();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		ExpressionStore.getInstance().save(this.id, this.expressionList);
 	}
 
-	@SuppressWarnings("unchecked")
 	public void reloadExpression(EntityRepo repo) {
 		if (expressionCount ==0) return;
-		try
-	      {
-	         FileInputStream fileIn = new FileInputStream(TemporaryFile.getInstance().exprPath(this.id));
-	         ObjectInputStream in = new ObjectInputStream(fileIn);
-	         expressionList = (ArrayList<Expression>) in.readObject();
-	         if (expressionList==null) expressionList = new ArrayList<>();
-	         for (Expression expr:expressionList) {
-	        	 expr.reload(repo,expressionList);
-	         }
-	         in.close();
-	         fileIn.close();
-	      }catch(IOException | ClassNotFoundException i)
-	      {
-	         return;
-	      }
+		ArrayList<Expression> reloaded = ExpressionStore.getInstance().load(this.id);
+		if (reloaded==null) return;
+		expressionList = reloaded;
+		for (Expression expr:expressionList) {
+			expr.reload(repo,expressionList);
+		}
 	}
 	
 
+	/*
+	 * The expressions are written with the entity (from the store if they were spilled already);
+	 * once deserialized, they could be spilled again by cacheExpressions().
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		List<Expression> expressions = expressionList;
+		if ((expressions == null || expressions.isEmpty()) && expressionCount > 0)
+			expressions = ExpressionStore.getInstance().load(this.id);
+		Expression.writeExpressions(expressions == null ? new ArrayList<>() : expressions, out);
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		expressionList = Expression.readExpressions(in);
+		expressionWeakReference = new WeakReference<>(new HashMap<>());
+	}
+
 	public List<Expression> expressionList() {
 		if (expressionList==null) 
 			expressionList = new ArrayList<>();
@@ -635,7 +637,7 @@ public abstract class ContainerEntity extends DecoratedEntity {
 		return resolvedMixins;
 	}
 
-	HashMap<String,Set<Expression>> expressionUseList = null;
+	transient HashMap<String,Set<Expression>> expressionUseList = null;
 	public void addRelation(Expression expression, Relation relation) {
 		String key = relation.getEntity().qualifiedName+relation.getType();
 		if (this.expressionUseList==null)
@@ -24,10 +24,16 @@ SOFTWARE.
 
 package depends.entity;
 
+import depends.entity.repo.IdGenerator;
 import depends.relations.Inferer;
 import depends.relations.Relation;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * Entity is the root of all entities, including file, package, module,
@@ -35,15 +41,19 @@ import java.util.*;
  * Each entity has unique id, name,qualifiedName, parent, children
  * We also use entity to record relations
  */
-public abstract class Entity {
+public abstract class Entity implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     Integer id = -1;
     String qualifiedName = null;
     GenericName rawName = GenericName.build("");
     Entity parent;
     private MultiDeclareEntities multiDeclare = null;
-    private Set<Entity> children;
+    private transient Set<Entity> children;
+    private transient List<Entity> deserializedChildren;
     ArrayList<Relation> relations;
+    /* reverse index: id of the file depending on this entity -> number of such relations */
+    private transient Map<Integer, Integer> dependentFiles;
     private Entity actualReferTo = null;
     private boolean inScope = true;
     protected HashMap<String, Entity> visibleNames = new HashMap<>();
@@ -112,6 +122,9 @@ public abstract class Entity {
             relations = new ArrayList<>();
         if (relation.getEntity() == null) return;
         relations.add(relation);
+        Entity file = getAncestorOfType(FileEntity.class);
+        if (file != null)
+            relation.getEntity().addDependentFile(file.getId());
     }
 
     public ArrayList<Relation> getRelations() {
@@ -121,9 +134,37 @@ public abstract class Entity {
     }
 
     public void clearRelations() {
+        if (relations != null && !relations.isEmpty()) {
+            Entity file = getAncestorOfType(FileEntity.class);
+            if (file != null) {
+                for (Relation relation : relations) {
+                    relation.getEntity().removeDependentFile(file.getId());
+                }
+            }
+        }
         this.relations = new ArrayList<>();
     }
 
+    /**
+     * The ids of the files which have relations to this entity
+     */
+    public synchronized Set<Integer> getDependentFileIds() {
+        if (dependentFiles == null)
+            return new HashSet<>();
+        return new HashSet<>(dependentFiles.keySet());
+    }
+
+    private synchronized void addDependentFile(Integer fileId) {
+        if (dependentFiles == null)
+            dependentFiles = new HashMap<>();
+        dependentFiles.merge(fileId, 1, Integer::sum);
+    }
+
+    private synchronized void removeDependentFile(Integer fileId) {
+        if (dependentFiles == null) return;
+        dependentFiles.computeIfPresent(fileId, (id, count) -> count > 1 ? count - 1 : null);
+    }
+
     public void addChild(Entity child) {
         children().add(child);
         visibleNames.put(child.getRawName().getName(), child);
@@ -320,6 +361,51 @@ public abstract class Entity {
         }
     }
 
+    /*
+     * The children set is hashed by id: it is written as a list, and re-built by
+     * renewIds() once the ids of the deserialized entities are re-assigned.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(children == null ? null : new ArrayList<>(children));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        deserializedChildren = (List<Entity>) in.readObject();
+    }
+
+    /**
+     * Give the deserialized entity and all its descendants new ids (in the order of the old ones),
+     * so that they could be added into the current repo.
+     * @param onRenewed invoked on each entity once it got the new id, in the order of ids
+     */
+    public void renewIds(IdGenerator idGenerator, Consumer<Entity> onRenewed) {
+        List<Entity> subtree = new ArrayList<>();
+        collectDeserialized(subtree);
+        subtree.sort(Comparator.comparing((Entity entity) -> entity.id));
+        for (Entity entity : subtree) {
+            entity.id = idGenerator.generateId();
+            onRenewed.accept(entity);
+        }
+        for (Entity entity : subtree) {
+            if (entity.deserializedChildren != null) {
+                entity.children = new HashSet<>(entity.deserializedChildren);
+                entity.deserializedChildren = null;
+            }
+        }
+    }
+
+    private void collectDeserialized(List<Entity> subtree) {
+        subtree.add(this);
+        if (deserializedChildren == null) return;
+        for (Entity child : deserializedChildren) {
+            if (child != null && child.parent == this)
+                child.collectDeserialized(subtree);
+        }
+    }
+
     public void updateEntityPath(String newPath) {
         this.visibleNames.remove(this.qualifiedName);
         this.visibleNames.put(newPath, this);
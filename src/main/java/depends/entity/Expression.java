@@ -27,9 +27,17 @@ package depends.entity;
 import depends.entity.repo.EntityRepo;
 import depends.relations.Inferer;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Expression 
@@ -444,4 +452,211 @@ public class Expression implements Serializable{
 	private List<Expression> children = new ArrayList<>();
 
 	public List<Expression> getChildren(){ return this.children; }
+
+	/*
+	 * Compact binary encoding of expression lists, used by the expression stores.
+	 * Like the java serialization, the transient fields are not kept: they are
+	 * recovered by reload() from the ids.
+	 * Children are written as ids if they are in the same list, otherwise inline.
+	 */
+	private static final int FLAG_SET = 1;
+	private static final int FLAG_DOT = 1 << 1;
+	private static final int FLAG_CALL = 1 << 2;
+	private static final int FLAG_LOGIC = 1 << 3;
+	private static final int FLAG_CREATE = 1 << 4;
+	private static final int FLAG_CAST = 1 << 5;
+	private static final int FLAG_THROW = 1 << 6;
+	private static final int FLAG_STATEMENT = 1 << 7;
+	private static final int FLAG_DERIVE_TYPE_FROM_CHILD = 1 << 8;
+
+	private static final int CHILD_IN_LIST = 0;
+	private static final int CHILD_INLINE = 1;
+
+	public static void writeExpressions(List<Expression> expressionList, DataOutput out) throws IOException {
+		Map<Expression, Boolean> inList = new IdentityHashMap<>();
+		for (Expression expression : expressionList) {
+			inList.put(expression, Boolean.TRUE);
+		}
+		out.writeInt(expressionList.size());
+		for (Expression expression : expressionList) {
+			expression.writeTo(out, inList);
+		}
+	}
+
+	public static ArrayList<Expression> readExpressions(DataInput in) throws IOException {
+		int size = in.readInt();
+		ArrayList<Expression> expressionList = new ArrayList<>(size);
+		Map<Integer, Expression> byId = new HashMap<>();
+		// the children in the list, of the expressions in the list or inline
+		List<ListedChild> listedChildren = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			Expression expression = readFrom(in, listedChildren);
+			expressionList.add(expression);
+			byId.putIfAbsent(expression.id, expression);
+		}
+		for (ListedChild listedChild : listedChildren) {
+			Expression child = byId.get(listedChild.childId);
+			// the children in the list are written by id, so it is a truncated or corrupted stream
+			if (child == null)
+				throw new StreamCorruptedException("No expression of id " + listedChild.childId + " in the list");
+			listedChild.parent.children.set(listedChild.index, child);
+		}
+		return expressionList;
+	}
+
+	private void writeTo(DataOutput out, Map<Expression, Boolean> inList) throws IOException {
+		writeInteger(out, id);
+		int flags = (isSet ? FLAG_SET : 0) | (isDot ? FLAG_DOT : 0) | (isCall ? FLAG_CALL : 0)
+				| (isLogic ? FLAG_LOGIC : 0) | (isCreate ? FLAG_CREATE : 0) | (isCast ? FLAG_CAST : 0)
+				| (isThrow ? FLAG_THROW : 0) | (isStatement ? FLAG_STATEMENT : 0)
+				| (deriveTypeFromChild ? FLAG_DERIVE_TYPE_FROM_CHILD : 0);
+		out.writeShort(flags);
+		writeString(out, text);
+		writeGenericName(out, rawType);
+		writeGenericName(out, identifier);
+		writeInteger(out, deduceTypeBasedId);
+		writeInteger(out, parentId);
+		writeIds(out, deducedTypeVarsId);
+		writeIds(out, deducedTypeFunctionsId);
+		writeInteger(out, referredEntityId);
+		writeInteger(out, location.getStartLine());
+		writeInteger(out, location.getEndLine());
+		writeInteger(out, location.getLoc());
+		out.writeInt(children.size());
+		for (Expression child : children) {
+			if (inList.containsKey(child)) {
+				out.writeByte(CHILD_IN_LIST);
+				writeInteger(out, child.id);
+			} else {
+				out.writeByte(CHILD_INLINE);
+				child.writeTo(out, inList);
+			}
+		}
+	}
+
+	private static Expression readFrom(DataInput in, List<ListedChild> listedChildren) throws IOException {
+		Expression expression = new Expression(readInteger(in));
+		int flags = in.readShort();
+		expression.isSet = (flags & FLAG_SET) != 0;
+		expression.isDot = (flags & FLAG_DOT) != 0;
+		expression.isCall = (flags & FLAG_CALL) != 0;
+		expression.isLogic = (flags & FLAG_LOGIC) != 0;
+		expression.isCreate = (flags & FLAG_CREATE) != 0;
+		expression.isCast = (flags & FLAG_CAST) != 0;
+		expression.isThrow = (flags & FLAG_THROW) != 0;
+		expression.isStatement = (flags & FLAG_STATEMENT) != 0;
+		expression.deriveTypeFromChild = (flags & FLAG_DERIVE_TYPE_FROM_CHILD) != 0;
+		expression.text = readString(in);
+		expression.rawType = readGenericName(in);
+		expression.identifier = readGenericName(in);
+		expression.deduceTypeBasedId = readInteger(in);
+		expression.parentId = readInteger(in);
+		expression.deducedTypeVarsId = readIds(in);
+		expression.deducedTypeFunctionsId = readIds(in);
+		expression.referredEntityId = readInteger(in);
+		Integer startLine = readInteger(in);
+		Integer endLine = readInteger(in);
+		Integer loc = readInteger(in);
+		if (startLine != null) expression.location.setStartLine(startLine);
+		if (endLine != null) expression.location.setEndLine(endLine);
+		if (loc != null) expression.location.setLoc(loc);
+		int childrenSize = in.readInt();
+		for (int i = 0; i < childrenSize; i++) {
+			if (in.readByte() == CHILD_IN_LIST) {
+				// set once the whole list is read
+				listedChildren.add(new ListedChild(expression, expression.children.size(), readInteger(in)));
+				expression.children.add(null);
+			} else {
+				expression.children.add(readFrom(in, listedChildren));
+			}
+		}
+		return expression;
+	}
+
+	/* a child written by id, at the index of the children of its parent */
+	private static class ListedChild {
+		final Expression parent;
+		final int index;
+		final Integer childId;
+
+		ListedChild(Expression parent, int index, Integer childId) {
+			this.parent = parent;
+			this.index = index;
+			this.childId = childId;
+		}
+	}
+
+	private static void writeInteger(DataOutput out, Integer value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) out.writeInt(value);
+	}
+
+	private static Integer readInteger(DataInput in) throws IOException {
+		return in.readBoolean() ? in.readInt() : null;
+	}
+
+	private static void writeString(DataOutput out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInput in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) return null;
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeIds(DataOutput out, List<Integer> ids) throws IOException {
+		if (ids == null) {
+			out.writeInt(-1);
+			return;
+		}
+		out.writeInt(ids.size());
+		for (Integer id : ids) {
+			writeInteger(out, id);
+		}
+	}
+
+	private static List<Integer> readIds(DataInput in) throws IOException {
+		int size = in.readInt();
+		if (size < 0) return null;
+		List<Integer> ids = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			ids.add(readInteger(in));
+		}
+		return ids;
+	}
+
+	private static void writeGenericName(DataOutput out, GenericName name) throws IOException {
+		out.writeBoolean(name != null);
+		if (name == null) return;
+		writeString(out, name.getName());
+		List<GenericName> arguments = name.arguments;
+		out.writeInt(arguments == null ? -1 : arguments.size());
+		if (arguments == null) return;
+		for (GenericName argument : arguments) {
+			writeGenericName(out, argument);
+		}
+	}
+
+	private static GenericName readGenericName(DataInput in) throws IOException {
+		if (!in.readBoolean()) return null;
+		String name = readString(in);
+		int size = in.readInt();
+		List<GenericName> arguments = null;
+		if (size >= 0) {
+			arguments = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				arguments.add(readGenericName(in));
+			}
+		}
+		return GenericName.build(name, arguments);
+	}
 }
\ No newline at end of file
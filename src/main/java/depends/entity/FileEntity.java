@@ -35,8 +35,10 @@ public class FileEntity extends TypeEntity {
 	private Collection<Entity> importedRelationEntities = new ArrayList<>();
 	private Collection<Entity> importedFiles = new ArrayList<>();
 	private Collection<Entity> importedTypes = new ArrayList<>();
+	/* qualified names of the imported types by their last segment, built on demand */
+	private transient volatile Map<String, List<String>> importedTypesBySimpleName = null;
 	private List<TypeEntity> declaredTypes = new ArrayList<>();
-	private ImportedFileCollector importedFileCollector = null;
+	private transient ImportedFileCollector importedFileCollector = null;
 	public FileEntity() {}
 
 	public FileEntity(String fullName, int fileId, boolean isInProjectScope) {
@@ -65,15 +67,35 @@ public class FileEntity extends TypeEntity {
 	public String importedSuffixMatch(String lastName) {
 		if (!lastName.startsWith("."))
 			lastName = "." + lastName;
-		for (Entity imported : this.importedTypes) {
-			String name = imported.getQualifiedName(true);
-			if (!name.startsWith("."))
-				name = "." + name;
-			if (imported.getQualifiedName(true).endsWith(lastName))
-				return imported.getQualifiedName(true);
+		// only the names with the same last segment could match, in the order of imports
+		List<String> candidates = importedTypesBySimpleName().get(lastSegment(lastName));
+		if (candidates == null)
+			return null;
+		for (String name : candidates) {
+			if (name.endsWith(lastName))
+				return name;
 		}
 		return null;
 	}
+
+	private Map<String, List<String>> importedTypesBySimpleName() {
+		Map<String, List<String>> index = importedTypesBySimpleName;
+		if (index == null) {
+			index = new HashMap<>();
+			for (Entity imported : this.importedTypes) {
+				String name = imported.getQualifiedName(true);
+				if (name == null)
+					continue;
+				index.computeIfAbsent(lastSegment(name), key -> new ArrayList<>(1)).add(name);
+			}
+			importedTypesBySimpleName = index;
+		}
+		return index;
+	}
+
+	private static String lastSegment(String name) {
+		return name.substring(name.lastIndexOf('.') + 1);
+	}
 	
 
 	@Override
@@ -97,6 +119,8 @@ public class FileEntity extends TypeEntity {
 		this.importedFiles = inferer.getImportedFiles(importedNames);
 		this.macroExpansions = inferer.getMacroExpansions(macroExpansionNames());
 		moveFunctions();
+		this.importedTypesBySimpleName = null;
+		inferer.invalidateNameCache(this);
 		super.inferLocalLevelEntities(inferer);
 	}
 
@@ -18,6 +18,7 @@ public class FunctionEntityImpl extends FunctionEntity {
 		implementedFunction = inferer.lookupTypeInImported((FileEntity)(getAncestorOfType(FileEntity.class)),this.getQualifiedName());
 		if(implementedFunction != null){
 				solveReloadFunction();
+				inferer.invalidateNameCache(this);
 		}
 	}
 	public Entity getImplemented() {
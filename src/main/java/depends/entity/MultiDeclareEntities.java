@@ -28,6 +28,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import depends.relations.Inferer;
 
@@ -37,8 +38,9 @@ import depends.relations.Inferer;
  * in C++, a function could be declared in different place with the same signature.
  */
 public class MultiDeclareEntities extends ContainerEntity {
-	List<Entity> entities = new ArrayList<>();
-	private boolean containsTypeEntity = false;
+	// copy-on-write, the declarations could be merged while other threads are resolving
+	List<Entity> entities = new CopyOnWriteArrayList<>();
+	private volatile boolean containsTypeEntity = false;
 	public MultiDeclareEntities(Entity entity, int id ) {
 		this.id = id;
 		setQualifiedName(entity.getQualifiedName());
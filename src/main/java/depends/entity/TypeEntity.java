@@ -66,7 +66,8 @@ public class TypeEntity extends ContainerEntity {
 
     @Override
     public void inferLocalLevelEntities(Inferer inferer) {
-        inheritedTypes = new ArrayList<>();
+        // build the lists aside, so that other files being resolved never see them half-filled
+        Collection<TypeEntity> inheritedTypes = new ArrayList<>();
         Collection<Entity> r = identiferToEntities(inferer, this.inheritedTypeIdentifiers);
         if (r != null) {
             r.forEach(item -> {
@@ -83,7 +84,7 @@ public class TypeEntity extends ContainerEntity {
         }
         inheritedTypes.remove(this);
 
-        implementedTypes = new ArrayList<>();
+        Collection<TypeEntity> implementedTypes = new ArrayList<>();
         r = identiferToEntities(inferer, this.implementedIdentifiers);
         if (r != null) {
             r.forEach(item -> {
@@ -99,8 +100,15 @@ public class TypeEntity extends ContainerEntity {
             });
         }
         implementedTypes.remove(this);
+        this.inheritedTypes = inheritedTypes;
+        this.implementedTypes = implementedTypes;
         if (inheritedTypes.size() > 0)
             inheritedType = inheritedTypes.iterator().next();
+        if (inheritedTypes.size() > 0 || implementedTypes.size() > 0) {
+            inferer.addInheritedScopes(this, inheritedTypes);
+            inferer.addInheritedScopes(this, implementedTypes);
+            inferer.invalidateNameCache(this);
+        }
         super.inferLocalLevelEntities(inferer);
     }
 
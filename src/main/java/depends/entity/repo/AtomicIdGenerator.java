@@ -0,0 +1,27 @@
+package depends.entity.repo;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The thread-safe counterpart of {@link SimpleIdGenerator}
+ */
+public class AtomicIdGenerator implements IdGenerator {
+
+	private final AtomicInteger nextAvaliableIndex;
+	public AtomicIdGenerator() {
+		nextAvaliableIndex = new AtomicInteger(0);
+	}
+	/**
+	 * Generate a global unique ID for entity
+	 * @return the unique id
+	 */
+	@Override
+	public Integer generateId() {
+		return nextAvaliableIndex.getAndIncrement();
+	}
+
+	@Override
+	public void setId(int id) {
+		this.nextAvaliableIndex.set(id);
+	}
+}
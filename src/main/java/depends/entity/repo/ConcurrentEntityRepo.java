@@ -0,0 +1,196 @@
+package depends.entity.repo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import depends.entity.Entity;
+import depends.entity.FileEntity;
+import depends.entity.GenericName;
+import depends.entity.MultiDeclareEntities;
+import depends.entity.PackageEntity;
+
+/**
+ * The entity repo for multi-threaded parsing and resolving.
+ * It has the same semantic as {@link InMemoryEntityRepo}, but the indexes are
+ * concurrent hash maps, and the entities with same name are merged into
+ * {@link MultiDeclareEntities} atomically per name instead of locking the whole repo.
+ */
+public class ConcurrentEntityRepo extends AtomicIdGenerator implements EntityRepo {
+
+	private ConcurrentMap<String, Entity> allEntitiesByName;
+	private ConcurrentMap<Integer, Entity> allEntitiesById;
+	private ConcurrentSkipListMap<Integer, Entity> allFileEntitiesById;
+	private ConcurrentMap<String, ConcurrentSkipListMap<Integer, Entity>> packageEntitiesByName;
+	private ConcurrentMap<String, FileEntity> fileEntitiesByPath;
+	private final AtomicLong modificationCount = new AtomicLong();
+	private final AtomicLong fileModificationCount = new AtomicLong();
+
+	public ConcurrentEntityRepo() {
+		allEntitiesByName = new ConcurrentHashMap<>();
+		allEntitiesById = new ConcurrentHashMap<>();
+		allFileEntitiesById = new ConcurrentSkipListMap<>();
+		packageEntitiesByName = new ConcurrentHashMap<>();
+		fileEntitiesByPath = new ConcurrentHashMap<>();
+	}
+
+	@Override
+	public Entity getEntity(String entityName) {
+		return allEntitiesByName.get(entityName);
+	}
+
+	@Override
+	public Entity getEntity(Integer entityId) {
+		return allEntitiesById.get(entityId);
+	}
+
+	@Override
+	public void add(Entity entity) {
+		modificationCount.incrementAndGet();
+		allEntitiesById.put(entity.getId(), entity);
+		String name = entity.getRawName().uniqName();
+		if (entity.getQualifiedName() != null && !(entity.getQualifiedName().isEmpty())) {
+			name = entity.getQualifiedName();
+		}
+		addByName(name, entity);
+		if (entity instanceof PackageEntity) {
+			packageEntitiesByName.computeIfAbsent(entity.getQualifiedName(), key -> new ConcurrentSkipListMap<>()).put(entity.getId(), entity);
+		}
+		if (entity.getParent() != null)
+			Entity.setParent(entity, entity.getParent());
+	}
+
+	/**
+	 * The merge is atomic per name (the bin of the hash map), so that the writers
+	 * of different names never block each other.
+	 */
+	private void addByName(String name, Entity entity) {
+		allEntitiesByName.compute(name, (key, existedEntity) -> {
+			if (existedEntity == null) {
+				return entity;
+			}
+			if (existedEntity instanceof MultiDeclareEntities) {
+				((MultiDeclareEntities) existedEntity).add(entity);
+				return existedEntity;
+			}
+			MultiDeclareEntities eMultiDeclare = new MultiDeclareEntities(existedEntity, this.generateId());
+			eMultiDeclare.add(entity);
+			return eMultiDeclare;
+		});
+	}
+
+	/**
+	 * The entities are iterated in id order (same as {@link InMemoryEntityRepo})
+	 * so that the generated matrix does not depend on the hash order.
+	 */
+	@Override
+	public Iterator<Entity> entityIterator() {
+		List<Entity> entities = new ArrayList<>(allEntitiesById.values());
+		entities.sort(Comparator.comparing(Entity::getId));
+		return entities.iterator();
+	}
+
+	@Override
+	public void updateEntityPath(Entity entity, String newPath) {
+		modificationCount.incrementAndGet();
+		this.allEntitiesByName.remove(entity.getQualifiedName());
+		boolean indexedFile = removeFileByPath(entity);
+		entity.updateEntityPath(newPath);
+		entity.setRawName(new GenericName(newPath));
+		entity.setQualifiedName(newPath);
+		this.allEntitiesByName.put(newPath, entity);
+		if (indexedFile)
+			fileEntitiesByPath.put(EntityRepo.normalizePath(newPath), (FileEntity) entity);
+	}
+
+	@Override
+	public Entity getEntity(GenericName rawName) {
+		return this.getEntity(rawName.uniqName());
+	}
+
+	@Override
+	public Collection<Entity> getFileEntities() {
+		return allFileEntitiesById.values();
+	}
+
+	@Override
+	public Collection<Entity> getAllEntities() {
+		return allEntitiesById.values();
+	}
+
+	@Override
+	public Iterator<Entity> sortedFileIterator() {
+		return allFileEntitiesById.values().iterator();
+	}
+
+	@Override
+	public void addFile(FileEntity fileEntity) {
+		modificationCount.incrementAndGet();
+		allFileEntitiesById.put(fileEntity.getId(), fileEntity);
+		fileEntitiesByPath.put(EntityRepo.normalizePath(fileEntity.getQualifiedName()), fileEntity);
+		// after the file is visible, so the readers of the new count see it
+		fileModificationCount.incrementAndGet();
+	}
+
+	@Override
+	public void removeEntity(Entity entity) {
+		modificationCount.incrementAndGet();
+		this.allEntitiesByName.remove(entity.getQualifiedName());
+		this.allEntitiesById.remove(entity.getId());
+		if (this.allFileEntitiesById.remove(entity.getId(), entity))
+			fileModificationCount.incrementAndGet();
+		removeFileByPath(entity);
+		if (entity instanceof PackageEntity) {
+			ConcurrentSkipListMap<Integer, Entity> packages = packageEntitiesByName.get(entity.getQualifiedName());
+			if (packages != null)
+				packages.remove(entity.getId(), entity);
+		}
+	}
+
+	@Override
+	public void putEntityByName(Entity entity, String name) {
+		modificationCount.incrementAndGet();
+		this.allEntitiesByName.put(name, entity);
+	}
+
+	@Override
+	public long getModificationCount() {
+		return modificationCount.get();
+	}
+
+	@Override
+	public long getFileModificationCount() {
+		return fileModificationCount.get();
+	}
+
+	@Override
+	public void fileDeclarationsChanged(FileEntity fileEntity) {
+		fileModificationCount.incrementAndGet();
+	}
+
+	@Override
+	public Collection<Entity> getPackageEntities(String qualifiedName) {
+		ConcurrentSkipListMap<Integer, Entity> packages = packageEntitiesByName.get(qualifiedName);
+		if (packages == null)
+			return Collections.emptyList();
+		return Collections.unmodifiableCollection(packages.values());
+	}
+
+	@Override
+	public FileEntity getFileEntityByPath(String path) {
+		return fileEntitiesByPath.get(EntityRepo.normalizePath(path));
+	}
+
+	private boolean removeFileByPath(Entity entity) {
+		if (!(entity instanceof FileEntity) || entity.getQualifiedName() == null)
+			return false;
+		return fileEntitiesByPath.remove(EntityRepo.normalizePath(entity.getQualifiedName()), entity);
+	}
+}
@@ -24,6 +24,8 @@ SOFTWARE.
 
 package depends.entity.repo;
 
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.Iterator;
 
@@ -57,4 +59,45 @@ public interface EntityRepo extends IdGenerator {
 	void removeEntity(Entity entity);
 
 	void putEntityByName(Entity entity, String name);
+
+	/**
+	 * All package entities with the qualified name, in id order
+	 * (the same package may be declared by several files, e.g. during incremental updates)
+	 */
+	Collection<Entity> getPackageEntities(String qualifiedName);
+
+	/**
+	 * The file entity (added by addFile) of the path, or null
+	 */
+	FileEntity getFileEntityByPath(String path);
+
+	/**
+	 * A counter increased by every change of the repo (add, remove or rename of entities),
+	 * used by the caches which depend on the content of the repo
+	 */
+	long getModificationCount();
+
+	/**
+	 * A counter increased when a file entity is added (addFile) or removed, or when the declared
+	 * types or functions of a file change, used by the indexes of the declared types of the files,
+	 * which do not change with the other entities
+	 */
+	long getFileModificationCount();
+
+	/**
+	 * Tell the repo that the declared types or functions of the file changed,
+	 * which may happen after the file is added (e.g. a file parsed again in place)
+	 */
+	void fileDeclarationsChanged(FileEntity fileEntity);
+
+	/**
+	 * The key of a path in the file index: the path without redundant elements
+	 */
+	static String normalizePath(String path) {
+		try {
+			return Paths.get(path).normalize().toString();
+		} catch (InvalidPathException e) {
+			return path;
+		}
+	}
 }
@@ -0,0 +1,56 @@
+package depends.entity.repo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import depends.entity.Expression;
+
+/**
+ * The place where the expressions of containers are spilled after parsing,
+ * and reloaded from when the relations are computed.
+ * Implementations must allow save/load from different threads.
+ */
+public interface ExpressionStore {
+	/**
+	 * Save (or replace) the expressions of the given container entity
+	 */
+	void save(Integer entityId, List<Expression> expressionList);
+
+	/**
+	 * @return the expressions saved of the entity, or null if nothing could be loaded.
+	 * The expressions are not reloaded yet (see Expression.reload)
+	 */
+	ArrayList<Expression> load(Integer entityId);
+
+	/**
+	 * Release the resources (files, mappings) of the store
+	 */
+	void close();
+
+	static ExpressionStore getInstance() {
+		return ExpressionStoreHolder.get();
+	}
+
+	/**
+	 * Replace the store used by all containers. The previous one is closed.
+	 */
+	static void setInstance(ExpressionStore store) {
+		ExpressionStoreHolder.set(store);
+	}
+}
+
+class ExpressionStoreHolder {
+	private static ExpressionStore instance;
+
+	static synchronized ExpressionStore get() {
+		if (instance == null)
+			instance = new MappedExpressionStore();
+		return instance;
+	}
+
+	static synchronized void set(ExpressionStore store) {
+		if (instance != null && instance != store)
+			instance.close();
+		instance = store;
+	}
+}
@@ -1,6 +1,8 @@
 package depends.entity.repo;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -13,6 +15,7 @@ import depends.entity.Entity;
 import depends.entity.FileEntity;
 import depends.entity.GenericName;
 import depends.entity.MultiDeclareEntities;
+import depends.entity.PackageEntity;
 
 
 public class InMemoryEntityRepo extends SimpleIdGenerator implements EntityRepo {
@@ -39,11 +42,17 @@ public class InMemoryEntityRepo extends SimpleIdGenerator implements EntityRepo
 	private Map<String, Entity> allEntitiesByName;
 	private Map<Integer, Entity> allEntitiesById;
 	private List<Entity> allFileEntitiesByOrder;
+	private Map<String, Map<Integer, Entity>> packageEntitiesByName;
+	private Map<String, FileEntity> fileEntitiesByPath;
+	private long modificationCount = 0;
+	private long fileModificationCount = 0;
 
 	public InMemoryEntityRepo() {
 		allEntitiesByName = new TreeMap<>();
 		allEntitiesById = new TreeMap<>();
 		allFileEntitiesByOrder = new LinkedList<>();
+		packageEntitiesByName = new HashMap<>();
+		fileEntitiesByPath = new HashMap<>();
 	}
 
 	@Override
@@ -58,6 +67,7 @@ public class InMemoryEntityRepo extends SimpleIdGenerator implements EntityRepo
 
 	@Override
 	public void add(Entity entity) {
+		modificationCount++;
 		allEntitiesById.put(entity.getId(), entity);
 		String name = entity.getRawName().uniqName();
 		if (entity.getQualifiedName() != null && !(entity.getQualifiedName().isEmpty())) {
@@ -75,6 +85,9 @@ public class InMemoryEntityRepo extends SimpleIdGenerator implements EntityRepo
 		} else {
 			allEntitiesByName.put(name, entity);
 		}
+		if (entity instanceof PackageEntity) {
+			packageEntitiesByName.computeIfAbsent(entity.getQualifiedName(), key -> new TreeMap<>()).put(entity.getId(), entity);
+		}
 		if (entity.getParent() != null)
 			Entity.setParent(entity, entity.getParent());
 	}
@@ -87,11 +100,15 @@ public class InMemoryEntityRepo extends SimpleIdGenerator implements EntityRepo
 	
 	@Override
 	public void updateEntityPath(Entity entity, String newPath) {
+		modificationCount++;
 		this.allEntitiesByName.remove(entity.getQualifiedName());
+		boolean indexedFile = removeFileByPath(entity);
 		entity.updateEntityPath(newPath);
 		entity.setRawName(new GenericName(newPath));
 		entity.setQualifiedName(newPath);
 		this.allEntitiesByName.put(newPath, entity);
+		if (indexedFile)
+			fileEntitiesByPath.put(EntityRepo.normalizePath(newPath), (FileEntity) entity);
 	}
 
 	@Override
@@ -116,21 +133,69 @@ public class InMemoryEntityRepo extends SimpleIdGenerator implements EntityRepo
 
 	@Override
 	public void addFile(FileEntity fileEntity) {
+		modificationCount++;
+		fileModificationCount++;
 		allFileEntitiesByOrder.add(fileEntity);
+		fileEntitiesByPath.put(EntityRepo.normalizePath(fileEntity.getQualifiedName()), fileEntity);
 	}
 
 	@Override
 	public void removeEntity(Entity entity) {
+		modificationCount++;
 		this.allEntitiesByName.remove(entity.getQualifiedName());
 		this.allEntitiesById.remove(entity.getId());
-		this.allFileEntitiesByOrder.remove(entity);
+		if (entity instanceof FileEntity) {
+			fileModificationCount++;
+			removeFileByPath(entity);
+			this.allFileEntitiesByOrder.remove(entity);
+		}
+		if (entity instanceof PackageEntity) {
+			Map<Integer, Entity> packages = packageEntitiesByName.get(entity.getQualifiedName());
+			if (packages != null && packages.remove(entity.getId(), entity) && packages.isEmpty())
+				packageEntitiesByName.remove(entity.getQualifiedName());
+		}
 	}
 
 	@Override
 	public void putEntityByName(Entity entity, String name) {
+		modificationCount++;
 		this.allEntitiesByName.put(name, entity);
 	}
 
+	@Override
+	public long getModificationCount() {
+		return modificationCount;
+	}
+
+	@Override
+	public long getFileModificationCount() {
+		return fileModificationCount;
+	}
+
+	@Override
+	public void fileDeclarationsChanged(FileEntity fileEntity) {
+		fileModificationCount++;
+	}
+
+	@Override
+	public Collection<Entity> getPackageEntities(String qualifiedName) {
+		Map<Integer, Entity> packages = packageEntitiesByName.get(qualifiedName);
+		if (packages == null)
+			return Collections.emptyList();
+		return Collections.unmodifiableCollection(packages.values());
+	}
+
+	@Override
+	public FileEntity getFileEntityByPath(String path) {
+		return fileEntitiesByPath.get(EntityRepo.normalizePath(path));
+	}
+
+	private boolean removeFileByPath(Entity entity) {
+		if (!(entity instanceof FileEntity) || entity.getQualifiedName() == null)
+			return false;
+		return fileEntitiesByPath.remove(EntityRepo.normalizePath(entity.getQualifiedName()), entity);
+	}
+
 
 //	public boolean checkForOne(Relation relation, Entity entity){
 //		if (relation.getEntity().getMutliDeclare() != null) {
@@ -0,0 +1,225 @@
+package depends.entity.repo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import depends.entity.Expression;
+
+/**
+ * A single file, memory-mapped segment by segment, holding the
+ * expressions of all containers in the compact encoding of Expression.
+ * Each record is [length][payload] in a slot of the file; the slot of an entity is kept in the index.
+ * Saving an entity again overwrites its slot if the record fits, otherwise the slot is freed
+ * and reused by the next records it could hold, so the file only grows when no free slot fits.
+ */
+public class MappedExpressionStore implements ExpressionStore {
+	private static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+	/* a free slot is not reused for a record smaller than 1/MAX_SLOT_WASTE of it */
+	private static final int MAX_SLOT_WASTE = 2;
+
+	private final File file;
+	private final RandomAccessFile randomAccessFile;
+	private final FileChannel channel;
+	private final int segmentSize;
+	private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+	private final Map<Integer, Slot> slots = new ConcurrentHashMap<>();
+	/* capacity -> offsets of the free slots */
+	private final TreeMap<Integer, Deque<Long>> freeSlots = new TreeMap<>();
+	/* the writers take the write lock, since a slot could be overwritten while it is read */
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private long size = 0;
+	private long freeBytes = 0;
+
+	public MappedExpressionStore() {
+		this(DEFAULT_SEGMENT_SIZE);
+	}
+
+	public MappedExpressionStore(int segmentSize) {
+		this.segmentSize = segmentSize;
+		try {
+			file = Files.createTempFile("depends_", ".expr").toFile();
+			file.deleteOnExit();
+			randomAccessFile = new RandomAccessFile(file, "rw");
+			channel = randomAccessFile.getChannel();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void save(Integer entityId, List<Expression> expressionList) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(0); // length, filled below
+			Expression.writeExpressions(expressionList, out);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
+		byte[] record = bytes.toByteArray();
+		ByteBuffer.wrap(record).putInt(0, record.length - Integer.BYTES);
+		lock.writeLock().lock();
+		try {
+			Slot slot = slots.get(entityId);
+			if (slot == null || slot.capacity < record.length) {
+				if (slot != null)
+					free(slot);
+				slot = allocate(record.length);
+				slots.put(entityId, slot);
+			}
+			write(slot.offset, record);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public ArrayList<Expression> load(Integer entityId) {
+		byte[] payload;
+		lock.readLock().lock();
+		try {
+			Slot slot = slots.get(entityId);
+			if (slot == null) return null;
+			int length = ByteBuffer.wrap(read(slot.offset, Integer.BYTES)).getInt();
+			payload = read(slot.offset + Integer.BYTES, length);
+		} finally {
+			lock.readLock().unlock();
+		}
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+			return Expression.readExpressions(in);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	@Override
+	public void close() {
+		lock.writeLock().lock();
+		try {
+			slots.clear();
+			freeSlots.clear();
+			segments.clear();
+			channel.close();
+			randomAccessFile.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		file.delete();
+	}
+
+	/**
+	 * The number of bytes of the file used so far, by the records and the free slots
+	 */
+	public long size() {
+		lock.readLock().lock();
+		try {
+			return size;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * The number of bytes of the free slots
+	 */
+	public long freeBytes() {
+		lock.readLock().lock();
+		try {
+			return freeBytes;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/* the smallest free slot holding the record, or a new one at the end of the file */
+	private Slot allocate(int length) {
+		Map.Entry<Integer, Deque<Long>> free = freeSlots.ceilingEntry(length);
+		if (free != null && free.getKey() / MAX_SLOT_WASTE <= length) {
+			long offset = free.getValue().poll();
+			if (free.getValue().isEmpty())
+				freeSlots.remove(free.getKey());
+			freeBytes -= free.getKey();
+			return new Slot(offset, free.getKey());
+		}
+		Slot slot = new Slot(size, length);
+		size += length;
+		return slot;
+	}
+
+	private void free(Slot slot) {
+		freeSlots.computeIfAbsent(slot.capacity, capacity -> new ArrayDeque<>()).add(slot.offset);
+		freeBytes += slot.capacity;
+	}
+
+	private void write(long offset, byte[] data) {
+		int written = 0;
+		while (written < data.length) {
+			long position = offset + written;
+			ByteBuffer segment = segment((int) (position / segmentSize));
+			segment.position((int) (position % segmentSize));
+			int length = Math.min(segment.remaining(), data.length - written);
+			segment.put(data, written, length);
+			written += length;
+		}
+	}
+
+	private byte[] read(long offset, int length) {
+		byte[] data = new byte[length];
+		int read = 0;
+		while (read < length) {
+			long position = offset + read;
+			// duplicate: each reader has its own position
+			ByteBuffer segment = segments.get((int) (position / segmentSize)).duplicate();
+			segment.position((int) (position % segmentSize));
+			int n = Math.min(segment.remaining(), length - read);
+			segment.get(data, read, n);
+			read += n;
+		}
+		return data;
+	}
+
+	/* only invoked by writers, under the write lock */
+	private ByteBuffer segment(int index) {
+		try {
+			while (segments.size() <= index) {
+				segments.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) segments.size() * segmentSize, segmentSize));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return segments.get(index).duplicate();
+	}
+
+	private static class Slot {
+		final long offset;
+		final int capacity;
+
+		Slot(long offset, int capacity) {
+			this.offset = offset;
+			this.capacity = capacity;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package depends.entity.repo;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import depends.entity.Expression;
+import multilang.depends.util.file.TemporaryFile;
+
+/**
+ * The original store: one java-serialized file per container under the temporary folder.
+ * The temporary folder is the one of the thread creating the store, so that
+ * files saved and loaded by different threads are the same.
+ */
+public class SerializedExpressionStore implements ExpressionStore {
+	private final TemporaryFile temporaryFile;
+
+	public SerializedExpressionStore() {
+		this.temporaryFile = TemporaryFile.getInstance();
+	}
+
+	@Override
+	public void save(Integer entityId, List<Expression> expressionList) {
+		try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(temporaryFile.exprPath(entityId)))) {
+			out.writeObject(expressionList);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public ArrayList<Expression> load(Integer entityId) {
+		try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(temporaryFile.exprPath(entityId)))) {
+			return (ArrayList<Expression>) in.readObject();
+		} catch (IOException | ClassNotFoundException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public void close() {
+	}
+}
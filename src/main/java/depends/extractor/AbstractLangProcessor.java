@@ -24,25 +24,34 @@ SOFTWARE.
 
 package depends.extractor;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import depends.entity.PackageEntity;
+import depends.extractor.git.CommitChanges;
 import depends.extractor.git.CommitExtractor;
+import depends.extractor.git.CommitRange;
 import depends.extractor.git.GitExtractor;
-import depends.relations.Relation;
-import multilang.depends.util.file.FolderCollector;
 import org.eclipse.jgit.revwalk.RevCommit;
 
 import depends.entity.Entity;
 import depends.entity.FileEntity;
 import depends.entity.repo.BuiltInType;
+import depends.entity.repo.ConcurrentEntityRepo;
 import depends.entity.repo.EntityRepo;
 import depends.entity.repo.InMemoryEntityRepo;
 import depends.matrix.core.DependencyMatrix;
 import depends.relations.ImportLookupStrategy;
 import depends.relations.Inferer;
-import multilang.depends.util.file.FileTraversal;
+import depends.relations.NameResolutionCache;
 import multilang.depends.util.file.FileUtil;
 
 import static depends.utils.FileUtil.*;
@@ -82,12 +91,35 @@ abstract public class AbstractLangProcessor {
     public List<String> excludePaths;
     private Set<UnsolvedBindings> potentialExternalDependencies;
     private boolean isCallAsImpl;
+    private int parseThreads = 1;
+    private int resolveThreads = 1;
+    private int nameCacheSize = NameResolutionCache.DEFAULT_MAX_SIZE;
+    private ParseCache parseCache;
+    private CommitRange commitRange;
+    private VirtualFiles virtualFiles;
+    /* the files of the snapshot being parsed, discovered once and shared by the include folders, the parser and the resolvers */
+    private FileManifest fileManifest;
+    /* the file parsers prepared ahead (by path) for the commit being applied */
+    private Map<String, FileParser> preparedFileParsers;
+    private final boolean eagerExpressionResolve;
 
     public AbstractLangProcessor(boolean eagerExpressionResolve) {
+        this.eagerExpressionResolve = eagerExpressionResolve;
         entityRepo = new InMemoryEntityRepo();
         inferer = new Inferer(entityRepo, getImportLookupStrategy(), getBuiltInType(), eagerExpressionResolve);
     }
 
+    /**
+     * Choose the entity repo implementation: the concurrent one is designed for multi-threaded
+     * parsing and resolving, otherwise the in-memory one (default) is used.
+     * It re-creates the repo and the inferer, so it should be invoked before initial().
+     */
+    public void setConcurrentEntityRepo(boolean isConcurrent) {
+        entityRepo = isConcurrent ? new ConcurrentEntityRepo() : new InMemoryEntityRepo();
+        inferer = new Inferer(entityRepo, getImportLookupStrategy(), getBuiltInType(), eagerExpressionResolve);
+        inferer.setNameCacheSize(nameCacheSize);
+    }
+
     public void initial(String inputDir, List<String> includePaths, List<String> excludePaths, boolean isCallAsImpl, boolean isCollectUnsolvedBindings, boolean isDuckTypingDeduce) {
         this.projectPath = inputDir;
         this.snapshotProjectPath = inputDir;
@@ -105,16 +137,22 @@ abstract public class AbstractLangProcessor {
      * Step 3: identify dependencies.
      */
     public void buildDependencies() {
-        String since = "2022-04-04 00:00:00";
-        String until = "2022-07-05 23:59:59";
-        GitExtractor gitExtractor = new GitExtractor("/Users/kingsley/FDSE/multi-dependency/CodeSource/Java/commons-io");
-        String CLDiffOutputPath = "/Users/kingsley/FDSE/GraduationProject/CLDiff/Java";
-        List<RevCommit> commits = gitExtractor.getRangeCommits(since, until, false);
+        if (this.commitRange == null) {
+            buildDependenciesForInitialVersion();
+            return;
+        }
+        GitExtractor gitExtractor = new GitExtractor(commitRange.getGitPath());
+        List<RevCommit> commits = gitExtractor.getRangeCommits(commitRange.getBranch(), commitRange.getSince(), commitRange.getUntil(), false);
+        System.out.println("Replaying " + commits.size() + " commits of " + commitRange.getGitPath() + "...");
         if (!commits.isEmpty()) {
-            gitExtractor.checkOutToCommit(commits.get(commits.size() - 1), this.projectPath);
+            if (commitRange.isInMemoryCheckout()) {
+                setVirtualFiles(gitExtractor.getSnapshot(commits.get(commits.size() - 1), this.projectPath));
+            } else {
+                gitExtractor.checkOutToCommit(commits.get(commits.size() - 1), this.projectPath);
+            }
         }
         buildDependenciesForInitialVersion();
-        buildDependenciesForIncrementalVersion(gitExtractor, commits, CLDiffOutputPath);
+        buildDependenciesForIncrementalVersion(gitExtractor, commits, commitRange.getCLDiffOutputPath(), commitRange.getQueueSize());
     }
 
     public EntityRepo buildDependenciesForInitialVersion() {
@@ -129,28 +167,91 @@ abstract public class AbstractLangProcessor {
     }
 
     public void buildDependenciesForIncrementalVersion(GitExtractor gitExtractor, List<RevCommit> commits, String CLDiffOutputPath) {
-        CommitExtractor commitExtractor = new CommitExtractor(gitExtractor);
-        for (int i = commits.size() - 2; i >= 0; i--) {
-            RevCommit commit = commits.get(i);
-            Map<String, Entity> previousFileEntityMap = new HashMap<>();
-            Map<String, Entity> currentFileEntityMap = new HashMap<>();
-            List<String> removedFilePathList = new ArrayList<>();
-            List<String> addedFilePathList = new ArrayList<>();
-            List<String> modifiedFilePathList = new ArrayList<>();
-            // key-value: previousFilePath-currentFilePath
-            Map<String, String> renamedFilePathMap = new HashMap<>();
-            buildDependenciesForIncrementalVersion(commitExtractor, commit, CLDiffOutputPath, previousFileEntityMap, currentFileEntityMap, removedFilePathList, addedFilePathList, modifiedFilePathList, renamedFilePathMap);
+        buildDependenciesForIncrementalVersion(gitExtractor, commits, CLDiffOutputPath, 1);
+    }
+
+    /**
+     * Apply the commits (from the oldest) one after another. The diff of the following commits
+     * (CLDiff) and the syntax analysis of their changed files run ahead on another thread,
+     * at most queueSize commits ahead of the commit being resolved. Both of them do not touch
+     * the entity repo, so the result is the same as processing the commits strictly in sequence.
+     */
+    public void buildDependenciesForIncrementalVersion(GitExtractor gitExtractor, List<RevCommit> commits, String CLDiffOutputPath, int queueSize) {
+        buildDependenciesForIncrementalVersion(new CommitExtractor(gitExtractor), commits, CLDiffOutputPath, queueSize);
+    }
+
+    public void buildDependenciesForIncrementalVersion(CommitExtractor commitExtractor, List<RevCommit> commits, String CLDiffOutputPath, int queueSize) {
+        if (commits.size() < 2) {
+            return;
         }
+        BlockingQueue<PreparedCommit> preparedCommits = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        ExecutorService differ = Executors.newSingleThreadExecutor();
+        differ.submit(() -> {
+            for (int i = commits.size() - 2; i >= 0; i--) {
+                PreparedCommit prepared = new PreparedCommit();
+                try {
+                    long start = System.currentTimeMillis();
+                    prepared.changes = commitExtractor.getChanges(commits.get(i), this.projectPath, CLDiffOutputPath);
+                    prepared.diffTime = System.currentTimeMillis() - start;
+                    start = System.currentTimeMillis();
+                    prepareChangedFiles(prepared);
+                    prepared.prepareTime = System.currentTimeMillis() - start;
+                } catch (RuntimeException | Error e) {
+                    prepared.failure = e;
+                }
+                preparedCommits.put(prepared);
+                if (prepared.failure != null) {
+                    break;
+                }
+            }
+            return null;
+        });
+        long replayStart = System.currentTimeMillis();
+        try {
+            for (int i = commits.size() - 2; i >= 0; i--) {
+                long start = System.currentTimeMillis();
+                PreparedCommit prepared = preparedCommits.take();
+                long waitTime = System.currentTimeMillis() - start;
+                if (prepared.failure instanceof RuntimeException) {
+                    throw (RuntimeException) prepared.failure;
+                } else if (prepared.failure != null) {
+                    throw (Error) prepared.failure;
+                }
+                this.preparedFileParsers = prepared.fileParsers;
+                try {
+                    start = System.currentTimeMillis();
+                    applyCommitChanges(prepared.changes, new HashMap<>(), new HashMap<>());
+                } finally {
+                    this.preparedFileParsers = null;
+                }
+                System.out.println(String.format("Commit %s: diff %d ms, prepare %d ms, waited %d ms, applied %d ms (%d/%d)",
+                        prepared.changes.commit.getName(), prepared.diffTime, prepared.prepareTime, waitTime,
+                        System.currentTimeMillis() - start, commits.size() - 1 - i, commits.size() - 1));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            differ.shutdownNow();
+        }
+        System.out.println("Replayed " + (commits.size() - 1) + " commits in " + (System.currentTimeMillis() - replayStart) + " ms");
     }
 
     public void buildDependenciesForIncrementalVersion(CommitExtractor commitExtractor, RevCommit commit, String CLDiffOutputPath, Map<String, Entity> previousFileEntityMap, Map<String, Entity> currentFileEntityMap, List<String> removedFilePathList, List<String> addedFilePathList, List<String> modifiedFilePathList, Map<String, String> renamedFilePathMap) {
-        System.out.println("\nCommit: " + commit.getName());
-        List<String> previousFilePathList = new ArrayList<>();
-        List<String> currentFilePathList = new ArrayList<>();
-        List<String> currentSnapshotFilePathList = new ArrayList<>();
+        CommitChanges changes = commitExtractor.getChanges(commit, this.projectPath, CLDiffOutputPath);
+        removedFilePathList.addAll(changes.removedFilePathList);
+        addedFilePathList.addAll(changes.addedFilePathList);
+        modifiedFilePathList.addAll(changes.modifiedFilePathList);
+        renamedFilePathMap.putAll(changes.renamedFilePathMap);
+        applyCommitChanges(changes, previousFileEntityMap, currentFileEntityMap);
+    }
+
+    private void applyCommitChanges(CommitChanges changes, Map<String, Entity> previousFileEntityMap, Map<String, Entity> currentFileEntityMap) {
+        System.out.println("\nCommit: " + changes.commit.getName());
+        List<String> previousFilePathList = changes.previousFilePathList;
+        List<String> currentFilePathList = changes.currentFilePathList;
+        List<String> currentSnapshotFilePathList = changes.currentSnapshotFilePathList;
         // 对于那些依赖于发生了修改的文件的实体，需要对其进行重新扫描，让其依赖于新的文件
         List<Entity> dependsOnPreviousFileEntityList = new ArrayList<>();
-        commitExtractor.getChangedFilePath(commit, this.projectPath, CLDiffOutputPath, currentFilePathList, currentSnapshotFilePathList, previousFilePathList, removedFilePathList, addedFilePathList, modifiedFilePathList, renamedFilePathMap);
         if (!previousFilePathList.isEmpty()) {
             // 寻找修改之前的文件实体
             findFileEntityByFileNameFromEntityRepository(previousFilePathList, previousFileEntityMap);
@@ -193,6 +294,29 @@ abstract public class AbstractLangProcessor {
         System.runFinalization();
     }
 
+    /**
+     * The syntax analysis of the changed files of a commit, ahead of applying the commit
+     */
+    private void prepareChangedFiles(PreparedCommit prepared) {
+        if (!isPrepareAheadSupported()) {
+            return;
+        }
+        for (String snapshotFilePath : prepared.changes.currentSnapshotFilePathList) {
+            String fileFullPath = FileUtil.uniqFilePath(snapshotFilePath);
+            if (isParseCacheEnabled() && parseCache.contains(fileFullPath, extractorVersion())) {
+                continue;
+            }
+            FileParser fileParser = createFileParser(fileFullPath);
+            try {
+                fileParser.prepare();
+            } catch (Exception e) {
+                // it will be parsed again and reported by parse()
+                continue;
+            }
+            prepared.fileParsers.put(fileFullPath, fileParser);
+        }
+    }
+
     private void markAllEntitiesScope() {
         this.entityRepo.getFileEntities().forEach(entity -> {
             Entity file = entity.getAncestorOfType(FileEntity.class);
@@ -207,10 +331,9 @@ abstract public class AbstractLangProcessor {
     }
 
     private void findFileEntityByFileNameFromEntityRepository(List<String> filePathList, Map<String, Entity> fileEntityMap) {
-        Collection<Entity> fileEntityCollection = this.entityRepo.getFileEntities();
-        for (Entity fileEntity : fileEntityCollection) {
-            Entity file = fileEntity.getAncestorOfType(FileEntity.class);
-            if (filePathList.contains(file.getQualifiedName())) {
+        for (String filePath : filePathList) {
+            FileEntity file = this.entityRepo.getFileEntityByPath(filePath);
+            if (file != null) {
                 fileEntityMap.put(file.getQualifiedName(), file);
             }
         }
@@ -219,11 +342,23 @@ abstract public class AbstractLangProcessor {
     private void findDependsOnPreviousFileEntity(Collection<Entity> previousFileEntityCollection, List<Entity> dependsOnPreviousFileEntityList) {
         List<Entity> previousEntityList = new ArrayList<>();
         getAllEntity(previousFileEntityCollection, previousEntityList);
-        Collection<Entity> fileEntityCollection = this.entityRepo.getFileEntities();
-        for (Entity fileEntity : fileEntityCollection) {
-            Entity file = fileEntity.getAncestorOfType(FileEntity.class);
-            if (isDependsOnPreviousEntity(file, previousEntityList)) {
-                dependsOnPreviousFileEntityList.add(file);
+        // 通过反向依赖索引找到依赖于修改的实体的文件
+        Set<Integer> previousFileIdSet = new HashSet<>();
+        Set<Integer> dependentFileIdSet = new HashSet<>();
+        for (Entity entity : previousEntityList) {
+            if (entity instanceof FileEntity) {
+                previousFileIdSet.add(entity.getId());
+            }
+            dependentFileIdSet.addAll(entity.getDependentFileIds());
+        }
+        dependentFileIdSet.removeAll(previousFileIdSet);
+        if (dependentFileIdSet.isEmpty()) {
+            return;
+        }
+        // 按文件在数据库中的顺序加入
+        for (Entity fileEntity : this.entityRepo.getFileEntities()) {
+            if (dependentFileIdSet.contains(fileEntity.getId())) {
+                dependsOnPreviousFileEntityList.add(fileEntity);
             }
         }
     }
@@ -235,23 +370,6 @@ abstract public class AbstractLangProcessor {
         }
     }
 
-    private boolean isDependsOnPreviousEntity(Entity entity, List<Entity> previousEntityList) {
-        if (previousEntityList.contains(entity)) {
-            return false;
-        }
-        for (Relation relation : entity.getRelations()) {
-            if (previousEntityList.contains(relation.getEntity())) {
-                return true;
-            }
-        }
-        for (Entity childEntity : entity.getChildren()) {
-            if (isDependsOnPreviousEntity(childEntity, previousEntityList)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     private void updateNewFileEntityPath(Map<String, Entity> currentFileEntityMap) {
         List<Entity> fileEntityList = new ArrayList<>(currentFileEntityMap.values());
         currentFileEntityMap.clear();
@@ -271,6 +389,8 @@ abstract public class AbstractLangProcessor {
             }
         }
         this.entityRepo.removeEntity(entity);
+        // 同时从反向依赖索引中移除
+        entity.clearRelations();
         for (Entity childEntity : entity.getChildren()) {
             removePreviousEntity(childEntity);
         }
@@ -280,9 +400,9 @@ abstract public class AbstractLangProcessor {
         if (entity instanceof FileEntity) {
             Entity parentEntity = entity.getParent();
             if (parentEntity instanceof PackageEntity) {
-                Collection<Entity> entityCollection = this.entityRepo.getAllEntities();
-                for (Entity e : entityCollection) {
-                    if (e instanceof PackageEntity && e.getQualifiedName().equals(parentEntity.getQualifiedName()) && !e.getId().equals(parentEntity.getId())) {
+                // 同名的包实体，按id排序
+                for (Entity e : this.entityRepo.getPackageEntities(parentEntity.getQualifiedName())) {
+                    if (!e.getId().equals(parentEntity.getId())) {
                         e.addChild(entity);
                         entity.setParent(e);
                         this.entityRepo.putEntityByName(e, e.getQualifiedName());
@@ -294,6 +414,8 @@ abstract public class AbstractLangProcessor {
     }
 
     public void resolveBindings(Collection<Entity> entityCollection) {
+        // entities are added into repo during resolving, so the in-memory repo has to go sequentially
+        inferer.setResolveThreads(entityRepo instanceof ConcurrentEntityRepo ? resolveThreads : 1);
         this.potentialExternalDependencies = inferer.resolveAllBindings(this.isCallAsImpl, entityCollection, this);
         if (getExternalDependencies().size() > 0) {
             System.out.println("There are " + getExternalDependencies().size() + " items are potential external dependencies.");
@@ -302,29 +424,127 @@ abstract public class AbstractLangProcessor {
 
     private void parseAllFiles() {
         System.out.println("Start parsing files...");
-        FileTraversal fileTransversal = new FileTraversal(file -> {
-            String fileFullPath = file.getAbsolutePath();
-            fileFullPath = FileUtil.uniqFilePath(fileFullPath);
-            if (fileFullPath.startsWith(this.snapshotProjectPath)) {
-                parseFile(fileFullPath);
+        List<String> fileFullPaths = new ArrayList<>();
+        if (isVirtualSnapshot()) {
+            for (String fileFullPath : virtualFiles.getFilePaths()) {
+                if (isSourceFile(fileFullPath)) {
+                    fileFullPaths.add(fileFullPath);
+                }
             }
-        });
-        fileTransversal.extensionFilter(this.fileSuffixes());
-        fileTransversal.setExcludePaths(this.excludePaths);
-        fileTransversal.travers(this.snapshotProjectPath);
+        } else {
+            fileFullPaths.addAll(getFileManifest().getSourceFiles(this.fileSuffixes(), this.excludePaths));
+        }
+        try {
+            if (this.parseThreads > 1) {
+                parseFilesInParallel(fileFullPaths);
+            } else {
+                fileFullPaths.forEach(this::parseFile);
+            }
+        } finally {
+            // the files could be changed before the next parsing, e.g. of the next commit,
+            // so the state kept for this parsing (by the processors as well) is dropped
+            parsingFinished();
+            synchronized (this) {
+                fileManifest = null;
+            }
+        }
         System.out.println("All files parsed successfully...");
+        if (AntlrParsingEngine.getInstance().getParsedFiles() > 0) {
+            System.out.println(AntlrParsingEngine.getInstance().report());
+        }
+        if (isParseCacheEnabled()) {
+            System.out.println(parseCache.report());
+        }
+    }
+
+    /**
+     * The syntax analysis (FileParser.prepare) of the files runs ahead on a worker pool,
+     * while the entities are still registered (FileParser.parse) one file after another
+     * in the traversal order. So the ids, the names and the multi-declare entities in the
+     * repo are exactly the same as a sequential run.
+     */
+    private void parseFilesInParallel(List<String> fileFullPaths) {
+        ExecutorService executor = Executors.newFixedThreadPool(this.parseThreads);
+        // bound the number of parse trees kept in memory
+        int window = this.parseThreads * 4;
+        FileParser[] fileParsers = new FileParser[fileFullPaths.size()];
+        List<Future<?>> preparedFiles = new ArrayList<>();
+        try {
+            for (int i = 0; i < fileFullPaths.size(); i++) {
+                while (preparedFiles.size() < fileFullPaths.size() && preparedFiles.size() - i < window) {
+                    String fileFullPath = fileFullPaths.get(preparedFiles.size());
+                    FileParser preparedFileParser = preparedFileParserOf(fileFullPath);
+                    if (preparedFileParser != null) {
+                        // prepared ahead, see buildDependenciesForIncrementalVersion
+                        fileParsers[preparedFiles.size()] = preparedFileParser;
+                        preparedFiles.add(CompletableFuture.completedFuture(null));
+                        continue;
+                    }
+                    FileParser fileParser = createFileParser(fileFullPath);
+                    fileParsers[preparedFiles.size()] = fileParser;
+                    if (isParseCacheEnabled() && parseCache.contains(fileFullPath, extractorVersion())) {
+                        // no need to prepare, it will be restored from cache
+                        preparedFiles.add(CompletableFuture.completedFuture(null));
+                        continue;
+                    }
+                    preparedFiles.add(executor.submit(() -> {
+                        try {
+                            fileParser.prepare();
+                        } catch (Exception e) {
+                            // it will be prepared again and reported by parse()
+                        }
+                    }));
+                }
+                try {
+                    preparedFiles.get(i).get();
+                } catch (ExecutionException e) {
+                    // e.g. stack overflow of a worker thread, fallback to parse() in current thread
+                }
+                parseFile(fileFullPaths.get(i), fileParsers[i]);
+                fileParsers[i] = null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
     protected void parseFile(String fileFullPath) {
-        FileParser fileParser = createFileParser(fileFullPath);
+        FileParser fileParser = preparedFileParserOf(fileFullPath);
+        parseFile(fileFullPath, fileParser != null ? fileParser : createFileParser(fileFullPath));
+    }
+
+    private FileParser preparedFileParserOf(String fileFullPath) {
+        if (preparedFileParsers == null) {
+            return null;
+        }
+        return preparedFileParsers.remove(fileFullPath);
+    }
+
+    private void parseFile(String fileFullPath, FileParser fileParser) {
         try {
+            if (isParseCacheEnabled() && parseCache.restore(fileFullPath, extractorVersion(), entityRepo, this::registerCachedFile) != null) {
+                System.out.println("Restored " + fileFullPath + " from parse cache...");
+                return;
+            }
             System.out.println("Parsing " + fileFullPath + "...");
             fileParser.parse();
+            if (isParseCacheEnabled()) {
+                Entity fileEntity = entityRepo.getEntity(fileFullPath);
+                if (fileEntity instanceof FileEntity) {
+                    parseCache.store(fileFullPath, extractorVersion(), (FileEntity) fileEntity, entityRepo);
+                }
+            }
         } catch (IOException e) {
             e.printStackTrace();
         } catch (Exception e) {
             System.err.println("Error occoured during parse file " + fileFullPath);
             e.printStackTrace();
+        } finally {
+            // the key is kept from the check to the store, not if the file failed or yielded no entity
+            if (isParseCacheEnabled())
+                parseCache.release(fileFullPath);
         }
     }
 
@@ -350,10 +570,181 @@ abstract public class AbstractLangProcessor {
         return relation;
     }
 
+    /**
+     * The number of threads used in the syntax analysis of files. 1 (default) means sequential parsing.
+     */
+    public void setParseThreads(int parseThreads) {
+        this.parseThreads = parseThreads;
+    }
+
+    protected int getParseThreads() {
+        return this.parseThreads;
+    }
+
+    /**
+     * Use the persistent parse cache: unchanged files are restored from it instead of being parsed.
+     * It only takes effect on the languages supporting it (see isParseCacheSupported).
+     */
+    public void setParseCache(ParseCache parseCache) {
+        this.parseCache = parseCache;
+    }
+
+    /**
+     * Replay the commits of the range (see buildDependencies) instead of analyzing the source folder only
+     */
+    public void setCommitRange(CommitRange commitRange) {
+        this.commitRange = commitRange;
+    }
+
+    private boolean isParseCacheEnabled() {
+        return parseCache != null && isParseCacheSupported();
+    }
+
+    /**
+     * Whether the entities extracted from a file only depend on the file itself (besides its package),
+     * so that they could be restored from the parse cache.
+     */
+    protected boolean isParseCacheSupported() {
+        return false;
+    }
+
+    /**
+     * Whether the file parsers could be created and prepared (FileParser.prepare) on another thread
+     * while the previous commit is being applied, i.e. they do not depend on the state of the processor
+     * (e.g. the include paths) besides the repo and the inferer.
+     */
+    protected boolean isPrepareAheadSupported() {
+        return false;
+    }
+
+    /**
+     * Invoked once all the files of the project (or the snapshot) are parsed,
+     * e.g. to release the resources kept for the parsing
+     */
+    protected void parsingFinished() {
+    }
+
+    /**
+     * Register a file restored from the parse cache the same way as the parser does once the
+     * entities are created, e.g. attach it to the package (by the parent name, could be null).
+     */
+    protected void registerCachedFile(FileEntity fileEntity, String parentName) {
+    }
+
+    /**
+     * The version of extractor, part of the parse cache key. Without a released version,
+     * the build time of the classes is used, so a re-built extractor never reuses old entries.
+     */
+    protected String extractorVersion() {
+        String version = AbstractLangProcessor.class.getPackage().getImplementationVersion();
+        if (version == null) {
+            try {
+                File codeSource = new File(getClass().getProtectionDomain().getCodeSource().getLocation().toURI());
+                File classFile = codeSource.isDirectory() ?
+                        new File(codeSource, getClass().getName().replace('.', File.separatorChar) + ".class") : codeSource;
+                version = "build" + classFile.lastModified();
+            } catch (Exception e) {
+                version = "dev";
+            }
+        }
+        return supportedLanguage() + "-" + version;
+    }
+
+    /**
+     * The number of threads used to resolve types and relations of files. 1 (default) means sequential resolving.
+     * It takes effect only with the concurrent entity repo.
+     */
+    public void setResolveThreads(int resolveThreads) {
+        this.resolveThreads = resolveThreads;
+    }
+
+    /**
+     * The max number of names cached during resolving (see {@link NameResolutionCache}), 0 disables the cache.
+     */
+    public void setNameCacheSize(int nameCacheSize) {
+        this.nameCacheSize = nameCacheSize;
+        inferer.setNameCacheSize(nameCacheSize);
+    }
+
     public void buildIncludeDirection(boolean isAutoInclude) {
         if (isAutoInclude) {
-            FolderCollector includePathCollector = new FolderCollector();
-            this.includePaths = includePathCollector.getFolders(this.snapshotProjectPath);
+            if (isVirtualSnapshot()) {
+                this.includePaths = virtualFolders();
+                return;
+            }
+            FileManifest manifest = FileManifest.discover(this.snapshotProjectPath, null);
+            synchronized (this) {
+                fileManifest = manifest;
+            }
+            this.includePaths = manifest.getFolders();
+        }
+    }
+
+    /**
+     * The files of the project (the snapshot being parsed) and the include paths, walked once
+     * per parsing (or again if the project or the include paths are changed)
+     */
+    protected synchronized FileManifest getFileManifest() {
+        if (fileManifest == null || !fileManifest.covers(this.snapshotProjectPath, this.includePaths)) {
+            fileManifest = FileManifest.discover(this.snapshotProjectPath, this.includePaths);
+        }
+        return fileManifest;
+    }
+
+    /**
+     * Parse the files of the virtual files (e.g. a git commit) instead of the files on the disk,
+     * when the project path (or the snapshot being parsed) is their root
+     */
+    public void setVirtualFiles(VirtualFiles virtualFiles) {
+        this.virtualFiles = virtualFiles;
+    }
+
+    protected VirtualFiles getVirtualFiles() {
+        return this.virtualFiles;
+    }
+
+    private boolean isVirtualSnapshot() {
+        return virtualFiles != null && virtualFiles.getRoot().equals(this.snapshotProjectPath);
+    }
+
+    /* same as the file traversal: the suffix is one of the lang, and not under the excluded paths */
+    private boolean isSourceFile(String fileFullPath) {
+        boolean matched = false;
+        for (String suffix : fileSuffixes()) {
+            if (fileFullPath.endsWith(suffix)) {
+                matched = true;
+                break;
+            }
         }
+        if (!matched || !fileFullPath.startsWith(this.snapshotProjectPath)) {
+            return false;
+        }
+        for (String excludePath : this.excludePaths) {
+            if (fileFullPath.startsWith(excludePath)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* the folders containing the virtual files, like FolderCollector does on the disk */
+    private List<String> virtualFolders() {
+        Set<String> folders = new TreeSet<>();
+        folders.add(virtualFiles.getRoot());
+        for (String fileFullPath : virtualFiles.getFilePaths()) {
+            String folder = new File(fileFullPath).getParent();
+            while (folder != null && folder.startsWith(virtualFiles.getRoot()) && folders.add(folder)) {
+                folder = new File(folder).getParent();
+            }
+        }
+        return new ArrayList<>(folders);
+    }
+
+    private static class PreparedCommit {
+        CommitChanges changes;
+        Map<String, FileParser> fileParsers = new HashMap<>();
+        long diffTime;
+        long prepareTime;
+        Throwable failure;
     }
 }
@@ -0,0 +1,180 @@
+package depends.extractor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+/**
+ * The parsing shared by the ANTLR based extractors.
+ * A file is parsed with the fast SLL prediction first, which bails out at the first syntax error;
+ * only then it is parsed again with the full LL prediction and the usual error recovery and reporting.
+ * The DFA and the prediction context cache of a grammar are kept across files (and threads),
+ * and they are dropped when the DFA grows over a bound, while no parse of the grammar is running.
+ */
+public class AntlrParsingEngine {
+	public static final int DEFAULT_MAX_DFA_STATES = 100000;
+	/* the size of the DFA is checked once per that many parses of a grammar */
+	private static final int CHECK_INTERVAL = 64;
+	private static final AntlrParsingEngine instance = new AntlrParsingEngine();
+
+	private final Map<Class<?>, GrammarState> grammars = new ConcurrentHashMap<>();
+	private volatile int maxDfaStates = DEFAULT_MAX_DFA_STATES;
+	private final AtomicLong sllParses = new AtomicLong();
+	private final AtomicLong llParses = new AtomicLong();
+	private final AtomicLong parseNanos = new AtomicLong();
+	private final LongAccumulator maxParseNanos = new LongAccumulator(Math::max, 0);
+	private final AtomicLong dfaResets = new AtomicLong();
+
+	public static AntlrParsingEngine getInstance() {
+		return instance;
+	}
+
+	/**
+	 * @param parser a new parser of the tokens of the file
+	 * @param startRule the start rule of the grammar, e.g. JavaParser::compilationUnit
+	 * @return the parse tree
+	 */
+	public <P extends Parser, T extends ParserRuleContext> T parse(P parser, Function<P, T> startRule) {
+		GrammarState grammar = grammars.computeIfAbsent(parser.getClass(), type -> new GrammarState(parser.getATN()));
+		long start = System.nanoTime();
+		T result;
+		grammar.lock.readLock().lock();
+		try {
+			parser.setInterpreter(new ParserATNSimulator(parser, parser.getATN(), grammar.decisionToDFA, grammar.contextCache));
+			result = parseTwoStage(parser, startRule);
+		} finally {
+			grammar.lock.readLock().unlock();
+		}
+		long elapsed = System.nanoTime() - start;
+		parseNanos.addAndGet(elapsed);
+		maxParseNanos.accumulate(elapsed);
+		if (grammar.parses.incrementAndGet() % CHECK_INTERVAL == 0 && grammar.dfaStates() > maxDfaStates) {
+			grammar.reset();
+			dfaResets.incrementAndGet();
+		}
+		return result;
+	}
+
+	private <P extends Parser, T extends ParserRuleContext> T parseTwoStage(P parser, Function<P, T> startRule) {
+		List<? extends ANTLRErrorListener> listeners = new ArrayList<>(parser.getErrorListeners());
+		parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+		parser.setErrorHandler(new BailErrorStrategy());
+		parser.removeErrorListeners();
+		try {
+			T result = startRule.apply(parser);
+			sllParses.incrementAndGet();
+			return result;
+		} catch (ParseCancellationException e) {
+			/* a syntax error, or SLL is not enough: parse it again with LL */
+		}
+		parser.reset();
+		listeners.forEach(parser::addErrorListener);
+		parser.setErrorHandler(new DefaultErrorStrategy());
+		parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+		T result = startRule.apply(parser);
+		llParses.incrementAndGet();
+		return result;
+	}
+
+	/**
+	 * @param maxDfaStates the DFA of a grammar is dropped when it has more states
+	 */
+	public void setMaxDfaStates(int maxDfaStates) {
+		this.maxDfaStates = maxDfaStates;
+	}
+
+	public long getSllParses() {
+		return sllParses.get();
+	}
+
+	public long getLlParses() {
+		return llParses.get();
+	}
+
+	public long getParsedFiles() {
+		return sllParses.get() + llParses.get();
+	}
+
+	public long getDfaResets() {
+		return dfaResets.get();
+	}
+
+	/**
+	 * @return the ratio of the files parsed by SLL only
+	 */
+	public double getSllSuccessRate() {
+		long files = getParsedFiles();
+		return files == 0 ? 0 : (double) sllParses.get() / files;
+	}
+
+	public void resetCounters() {
+		sllParses.set(0);
+		llParses.set(0);
+		parseNanos.set(0);
+		maxParseNanos.reset();
+		dfaResets.set(0);
+	}
+
+	public String report() {
+		long files = getParsedFiles();
+		return String.format("ANTLR parsing: %d files, %.1f%% by SLL, %d by LL, %.2f ms per file (max %.2f ms), %d DFA resets",
+				files, getSllSuccessRate() * 100, llParses.get(),
+				files == 0 ? 0 : parseNanos.get() / 1e6 / files, maxParseNanos.get() / 1e6, dfaResets.get());
+	}
+
+	private static class GrammarState {
+		private final ATN atn;
+		private final DFA[] decisionToDFA;
+		private volatile PredictionContextCache contextCache = new PredictionContextCache();
+		/* the parses hold the read lock, so the reset waits for them */
+		private final ReadWriteLock lock = new ReentrantReadWriteLock();
+		private final AtomicInteger parses = new AtomicInteger();
+
+		GrammarState(ATN atn) {
+			this.atn = atn;
+			this.decisionToDFA = new DFA[atn.getNumberOfDecisions()];
+			for (int i = 0; i < decisionToDFA.length; i++) {
+				decisionToDFA[i] = new DFA(atn.getDecisionState(i), i);
+			}
+		}
+
+		int dfaStates() {
+			int states = 0;
+			for (DFA dfa : decisionToDFA) {
+				states += dfa.states.size();
+			}
+			return states;
+		}
+
+		void reset() {
+			lock.writeLock().lock();
+			try {
+				for (int i = 0; i < decisionToDFA.length; i++) {
+					decisionToDFA[i] = new DFA(atn.getDecisionState(i), i);
+				}
+				contextCache = new PredictionContextCache();
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+	}
+}
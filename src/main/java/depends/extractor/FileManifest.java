@@ -0,0 +1,145 @@
+package depends.extractor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import multilang.depends.util.file.FileUtil;
+
+/**
+ * The files discovered under the project (and the include paths) by a single walk of the folders
+ * (see PathIndex), shared by the steps which used to walk the project one after another:
+ * the include folders (FolderCollector), the source files to be parsed (FileTraversal)
+ * and the lookups of the included files by the resolvers.
+ * The exclude paths and the suffixes are applied when the files are listed, since the exclude paths
+ * of a snapshot are only known once its include folders are collected.
+ */
+public class FileManifest {
+	private final String projectPath;
+	private final PathIndex pathIndex;
+
+	private FileManifest(String projectPath, PathIndex pathIndex) {
+		this.projectPath = projectPath;
+		this.pathIndex = pathIndex;
+	}
+
+	/**
+	 * @param projectPath the folder of the project (could be null)
+	 * @param includePaths the include paths, walked as well if they are not in the project
+	 */
+	public static FileManifest discover(String projectPath, Collection<String> includePaths) {
+		List<String> folders = new ArrayList<>();
+		if (projectPath != null)
+			folders.add(projectPath);
+		if (includePaths != null)
+			folders.addAll(includePaths);
+		return new FileManifest(projectPath, PathIndex.build(folders));
+	}
+
+	public String getProjectPath() {
+		return projectPath;
+	}
+
+	public PathIndex getPathIndex() {
+		return pathIndex;
+	}
+
+	/**
+	 * @return whether the manifest is the one of the project, and the include paths are indexed
+	 */
+	public boolean covers(String projectPath, Collection<String> includePaths) {
+		if (projectPath == null ? this.projectPath != null : !projectPath.equals(this.projectPath))
+			return false;
+		if (includePaths != null) {
+			for (String includePath : includePaths) {
+				if (!pathIndex.isIndexed(includePath))
+					return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the same as FolderCollector.getFolders of the project: the project path, and the canonical
+	 * paths of all the folders in it (a folder after its sub folders)
+	 */
+	public List<String> getFolders() {
+		List<String> folders = new ArrayList<>();
+		if (projectPath == null)
+			return folders;
+		folders.add(projectPath);
+		collectFolders(projectPath, folders);
+		return folders;
+	}
+
+	private void collectFolders(String dir, List<String> folders) {
+		for (String child : pathIndex.list(dir)) {
+			if (!pathIndex.isDirectory(child))
+				continue;
+			collectFolders(child, folders);
+			folders.add(pathIndex.canonicalPath(child));
+		}
+	}
+
+	/**
+	 * @return the same as the FileTraversal of the project with the suffixes and the exclude paths:
+	 * the canonical paths of the source files in the project, in the order of the traversal
+	 */
+	public List<String> getSourceFiles(String[] suffixes, Collection<String> excludePaths) {
+		List<String> files = new ArrayList<>();
+		if (projectPath == null)
+			return files;
+		List<String> lowerCaseSuffixes = new ArrayList<>();
+		for (String suffix : suffixes) {
+			lowerCaseSuffixes.add(suffix.toLowerCase());
+		}
+		collectSourceFiles(projectPath, lowerCaseSuffixes, uniqPaths(excludePaths), files);
+		return files;
+	}
+
+	private void collectSourceFiles(String dir, List<String> suffixes, List<String> excludePaths, List<String> files) {
+		for (String child : pathIndex.list(dir)) {
+			String canonicalPath = pathIndex.canonicalPath(child);
+			if (isExcluded(canonicalPath, excludePaths))
+				continue;
+			if (pathIndex.isDirectory(child)) {
+				collectSourceFiles(child, suffixes, excludePaths, files);
+			} else if (hasSuffix(child, suffixes) && canonicalPath.startsWith(projectPath)) {
+				files.add(canonicalPath);
+			}
+		}
+	}
+
+	private static boolean hasSuffix(String path, List<String> suffixes) {
+		String lowerCasePath = path.toLowerCase();
+		for (String suffix : suffixes) {
+			if (lowerCasePath.endsWith(suffix))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return the exclude paths in the form compared by isExcluded
+	 */
+	public static List<String> uniqPaths(Collection<String> excludePaths) {
+		List<String> paths = new ArrayList<>();
+		if (excludePaths == null)
+			return paths;
+		for (String excludePath : excludePaths) {
+			paths.add(FileUtil.uniqFilePath(excludePath));
+		}
+		return paths;
+	}
+
+	/**
+	 * Same as FileTraversal: the canonical path starts with one of the (canonical) exclude paths
+	 */
+	public static boolean isExcluded(String canonicalPath, List<String> uniqExcludePaths) {
+		for (String excludePath : uniqExcludePaths) {
+			if (canonicalPath.startsWith(excludePath))
+				return true;
+		}
+		return false;
+	}
+}
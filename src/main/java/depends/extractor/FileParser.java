@@ -29,4 +29,13 @@ import java.io.IOException;
 public interface FileParser {
 	void parse() throws IOException;
 
+	/**
+	 * Run the syntax analysis of the file ahead of {@link #parse()}.
+	 * It must not touch the entity repo, so that it could be invoked
+	 * concurrently for different files. The default implementation does
+	 * nothing, which leaves all work to parse().
+	 */
+	default void prepare() throws IOException {
+	}
+
 }
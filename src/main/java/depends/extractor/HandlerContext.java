@@ -60,6 +60,15 @@ public abstract class HandlerContext {
 		return currentFileEntity;
 	}
 
+	/**
+	 * Continue with a file entity created before (e.g. restored from the parse cache)
+	 */
+	public FileEntity resumeFile(FileEntity fileEntity) {
+		currentFileEntity = fileEntity;
+		pushToStack(currentFileEntity);
+		return currentFileEntity;
+	}
+
 	public void done() {
 		entityRepo.addFile(this.currentFile());
 	}
@@ -72,6 +81,7 @@ public abstract class HandlerContext {
 		pushToStack(currentTypeEntity);
 		addToRepo(currentTypeEntity);
 		currentFileEntity.addType(currentTypeEntity);
+		declarationsChanged();
 		return currentTypeEntity;
 	}
 	
@@ -118,6 +128,7 @@ public abstract class HandlerContext {
 		functionEntity.setStartLine(startLine);
 		addToRepo(functionEntity);
 		this.typeOrFileContainer().addFunction(functionEntity);
+		declarationsChanged();
 		pushToStack(functionEntity);
 		functionEntity.addThrowTypes(throwedType.stream().map(item->GenericName.build(item)).collect(Collectors.toList()));
 		return functionEntity;
@@ -129,6 +140,7 @@ public abstract class HandlerContext {
 		functionEntity.setStartLine(startLine);
 		addToRepo(functionEntity);
 		this.typeOrFileContainer().addFunction(functionEntity);
+		declarationsChanged();
 		pushToStack(functionEntity);
 		return functionEntity;		
 	}
@@ -140,6 +152,7 @@ public abstract class HandlerContext {
 		functionEntity.setStartLine(startLine);
 		addToRepo(functionEntity);
 		containerEntity.addFunction(functionEntity);
+		declarationsChanged();
 		pushToStack(functionEntity);
 		functionEntity.addThrowTypes(new ArrayList<>());
 		return functionEntity;		
@@ -347,4 +360,12 @@ public abstract class HandlerContext {
 	public void addToRepo(Entity entity) {
 		entityRepo.add(entity);
 	}
+
+	/**
+	 * The declared types or functions of the current file changed; the file may be
+	 * in the repo already (e.g. resumed from the parse cache and parsed again)
+	 */
+	protected void declarationsChanged() {
+		entityRepo.fileDeclarationsChanged(currentFileEntity);
+	}
 }
\ No newline at end of file
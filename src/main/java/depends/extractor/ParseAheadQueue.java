@@ -0,0 +1,160 @@
+package depends.extractor;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The work queue of the files imported (required, included etc.) by the files being parsed.
+ * Once the syntax tree of a file is ready, the files it imports are parsed (syntax only) by a worker pool,
+ * and so are their own imports, so the nested parse of an imported file only has to walk a ready tree.
+ * The entities are still created by the thread walking the importing file, in the same order as before.
+ *
+ * A file is put onto the queue once. The number of the trees parsed ahead and not taken yet is bounded:
+ * once it is reached, the oldest tree is dropped (the file is parsed when it is visited then).
+ *
+ * @param <T> the syntax tree of a file
+ */
+public abstract class ParseAheadQueue<T> {
+	public static final int DEFAULT_MAX_PENDING_TREES = 256;
+	/* the file is not (or no longer) parsed ahead, e.g. it was taken, dropped or parsed by the caller */
+	private static final Object REQUESTED = new Object();
+	private final ThreadPoolExecutor workers;
+	private final Semaphore pendingTrees;
+	/* file -> the task parsing it ahead (holding a permit of pendingTrees), or REQUESTED */
+	private final Map<String, Object> files = new ConcurrentHashMap<>();
+	/* the files parsed ahead, the oldest first (the ones taken meanwhile are skipped) */
+	private final Queue<String> preparedFiles = new ConcurrentLinkedQueue<>();
+	private volatile boolean closed = false;
+
+	/**
+	 * @param name the name of the worker threads
+	 */
+	protected ParseAheadQueue(String name, int threads, int maxPendingTrees) {
+		this.pendingTrees = new Semaphore(maxPendingTrees);
+		this.workers = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+			Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.workers.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * The syntax analysis of the file, run by the workers
+	 */
+	protected abstract T parseTree(String fileFullPath) throws Exception;
+
+	/**
+	 * Find the files imported by the file, and put them onto the queue (see enqueue)
+	 */
+	protected abstract void scanImports(String fileFullPath, T tree);
+
+	/**
+	 * Put the files imported by the file onto the queue (unless they were already).
+	 * The file itself was parsed by the caller, so the tree parsed ahead (if any) is dropped.
+	 */
+	public void enqueueImportsOf(String fileFullPath, T tree) {
+		if (!drop(fileFullPath))
+			files.putIfAbsent(fileFullPath, REQUESTED);
+		scanImports(fileFullPath, tree);
+	}
+
+	protected void enqueue(String fileFullPath) {
+		if (closed || files.containsKey(fileFullPath))
+			return;
+		if (!pendingTrees.tryAcquire() && !(dropOldest() && pendingTrees.tryAcquire())) {
+			// it will be parsed when it is visited
+			files.putIfAbsent(fileFullPath, REQUESTED);
+			return;
+		}
+		FutureTask<T> task = new FutureTask<>(() -> {
+			T tree = parseTree(fileFullPath);
+			scanImports(fileFullPath, tree);
+			return tree;
+		});
+		// the file is claimed and its task is stored at once, so take() either finds the task or nothing
+		if (files.putIfAbsent(fileFullPath, task) != null) {
+			pendingTrees.release();
+			return;
+		}
+		preparedFiles.add(fileFullPath);
+		try {
+			workers.execute(task);
+		} catch (RejectedExecutionException e) {
+			// shut down meanwhile, a taker waiting for it gets null
+			drop(fileFullPath);
+			task.cancel(false);
+		}
+	}
+
+	/**
+	 * @return the tree of the file parsed ahead (waiting for it if it is being parsed),
+	 * or null if the file was not on the queue or failed to be parsed
+	 */
+	@SuppressWarnings("unchecked")
+	public T take(String fileFullPath) {
+		Object file = files.get(fileFullPath);
+		if (closed || !(file instanceof Future) || !files.replace(fileFullPath, file, REQUESTED))
+			return null;
+		pendingTrees.release();
+		try {
+			return ((Future<T>) file).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException | CancellationException e) {
+			// it will be parsed again and reported by the parser
+			return null;
+		}
+	}
+
+	/**
+	 * Drop the tree of the file parsed ahead, e.g. the file was parsed meanwhile
+	 */
+	public void discard(String fileFullPath) {
+		drop(fileFullPath);
+	}
+
+	/**
+	 * Drop all the trees parsed ahead, and stop the workers
+	 */
+	public void shutdown() {
+		closed = true;
+		for (Runnable task : workers.shutdownNow()) {
+			((Future<?>) task).cancel(false);
+		}
+		for (String fileFullPath : files.keySet()) {
+			drop(fileFullPath);
+		}
+	}
+
+	/* release the permit of the tree of the file, if it is not taken yet */
+	private boolean drop(String fileFullPath) {
+		Object file = files.get(fileFullPath);
+		if (!(file instanceof Future) || !files.replace(fileFullPath, file, REQUESTED))
+			return false;
+		((Future<?>) file).cancel(false);
+		pendingTrees.release();
+		return true;
+	}
+
+	private boolean dropOldest() {
+		String fileFullPath;
+		while ((fileFullPath = preparedFiles.poll()) != null) {
+			if (drop(fileFullPath))
+				return true;
+		}
+		return false;
+	}
+}
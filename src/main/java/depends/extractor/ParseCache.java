@@ -0,0 +1,328 @@
+package depends.extractor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import depends.entity.Entity;
+import depends.entity.FileEntity;
+import depends.entity.MultiDeclareEntities;
+import depends.entity.repo.EntityRepo;
+
+/**
+ * Persistent cache of the parsing result (entities, imports and expressions) of files.
+ * An entry is keyed by the content hash of the file, its path and the extractor version,
+ * so a changed file, a moved file or a new version of the extractor is simply a miss.
+ * The total size of the entries is bounded; the least recently used ones are evicted.
+ */
+public class ParseCache {
+	/* bump it when the cached format changes in an incompatible way */
+	public static final int FORMAT_VERSION = 1;
+	private static final String SUFFIX = ".entities";
+
+	private final File cacheDir;
+	private final long maxBytes;
+	/* key -> size, in access order */
+	private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<String, String> pendingKeys = new HashMap<>();
+	private long totalBytes = 0;
+	private int hits = 0;
+	private int misses = 0;
+	private int stored = 0;
+	private int evicted = 0;
+
+	public ParseCache(String cacheDir, long maxBytes) {
+		this.cacheDir = new File(cacheDir);
+		this.maxBytes = maxBytes;
+		this.cacheDir.mkdirs();
+		File[] files = this.cacheDir.listFiles((dir, name) -> name.endsWith(SUFFIX));
+		if (files == null) return;
+		// the least recently used first
+		Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+		for (File file : files) {
+			String key = file.getName().substring(0, file.getName().length() - SUFFIX.length());
+			entries.put(key, file.length());
+			totalBytes += file.length();
+		}
+	}
+
+	/**
+	 * Whether the parsing result of the file (as it is now) is in cache
+	 */
+	public boolean contains(String fileFullPath, String extractorVersion) {
+		String key = keyOf(fileFullPath, extractorVersion);
+		synchronized (this) {
+			return key != null && entries.containsKey(key);
+		}
+	}
+
+	/**
+	 * Restore the entities of the file from cache into the repo.
+	 * @param registerFile the language specific registration of the file, with the name of its parent
+	 *                     (e.g. attach it to the package)
+	 * @return the file entity, or null if it is a miss
+	 */
+	public FileEntity restore(String fileFullPath, String extractorVersion, EntityRepo repo,
+							  BiConsumer<FileEntity, String> registerFile) {
+		return restoreEntry(fileFullPath, keyOf(fileFullPath, extractorVersion), repo, registerFile);
+	}
+
+	private synchronized FileEntity restoreEntry(String fileFullPath, String key, EntityRepo repo,
+												 BiConsumer<FileEntity, String> registerFile) {
+		if (key == null || entries.get(key) == null) {
+			misses++;
+			return null;
+		}
+		File file = entryFile(key);
+		CachedFile cached;
+		try (ObjectInputStream in = new EntityInputStream(new BufferedInputStream(new FileInputStream(file)), repo)) {
+			cached = (CachedFile) in.readObject();
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			// e.g. the entity classes changed
+			remove(key);
+			misses++;
+			return null;
+		}
+		pendingKeys.remove(fileFullPath);
+		file.setLastModified(System.currentTimeMillis());
+		hits++;
+
+		FileEntity fileEntity = cached.file;
+		Set<Entity> registered = identitySet(cached.registered);
+		fileEntity.renewIds(repo, entity -> {
+			if (registered.contains(entity))
+				repo.add(entity);
+			// like the parser: the package is declared right after the file is started
+			if (entity == fileEntity) {
+				fileEntity.setParent(null);
+				registerFile.accept(fileEntity, cached.parentName);
+			}
+		});
+		fileEntity.cacheAllExpressions();
+		return fileEntity;
+	}
+
+	/**
+	 * Save the entities of a just parsed file
+	 */
+	public void store(String fileFullPath, String extractorVersion, FileEntity fileEntity, EntityRepo repo) {
+		String key = keyOf(fileFullPath, extractorVersion);
+		if (key == null) return;
+		storeEntry(fileFullPath, key, fileEntity, repo);
+	}
+
+	private synchronized void storeEntry(String fileFullPath, String key, FileEntity fileEntity, EntityRepo repo) {
+		pendingKeys.remove(fileFullPath);
+		List<Entity> subtree = new ArrayList<>();
+		collectSubtree(fileEntity, subtree);
+		CachedFile cached = new CachedFile();
+		cached.file = fileEntity;
+		cached.registered = new ArrayList<>();
+		for (Entity entity : subtree) {
+			if (repo.getEntity(entity.getId()) == entity)
+				cached.registered.add(entity);
+		}
+		cached.registered.sort(Comparator.comparing(Entity::getId));
+		cached.parentName = fileEntity.getParent() == null ? null : fileEntity.getParent().getQualifiedName();
+
+		File file = entryFile(key);
+		File tmp = new File(cacheDir, key + ".tmp");
+		try (ObjectOutputStream out = new EntityOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)), identitySet(subtree))) {
+			out.writeObject(cached);
+		} catch (IOException e) {
+			System.err.println("Cannot cache the entities of " + fileFullPath + ": " + e.getMessage());
+			tmp.delete();
+			return;
+		}
+		try {
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			tmp.delete();
+			return;
+		}
+		Long previous = entries.put(key, file.length());
+		if (previous != null)
+			totalBytes -= previous;
+		totalBytes += file.length();
+		stored++;
+		evict();
+	}
+
+	/**
+	 * Forget the key computed for the file (see keyOf), e.g. the file failed to be parsed,
+	 * so it is hashed again if it is parsed later
+	 */
+	public synchronized void release(String fileFullPath) {
+		pendingKeys.remove(fileFullPath);
+	}
+
+	public synchronized String report() {
+		return String.format("Parse cache: %d hits, %d misses, %d stored, %d evicted (%d entries, %.1f MB)",
+				hits, misses, stored, evicted, entries.size(), totalBytes / (1024.0 * 1024.0));
+	}
+
+	public synchronized int getHits() {
+		return hits;
+	}
+
+	public synchronized int getMisses() {
+		return misses;
+	}
+
+	public synchronized int getEvicted() {
+		return evicted;
+	}
+
+	private void evict() {
+		Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+		while (totalBytes > maxBytes && it.hasNext()) {
+			Map.Entry<String, Long> eldest = it.next();
+			it.remove();
+			totalBytes -= eldest.getValue();
+			entryFile(eldest.getKey()).delete();
+			evicted++;
+		}
+	}
+
+	private void remove(String key) {
+		Long size = entries.remove(key);
+		if (size != null)
+			totalBytes -= size;
+		entryFile(key).delete();
+	}
+
+	private File entryFile(String key) {
+		return new File(cacheDir, key + SUFFIX);
+	}
+
+	/*
+	 * The key of the file as it was when it was checked (contains) or restored, until it is stored or released.
+	 * The file is hashed out of the lock.
+	 */
+	private String keyOf(String fileFullPath, String extractorVersion) {
+		synchronized (this) {
+			String pending = pendingKeys.get(fileFullPath);
+			if (pending != null) return pending;
+		}
+		try (InputStream in = new BufferedInputStream(new FileInputStream(fileFullPath))) {
+			MessageDigest content = MessageDigest.getInstance("SHA-256");
+			byte[] buffer = new byte[8192];
+			int n;
+			while ((n = in.read(buffer)) > 0) {
+				content.update(buffer, 0, n);
+			}
+			MessageDigest origin = MessageDigest.getInstance("SHA-256");
+			origin.update((fileFullPath + "\n" + extractorVersion + "\n" + FORMAT_VERSION).getBytes(StandardCharsets.UTF_8));
+			String key = hex(content.digest(), 32) + "-" + hex(origin.digest(), 8);
+			synchronized (this) {
+				String pending = pendingKeys.putIfAbsent(fileFullPath, key);
+				return pending != null ? pending : key;
+			}
+		} catch (IOException | NoSuchAlgorithmException e) {
+			return null;
+		}
+	}
+
+	private static String hex(byte[] bytes, int length) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			sb.append(String.format("%02x", bytes[i]));
+		}
+		return sb.toString();
+	}
+
+	private static void collectSubtree(Entity entity, List<Entity> subtree) {
+		subtree.add(entity);
+		for (Entity child : entity.getChildren()) {
+			if (child.getParent() == entity)
+				collectSubtree(child, subtree);
+		}
+	}
+
+	private static Set<Entity> identitySet(List<Entity> entities) {
+		Set<Entity> set = Collections.newSetFromMap(new IdentityHashMap<>());
+		set.addAll(entities);
+		return set;
+	}
+
+	private static class CachedFile implements Serializable {
+		private static final long serialVersionUID = 1L;
+		FileEntity file;
+		List<Entity> registered;
+		String parentName;
+	}
+
+	/**
+	 * Stands for an entity out of the cached file, e.g. the package
+	 */
+	private static class ExternalEntity implements Serializable {
+		private static final long serialVersionUID = 1L;
+		final String qualifiedName;
+
+		ExternalEntity(String qualifiedName) {
+			this.qualifiedName = qualifiedName;
+		}
+	}
+
+	private static class EntityOutputStream extends ObjectOutputStream {
+		private final Set<Entity> subtree;
+
+		EntityOutputStream(OutputStream out, Set<Entity> subtree) throws IOException {
+			super(out);
+			this.subtree = subtree;
+			enableReplaceObject(true);
+		}
+
+		@Override
+		protected Object replaceObject(Object obj) {
+			// multi-declarations are re-built when the entities are added into repo
+			if (obj instanceof MultiDeclareEntities)
+				return null;
+			if (obj instanceof Entity && !subtree.contains(obj))
+				return new ExternalEntity(((Entity) obj).getQualifiedName());
+			return obj;
+		}
+	}
+
+	private static class EntityInputStream extends ObjectInputStream {
+		private final EntityRepo repo;
+
+		EntityInputStream(InputStream in, EntityRepo repo) throws IOException {
+			super(in);
+			this.repo = repo;
+			enableResolveObject(true);
+		}
+
+		@Override
+		protected Object resolveObject(Object obj) {
+			if (obj instanceof ExternalEntity)
+				return repo.getEntity(((ExternalEntity) obj).qualifiedName);
+			return obj;
+		}
+	}
+}
@@ -0,0 +1,249 @@
+package depends.extractor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import multilang.depends.util.file.FileUtil;
+
+/**
+ * The files and folders under a set of root folders, walked once (a fork-join task per folder),
+ * so the resolvers of the included/imported files check the existence and get the canonical path
+ * of the candidate paths from memory instead of the file system.
+ * The paths are looked up by their absolute, normalized form (".." is resolved lexically);
+ * the paths outside of the roots are still checked on disk.
+ * It is read-only once built, so it could be shared by the threads parsing the files.
+ */
+public class PathIndex {
+	private static final PathIndex FILE_SYSTEM = new PathIndex(Collections.emptyList());
+	private final List<Path> roots = new ArrayList<>();
+	/* normalized absolute path -> entry */
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * @return an index without roots, i.e. every lookup goes to the file system
+	 */
+	public static PathIndex fileSystem() {
+		return FILE_SYSTEM;
+	}
+
+	/**
+	 * @param folders the folders to be walked (the missing ones are ignored)
+	 */
+	public static PathIndex build(Collection<String> folders) {
+		return new PathIndex(folders);
+	}
+
+	private PathIndex(Collection<String> folders) {
+		List<WalkTask> tasks = new ArrayList<>();
+		for (String folder : folders) {
+			Path root = normalize(folder);
+			if (isIndexed(root) || !Files.isDirectory(root))
+				continue;
+			roots.removeIf(indexed -> indexed.startsWith(root));
+			roots.add(root);
+		}
+		for (Path root : roots) {
+			try {
+				String canonical = root.toRealPath().toString();
+				Entry entry = new Entry(canonical, true);
+				entries.put(root.toString(), entry);
+				tasks.add(new WalkTask(root, entry, new Ancestor(null, canonical)));
+			} catch (IOException e) {
+				// removed meanwhile
+			}
+		}
+		if (tasks.isEmpty())
+			return;
+		ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		try {
+			for (WalkTask task : tasks) {
+				pool.execute(task);
+			}
+			for (WalkTask task : tasks) {
+				task.join();
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Whether the path is under the roots, i.e. it is looked up in memory
+	 */
+	public boolean isIndexed(String path) {
+		return isIndexed(normalize(path));
+	}
+
+	public boolean exists(String path) {
+		Path normalized = normalize(path);
+		if (!isIndexed(normalized))
+			return FileUtil.existFile(path);
+		return entries.containsKey(normalized.toString());
+	}
+
+	public boolean isDirectory(String path) {
+		Path normalized = normalize(path);
+		if (!isIndexed(normalized))
+			return FileUtil.isDirectory(path);
+		Entry entry = entries.get(normalized.toString());
+		return entry != null && entry.directory;
+	}
+
+	/**
+	 * @return whether it is an existing file (not a folder)
+	 */
+	public boolean isFile(String path) {
+		Path normalized = normalize(path);
+		if (!isIndexed(normalized))
+			return new File(path).isFile();
+		Entry entry = entries.get(normalized.toString());
+		return entry != null && !entry.directory;
+	}
+
+	/**
+	 * @return the same as FileUtil.uniqFilePath
+	 */
+	public String canonicalPath(String path) {
+		Path normalized = normalize(path);
+		Entry entry = isIndexed(normalized) ? entries.get(normalized.toString()) : null;
+		if (entry == null)
+			return FileUtil.uniqFilePath(path);
+		return entry.canonicalPath;
+	}
+
+	/**
+	 * @return the paths (normalized, absolute) of the files and folders in the folder, empty if it is not a folder
+	 */
+	public List<String> list(String dir) {
+		Path normalized = normalize(dir);
+		if (isIndexed(normalized)) {
+			Entry entry = entries.get(normalized.toString());
+			return entry == null || entry.children == null ? Collections.emptyList() : entry.children;
+		}
+		List<String> result = new ArrayList<>();
+		File[] files = normalized.toFile().listFiles();
+		if (files == null)
+			return result;
+		for (File file : files) {
+			result.add(file.getPath());
+		}
+		return result;
+	}
+
+	/**
+	 * @return the number of the files and folders indexed
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	private boolean isIndexed(Path path) {
+		for (Path root : roots) {
+			if (path.startsWith(root))
+				return true;
+		}
+		return false;
+	}
+
+	private static Path normalize(String path) {
+		return Paths.get(path).toAbsolutePath().normalize();
+	}
+
+	private static class Entry {
+		final String canonicalPath;
+		final boolean directory;
+		/* the paths in the folder, set once it is walked */
+		volatile List<String> children;
+
+		Entry(String canonicalPath, boolean directory) {
+			this.canonicalPath = canonicalPath;
+			this.directory = directory;
+		}
+	}
+
+	/* the canonical paths of the folders being walked, to stop at the symbolic links to an outer folder */
+	private static class Ancestor {
+		final Ancestor parent;
+		final String canonicalPath;
+
+		Ancestor(Ancestor parent, String canonicalPath) {
+			this.parent = parent;
+			this.canonicalPath = canonicalPath;
+		}
+
+		boolean contains(String canonicalPath) {
+			for (Ancestor ancestor = this; ancestor != null; ancestor = ancestor.parent) {
+				if (ancestor.canonicalPath.equals(canonicalPath))
+					return true;
+			}
+			return false;
+		}
+	}
+
+	private class WalkTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Path dir;
+		private final Entry entry;
+		private final Ancestor ancestors;
+
+		WalkTask(Path dir, Entry entry, Ancestor ancestors) {
+			this.dir = dir;
+			this.entry = entry;
+			this.ancestors = ancestors;
+		}
+
+		@Override
+		protected void compute() {
+			List<String> children = new ArrayList<>();
+			List<WalkTask> subTasks = new ArrayList<>();
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+				for (Path child : stream) {
+					Entry childEntry = entryOf(child);
+					if (childEntry == null)
+						continue;
+					entries.put(child.toString(), childEntry);
+					children.add(child.toString());
+					if (childEntry.directory && !ancestors.contains(childEntry.canonicalPath))
+						subTasks.add(new WalkTask(child, childEntry, new Ancestor(ancestors, childEntry.canonicalPath)));
+				}
+			} catch (IOException | SecurityException e) {
+				// not readable, the same as an empty folder
+			}
+			entry.children = Collections.unmodifiableList(children);
+			invokeAll(subTasks);
+		}
+
+		/* the canonical path of a child is the one of the folder, except for the symbolic links */
+		private Entry entryOf(Path child) {
+			try {
+				BasicFileAttributes attrs = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+				String canonical = entry.canonicalPath.endsWith(File.separator) ?
+						entry.canonicalPath + child.getFileName() : entry.canonicalPath + File.separator + child.getFileName();
+				boolean directory = attrs.isDirectory();
+				if (attrs.isSymbolicLink()) {
+					Path target = child.toRealPath();
+					canonical = target.toString();
+					directory = Files.isDirectory(target);
+				}
+				return new Entry(canonical, directory);
+			} catch (IOException | SecurityException e) {
+				// e.g. a broken link, File.exists is false as well
+				return null;
+			}
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package depends.extractor;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+
+/**
+ * Source files served from memory instead of the disk, e.g. the blobs of a git commit.
+ * The files are named by the full paths they would have on the disk under the root folder,
+ * which does not have to exist.
+ */
+public interface VirtualFiles {
+	/**
+	 * The root folder of the files
+	 */
+	String getRoot();
+
+	/**
+	 * The full paths of the files, in order
+	 */
+	List<String> getFilePaths();
+
+	/**
+	 * The content of the file, or null if it is not one of the virtual files
+	 */
+	CharStream open(String fileFullPath) throws IOException;
+
+	/**
+	 * Read the file from the virtual files if it is one of them, otherwise from the disk
+	 */
+	static CharStream charStreamOf(VirtualFiles virtualFiles, String fileFullPath) throws IOException {
+		if (virtualFiles != null) {
+			CharStream input = virtualFiles.open(fileFullPath);
+			if (input != null)
+				return input;
+		}
+		return CharStreams.fromFileName(fileFullPath);
+	}
+}
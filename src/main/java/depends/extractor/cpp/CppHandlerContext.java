@@ -51,6 +51,7 @@ public class CppHandlerContext extends HandlerContext {
 		functionEntity.setStartLine(startingLineNumber);
 		entityRepo.add(functionEntity);
 		this.typeOrFileContainer().addFunction(functionEntity);
+		declarationsChanged();
 		super.pushToStack(functionEntity);
 		return functionEntity;
 	}
@@ -61,6 +62,7 @@ public class CppHandlerContext extends HandlerContext {
 		functionEntity.setStartLine(startingLineNumber);
 		entityRepo.add(functionEntity);
 		this.typeOrFileContainer().addFunction(functionEntity);
+		declarationsChanged();
 		super.pushToStack(functionEntity);
 		return functionEntity;		
 	}
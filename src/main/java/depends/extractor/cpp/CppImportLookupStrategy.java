@@ -26,11 +26,11 @@ package depends.extractor.cpp;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import depends.entity.*;
 import depends.entity.repo.EntityRepo;
@@ -42,8 +42,16 @@ import depends.relations.ImportLookupStrategy;
 import depends.relations.Inferer;
 
 public class CppImportLookupStrategy implements ImportLookupStrategy {
+	/**
+	 * The result of a name is kept per translation unit (see {@link depends.relations.NameResolutionCache#getImported}),
+	 * so the included files are searched only once for every name used in a file.
+	 */
 	@Override
 	public Entity lookupImportedType(String name, FileEntity fileEntity, EntityRepo repo, Inferer inferer) {
+		return inferer.getNameCache().getImported(fileEntity, name, () -> lookupInIncludedFiles(name, fileEntity, repo, inferer));
+	}
+
+	private Entity lookupInIncludedFiles(String name, FileEntity fileEntity, EntityRepo repo, Inferer inferer) {
 		String importedString = fileEntity.importedSuffixMatch(name);
 		if (importedString!=null) {
 			Entity r = repo.getEntity(importedString);
@@ -102,37 +110,101 @@ public class CppImportLookupStrategy implements ImportLookupStrategy {
 		return null;
 	}
 
-	private Map<Integer, List<Integer> > includedFiles  = new HashMap<>();
-	private  List<Integer> getIncludedFiles(FileEntity fileEntity) {
+	/* translation unit -> the included files */
+	private Map<Integer, List<Integer> > includedFiles  = new ConcurrentHashMap<>();
+	/* header -> its closure, shared by the translation units; dropped whenever the included files of a file are resolved */
+	private volatile Map<Integer, HeaderClosure> headerClosures = new ConcurrentHashMap<>();
 
-		if (includedFiles.containsKey(fileEntity.getId())) {
-				return includedFiles.get(fileEntity.getId());
-		}
-		List<Integer> fileSet = new ArrayList<>();
-		foundIncludedFiles(fileSet, fileEntity.getImportedFiles(), fileEntity.getQualifiedName(), fileEntity.getQualifiedName());
-		includedFiles.put(fileEntity.getId(), fileSet);
-		return fileSet;
+	List<Integer> getIncludedFiles(FileEntity fileEntity) {
+		return includedFiles.computeIfAbsent(fileEntity.getId(), id -> collectIncludedFiles(fileEntity));
 	}
 
-	private void foundIncludedFiles(List<Integer> fileSet, Collection<Entity> importedFiles, String fileName, String originFileName) {
-		String prefixFileName = fileName.substring(0, fileName.lastIndexOf("."));
-		String prefixOriginFileName = originFileName.substring(0, originFileName.lastIndexOf("."));
-		for (Entity file:importedFiles) {
-			if (file==null ) continue;
-			if(prefixFileName.equals(prefixOriginFileName)) {
-				if (!(file instanceof FileEntity || file instanceof TypeEntity || file instanceof MultiDeclareEntities)) continue;
-			} else {
-				if (!(file instanceof FileEntity || file instanceof MultiDeclareEntities)) continue;
+	/**
+	 * The included files in the order of a depth-first traversal, the lookup returns the first match.
+	 * The traversal of an included header is the preorder closure of the header (computed once,
+	 * see HeaderClosure) without the files visited before: the files visited before were fully traversed,
+	 * so the ones they lead to are visited already as well.
+	 */
+	private List<Integer> collectIncludedFiles(FileEntity fileEntity) {
+		String originFileName = fileEntity.getQualifiedName();
+		String prefixOriginFileName = prefixOf(originFileName);
+		List<Integer> fileSet = new ArrayList<>();
+		Set<Integer> visited = new HashSet<>();
+		Map<Integer, HeaderClosure> closures = headerClosures;
+		for (Entity file : fileEntity.getImportedFiles()) {
+			if (!isIncluded(file, true) || visited.contains(file.getId())) continue;
+			if (!(file instanceof FileEntity)) {
+				visited.add(file.getId());
+				fileSet.add(file.getId());
+				continue;
 			}
-			if (fileSet.contains(file.getId())) continue;
-			if(!fileSet.contains(file.getId())){
+			HeaderClosure closure = closures.computeIfAbsent(file.getId(), id -> new HeaderClosure((FileEntity) file));
+			if (closure.traversedPrefixes.contains(prefixOriginFileName)) {
+				// e.g. the header of the translation unit is included back, the filter is not the same
+				visited.add(file.getId());
 				fileSet.add(file.getId());
+				foundIncludedFiles(fileSet, visited, ((FileEntity) file).getImportedFiles(), file.getQualifiedName(), prefixOriginFileName, null);
+				continue;
+			}
+			for (Integer id : closure.files) {
+				if (visited.add(id))
+					fileSet.add(id);
 			}
+		}
+		return fileSet;
+	}
+
+	/**
+	 * The included files of a header in the order of a depth-first traversal from it (the header first),
+	 * with the filter of the files not sharing the name of the translation unit
+	 */
+	private class HeaderClosure {
+		final List<Integer> files = new ArrayList<>();
+		/* the name prefixes of the files whose included files are traversed */
+		final Set<String> traversedPrefixes = new HashSet<>();
+
+		HeaderClosure(FileEntity header) {
+			Set<Integer> visited = new HashSet<>();
+			visited.add(header.getId());
+			files.add(header.getId());
+			foundIncludedFiles(files, visited, header.getImportedFiles(), header.getQualifiedName(), null, traversedPrefixes);
+		}
+	}
+
+	/**
+	 * The visited files are kept in a set, so a file is checked in constant time.
+	 * @param prefixOriginFileName null if none of the files shares the name of the translation unit
+	 * @param traversedPrefixes collects the name prefixes of the traversed files (could be null)
+	 */
+	private void foundIncludedFiles(List<Integer> fileSet, Set<Integer> visited, Collection<Entity> importedFiles, String fileName,
+			String prefixOriginFileName, Set<String> traversedPrefixes) {
+		String prefixFileName = prefixOf(fileName);
+		if (traversedPrefixes != null)
+			traversedPrefixes.add(prefixFileName);
+		for (Entity file:importedFiles) {
+			if (!isIncluded(file, prefixFileName.equals(prefixOriginFileName))) continue;
+			if (!visited.add(file.getId())) continue;
+			fileSet.add(file.getId());
 			if(file instanceof FileEntity){
-				foundIncludedFiles(fileSet,((FileEntity)file).getImportedFiles(), file.getQualifiedName(), originFileName);
+				foundIncludedFiles(fileSet, visited, ((FileEntity)file).getImportedFiles(), file.getQualifiedName(), prefixOriginFileName, traversedPrefixes);
 			}
 		}
 	}
+
+	/**
+	 * @param isOrigin whether the including file shares the name of the translation unit,
+	 *                 e.g. the header of the translation unit, whose types are included as well
+	 */
+	private static boolean isIncluded(Entity file, boolean isOrigin) {
+		if (file == null) return false;
+		if (isOrigin)
+			return file instanceof FileEntity || file instanceof TypeEntity || file instanceof MultiDeclareEntities;
+		return file instanceof FileEntity || file instanceof MultiDeclareEntities;
+	}
+
+	private static String prefixOf(String fileName) {
+		return fileName.substring(0, fileName.lastIndexOf("."));
+	}
 	
 	
 	@Override
@@ -174,6 +246,8 @@ public class CppImportLookupStrategy implements ImportLookupStrategy {
 
 	@Override
 	public List<Entity> getImportedFiles(List<Import> importedList, EntityRepo repo) {
+		// the included files of a file are resolved, so the closures of the headers could be changed
+		headerClosures = new ConcurrentHashMap<>();
 		return getImportedRelationEntities(importedList,repo);
 	}
 	
@@ -32,10 +32,14 @@ import depends.entity.repo.BuiltInType;
 import depends.extractor.AbstractLangProcessor;
 import depends.extractor.FileParser;
 import depends.extractor.cpp.cdt.CdtCppFileParser;
+import depends.extractor.cpp.cdt.FileCache;
 import depends.extractor.cpp.cdt.PreprocessorHandler;
 import depends.relations.ImportLookupStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class CppProcessor extends AbstractLangProcessor {
+	private static final Logger logger = LoggerFactory.getLogger(CppProcessor.class);
 	private static final String LANG = "cpp";
 	private static final String[] SUFFIX = new String[] { ".cpp", ".cc", ".c", ".c++", ".h", ".hpp", ".hh", ".cxx", ".hxx" };
 	PreprocessorHandler preprocessorHandler = null;
@@ -64,11 +68,21 @@ public class CppProcessor extends AbstractLangProcessor {
 			macroRepo.buildDefaultMap(super.includePaths());
 		}
 		if (preprocessorHandler==null) {
-			preprocessorHandler = new PreprocessorHandler(super.snapshotProjectPath,super.includePaths(), super.excludePaths);
+			preprocessorHandler = new PreprocessorHandler(super.includePaths(), super.excludePaths, getFileManifest().getPathIndex());
 		}
 		return new CdtCppFileParser(fileFullPath, entityRepo, preprocessorHandler, inferer, macroRepo);
 	}
 
+	@Override
+	protected void parsingFinished() {
+		/* the index of the files could be out of date at the next parsing, e.g. of the next commit */
+		preprocessorHandler = null;
+		if (logger.isDebugEnabled()) {
+			logger.debug(FileCache.getInstance().toString());
+		}
+		FileCache.getInstance().clear();
+	}
+
 	@Override
 	public ImportLookupStrategy getImportLookupStrategy() {
 		return new CppImportLookupStrategy();
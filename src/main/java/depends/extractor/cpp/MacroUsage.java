@@ -0,0 +1,115 @@
+package depends.extractor.cpp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decide whether a source file has to be preprocessed again after more macros are known
+ * (e.g. the macros defined by its included files). The identifiers of the source, and of the
+ * expansions of the macros it uses, are compared with the names of the changed macros.
+ * Identifiers in comments or strings are counted too. The names made by token pasting
+ * (e.g. FOOBAR of CAT(FOO,BAR) with CAT(a,b) a##b) are not known without expanding the macros,
+ * so a source or a used expansion with ## is affected by any change: the answer is conservative.
+ */
+public class MacroUsage {
+	private static final String TOKEN_PASTING = "##";
+	private final Set<String> identifiers;
+	private final boolean pastesTokens;
+
+	public MacroUsage(char[] content) {
+		this.identifiers = identifiersOf(content);
+		this.pastesTokens = new String(content).contains(TOKEN_PASTING);
+	}
+
+	/**
+	 * @param before the macros the file was preprocessed with
+	 * @param after the macros the file would be preprocessed with now
+	 * @return whether the preprocessed file could be different (always true when any macro changed
+	 * and the source or the expansion of a used macro pastes tokens)
+	 */
+	public boolean isAffectedBy(Map<String, String> before, Map<String, String> after) {
+		Set<String> changed = new HashSet<>();
+		for (Map.Entry<String, String> macro : after.entrySet()) {
+			String previous = before.get(macro.getKey());
+			if (previous == null ? !before.containsKey(macro.getKey()) : !previous.equals(macro.getValue()))
+				changed.add(macroName(macro.getKey()));
+		}
+		for (String key : before.keySet()) {
+			if (!after.containsKey(key))
+				changed.add(macroName(key));
+		}
+		if (changed.isEmpty())
+			return false;
+		if (pastesTokens)
+			return true;
+
+		// the expansions of both versions, by macro name
+		Map<String, List<String>> expansions = new HashMap<>();
+		addExpansions(expansions, before);
+		addExpansions(expansions, after);
+		Set<String> used = new HashSet<>(identifiers);
+		Deque<String> pending = new ArrayDeque<>(identifiers);
+		while (!pending.isEmpty()) {
+			String identifier = pending.pop();
+			if (changed.contains(identifier))
+				return true;
+			List<String> macroExpansions = expansions.get(identifier);
+			if (macroExpansions == null)
+				continue;
+			for (String expansion : macroExpansions) {
+				if (expansion.contains(TOKEN_PASTING))
+					return true;
+				for (String expanded : identifiersOf(expansion.toCharArray())) {
+					if (used.add(expanded))
+						pending.push(expanded);
+				}
+			}
+		}
+		return false;
+	}
+
+	private static void addExpansions(Map<String, List<String>> expansions, Map<String, String> macros) {
+		for (Map.Entry<String, String> macro : macros.entrySet()) {
+			if (macro.getValue() == null)
+				continue;
+			expansions.computeIfAbsent(macroName(macro.getKey()), key -> new ArrayList<>()).add(macro.getValue());
+		}
+	}
+
+	/**
+	 * The name of a macro key, e.g. MAX of "MAX(a,b)"
+	 */
+	static String macroName(String key) {
+		int pos = key.indexOf('(');
+		return (pos < 0 ? key : key.substring(0, pos)).trim();
+	}
+
+	static Set<String> identifiersOf(char[] content) {
+		Set<String> result = new HashSet<>();
+		int i = 0;
+		while (i < content.length) {
+			char c = content[i];
+			if (Character.isJavaIdentifierStart(c) && c != '$') {
+				int start = i;
+				while (i < content.length && Character.isJavaIdentifierPart(content[i]) && content[i] != '$') {
+					i++;
+				}
+				result.add(new String(content, start, i - start));
+			} else if (Character.isDigit(c)) {
+				// skip the suffixes of numbers, e.g. 10UL
+				while (i < content.length && Character.isLetterOrDigit(content[i])) {
+					i++;
+				}
+			} else {
+				i++;
+			}
+		}
+		return result;
+	}
+}
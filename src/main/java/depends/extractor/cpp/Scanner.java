@@ -1,13 +1,11 @@
 package depends.extractor.cpp;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
 import org.eclipse.cdt.core.dom.parser.IScannerExtensionConfiguration;
 import org.eclipse.cdt.core.dom.parser.cpp.GPPScannerExtensionConfiguration;
 import org.eclipse.cdt.core.index.IIndexFileLocation;
-import org.eclipse.cdt.core.parser.CodeReader;
 import org.eclipse.cdt.core.parser.FileContent;
 import org.eclipse.cdt.core.parser.IScanner;
 import org.eclipse.cdt.core.parser.IScannerInfo;
@@ -33,12 +31,8 @@ public class Scanner {
 	 * @return the scanner
 	 */
 	public static IScanner buildScanner(String file, Map<String, String> macroMap, List<String> sysIncludePath, boolean shouldScanInclusionFiles) {
-		String content = "";
-		try {
-			CodeReader cr = new CodeReader(file);
-			content = new String(cr.buffer);
-		} catch (IOException e) {
-		}
+		// the content is shared with the other parses of the file
+		char[] content = FileCache.getInstance().getContent(file);
 		IScannerInfo scannerInfo = new ScannerInfo(macroMap, sysIncludePath.toArray(new String[] {}));
 		IScannerExtensionConfiguration configuration = GPPScannerExtensionConfiguration.getInstance(scannerInfo);
 		InternalFileContentProvider ifcp = new InternalFileContentProvider() {
@@ -71,7 +65,7 @@ public class Scanner {
 		ParserLanguage lang = ParserLanguage.CPP;
 		if (file.endsWith(".c"))
 			lang = ParserLanguage.C;
-		IScanner scanner = new CPreprocessor(FileContent.create(file, content.toCharArray()), scannerInfo, lang,
+		IScanner scanner = new CPreprocessor(FileContent.create(file, content), scannerInfo, lang,
 				new NullLogService(), configuration, IncludeFileContentProvider.getEmptyFilesProvider());
 		scanner.setProcessInactiveCode(true);
 		return scanner;
@@ -38,6 +38,7 @@ import depends.entity.FileEntity;
 import depends.entity.repo.EntityRepo;
 import depends.extractor.cpp.CppFileParser;
 import depends.extractor.cpp.MacroRepo;
+import depends.extractor.cpp.MacroUsage;
 import depends.relations.Inferer;
 import multilang.depends.util.file.FileUtil;
 
@@ -79,6 +80,7 @@ public class CdtCppFileParser extends CppFileParser {
 		}
 		CppVisitor bridge = new CppVisitor(fileFullPath, entityRepo, preprocessorHandler,inferer);
 		IASTTranslationUnit tu = (new CDTParser(preprocessorHandler.getIncludePaths())).parse(fileFullPath,macroMap);
+		Map<String, String> parsedMacroMap = new HashMap<>(macroMap);
 		boolean containsIncludes = false;
 		for (String incl:preprocessorHandler.getDirectIncludedFiles(tu.getAllPreprocessorStatements(),fileFullPath)) {
 			CdtCppFileParser importedParser = new CdtCppFileParser(incl, entityRepo, preprocessorHandler,inferer,macroRepo);
@@ -88,7 +90,9 @@ public class CdtCppFileParser extends CppFileParser {
 				macroMap.putAll(macros);
 			containsIncludes = true;
 		}
-		if (containsIncludes) {
+		/* parse again only if the macros of the included files could change the file */
+		if (containsIncludes &&
+				new MacroUsage(FileCache.getInstance().getContent(fileFullPath)).isAffectedBy(parsedMacroMap, macroMap)) {
 			tu = (new CDTParser(preprocessorHandler.getIncludePaths())).parse(fileFullPath,macroMap);
 		}
 		macroRepo.putMacros(this.fileFullPath,macroMap,tu.getMacroDefinitions());
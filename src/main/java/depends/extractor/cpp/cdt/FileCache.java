@@ -1,33 +1,109 @@
 package depends.extractor.cpp.cdt;
 
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.eclipse.cdt.core.index.IIndexFileLocation;
+import org.eclipse.cdt.core.parser.CodeReader;
 import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContent;
 
+/**
+ * The contents of the source files shared by the scanners of all translation units.
+ * A file (e.g. a translation unit which is preprocessed twice, or a header) is read once
+ * as long as it stays in the cache; the least recently used contents are evicted
+ * when the total size exceeds the limit.
+ * The contents are only kept during a parsing of the files: the processor clears
+ * the cache once all files are parsed, since they could be changed before the next one.
+ */
 public class FileCache {
+	public static final long DEFAULT_MAX_CHARS = 64L * 1024 * 1024;
 	private HashMap<String, InternalFileContent> cache;
 	private HashMap<IIndexFileLocation, InternalFileContent> cache2;
+	private final LinkedHashMap<String, char[]> contents = new LinkedHashMap<>(256, 0.75f, true);
+	private long maxChars = DEFAULT_MAX_CHARS;
+	private long chars = 0;
+	private long hits = 0;
+	private long misses = 0;
 	private FileCache() {
 		this.cache = new HashMap<>();
+		this.cache2 = new HashMap<>();
 	}
-	static FileCache inst = null;
+	static final FileCache inst = new FileCache();
 	public static FileCache getInstance() {
-		if (inst==null) inst = new FileCache();
 		return inst;
 	}
-	public InternalFileContent get(String filePath) {
+
+	/**
+	 * The content of the file, or an empty content if it could not be read
+	 */
+	public char[] getContent(String filePath) {
+		synchronized (this) {
+			char[] content = contents.get(filePath);
+			if (content != null) {
+				hits++;
+				return content;
+			}
+			misses++;
+		}
+		char[] content;
+		try {
+			content = new CodeReader(filePath).buffer;
+		} catch (IOException e) {
+			return new char[0];
+		}
+		synchronized (this) {
+			if (contents.put(filePath, content) == null)
+				chars += content.length;
+			evict();
+		}
+		return content;
+	}
+
+	public synchronized void setMaxChars(long maxChars) {
+		this.maxChars = maxChars;
+		evict();
+	}
+
+	/**
+	 * Drop all contents, and reset the counters of the report
+	 */
+	public synchronized void clear() {
+		contents.clear();
+		cache.clear();
+		cache2.clear();
+		chars = 0;
+		hits = 0;
+		misses = 0;
+	}
+
+	private void evict() {
+		Iterator<Map.Entry<String, char[]>> iterator = contents.entrySet().iterator();
+		while (chars > maxChars && iterator.hasNext()) {
+			chars -= iterator.next().getValue().length;
+			iterator.remove();
+		}
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "File cache: " + hits + " hits, " + misses + " misses, " + contents.size() + " files of " + chars + " chars";
+	}
+
+	public synchronized InternalFileContent get(String filePath) {
 		InternalFileContent result = cache.get(filePath);
 		return result;
 	}
-	public void put(String filePath, InternalFileContent c) {
+	public synchronized void put(String filePath, InternalFileContent c) {
 		cache.put(filePath,c);
 	}
-	public InternalFileContent get(IIndexFileLocation ifl) {
+	public synchronized InternalFileContent get(IIndexFileLocation ifl) {
 		InternalFileContent result = cache2.get(ifl);
 		return result;
 	}
-	public void put(IIndexFileLocation ifl, InternalFileContent c) {
+	public synchronized void put(IIndexFileLocation ifl, InternalFileContent c) {
 		cache2.put(ifl,c);
 	}
 
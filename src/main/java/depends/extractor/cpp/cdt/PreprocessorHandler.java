@@ -25,9 +25,7 @@ SOFTWARE.
 package depends.extractor.cpp.cdt;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 
 import org.eclipse.cdt.core.dom.ast.IASTFileLocation;
@@ -35,49 +33,41 @@ import org.eclipse.cdt.core.dom.ast.IASTPreprocessorIncludeStatement;
 import org.eclipse.cdt.core.dom.ast.IASTPreprocessorStatement;
 import org.eclipse.cdt.internal.core.parser.scanner.ScannerUtility;
 
-import multilang.depends.util.file.FileTraversal;
-import multilang.depends.util.file.FileTraversal.IFileVisitor;
-import multilang.depends.util.file.FileUtil;
+import depends.extractor.FileManifest;
+import depends.extractor.PathIndex;
 
 public class PreprocessorHandler {
 	private List<String> includePaths;
-	private String inputSrcPath;
+	/* the canonical exclude paths, the included files under them are ignored */
 	private List<String> excludePaths;
-	private HashSet<String> allFiles = new HashSet<>();
+	/* the files of the source and the include paths, the included files are looked up in */
+	private PathIndex pathIndex;
 	public PreprocessorHandler(String inputSrcPath, List<String> includePaths, List<String> excludePaths){
-		this.inputSrcPath = inputSrcPath;
+		this(includePaths, excludePaths, PathIndex.build(foldersOf(inputSrcPath, includePaths)));
+	}
+
+	/**
+	 * @param pathIndex the index of the source and the include paths, e.g. the one of the discovered files
+	 */
+	public PreprocessorHandler(List<String> includePaths, List<String> excludePaths, PathIndex pathIndex){
 		this.includePaths = includePaths;
-		this.excludePaths = excludePaths;
-		buildAllFiles();
+		this.excludePaths = FileManifest.uniqPaths(excludePaths);
+		this.pathIndex = pathIndex;
 	}
 	
-	class AllFileVisitor implements IFileVisitor{
-		@Override
-		public void visit(File file) {
-			try {
-				allFiles.add(file.getCanonicalPath());
-			} catch (IOException e) {
-			}
-		}
-	}
-	private void buildAllFiles() {
-		allFiles = new HashSet<>();
-		AllFileVisitor v = new AllFileVisitor();
+	private static List<String> foldersOf(String inputSrcPath, List<String> includePaths) {
+		List<String> folders = new ArrayList<>();
 		if (inputSrcPath!=null) {
-			FileTraversal ft = new FileTraversal(v,false,true);
-			ft.setExcludePaths(excludePaths);
-			ft.travers(inputSrcPath);
-		}
-		for (String includePath:includePaths) {
-			FileTraversal ft = new FileTraversal(v,false,true);
-			ft.setExcludePaths(excludePaths);
-			ft.travers(includePath);
+			folders.add(inputSrcPath);
 		}
+		folders.addAll(includePaths);
+		return folders;
 	}
 
 	private boolean existFile(String checkPath) {
-		checkPath = FileUtil.uniformPath(checkPath);
-		return allFiles.contains(checkPath);
+		if (checkPath.isEmpty() || !pathIndex.isIndexed(checkPath))
+			return false;
+		return pathIndex.isFile(checkPath) && !FileManifest.isExcluded(pathIndex.canonicalPath(checkPath), excludePaths);
 	}
 	
 	public List<String> getDirectIncludedFiles(IASTPreprocessorStatement[] statements, String fileLocation) {
@@ -92,7 +82,7 @@ public class PreprocessorHandler {
 				if (!existFile(path)) {
 					continue;
 				}
-				if (FileUtil.isDirectory(path)) {
+				if (pathIndex.isDirectory(path)) {
 					continue;
 				}
 				includedFullPathNames.add(path);
@@ -110,14 +100,14 @@ public class PreprocessorHandler {
 		}
 		//First search in local directory
 		IASTFileLocation location = incl.getFileLocation();
-		String locationDir = FileUtil.getLocatedDir(location.getFileName());
+		String locationDir = pathIndex.exists(location.getFileName())?new File(location.getFileName()).getParent():null;
 		ArrayList<String> searchPath = new ArrayList<>();
 		searchPath.add(locationDir);
 		searchPath.addAll(includePaths);
 		for (String includePath:searchPath) {
 			String checkPath = ScannerUtility.createReconciledPath(includePath,path);
 			if (existFile(checkPath)) {
-				return FileUtil.uniqFilePath(checkPath);
+				return pathIndex.canonicalPath(checkPath);
 			}
 		}
 		return "";
@@ -0,0 +1,30 @@
+package depends.extractor.git;
+
+import org.eclipse.jgit.revwalk.RevCommit;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The changed files of a commit, see CommitExtractor.getChangedFilePath
+ */
+public class CommitChanges {
+    public final RevCommit commit;
+    // 修改之后的文件路径集合
+    public final List<String> currentFilePathList = new ArrayList<>();
+    // 修改之后的文件在临时文件夹中的路径集合
+    public final List<String> currentSnapshotFilePathList = new ArrayList<>();
+    // 修改之前的文件路径集合
+    public final List<String> previousFilePathList = new ArrayList<>();
+    public final List<String> removedFilePathList = new ArrayList<>();
+    public final List<String> addedFilePathList = new ArrayList<>();
+    public final List<String> modifiedFilePathList = new ArrayList<>();
+    // key-value: previousFilePath-currentFilePath
+    public final Map<String, String> renamedFilePathMap = new HashMap<>();
+
+    public CommitChanges(RevCommit commit) {
+        this.commit = commit;
+    }
+}
@@ -72,6 +72,12 @@ public class CommitExtractor {
         }
     }
 
+    public CommitChanges getChanges(RevCommit revCommit, String projectPath, String CLDiffOutputPath) {
+        CommitChanges changes = new CommitChanges(revCommit);
+        getChangedFilePath(revCommit, projectPath, CLDiffOutputPath, changes.currentFilePathList, changes.currentSnapshotFilePathList, changes.previousFilePathList, changes.removedFilePathList, changes.addedFilePathList, changes.modifiedFilePathList, changes.renamedFilePathMap);
+        return changes;
+    }
+
     public Map<String, JSONArray> getDiffData(RevCommit revCommit, String CLDiffOutputPath) {
         CLDiffLocal CLDiffLocal = new CLDiffLocal();
         return CLDiffLocal.getDiff(revCommit.getName(), gitExtractor.getGitPath(), CLDiffOutputPath);
@@ -0,0 +1,73 @@
+package depends.extractor.git;
+
+/**
+ * The commits to be replayed: the commits of the branch in the time range [since, until],
+ * the oldest one is analyzed as the initial version and the others are applied incrementally.
+ */
+public class CommitRange {
+    private final String gitPath;
+    private final String branch;
+    private final String since;
+    private final String until;
+    private final String CLDiffOutputPath;
+    private int queueSize = 2;
+    private boolean inMemoryCheckout = false;
+
+    /**
+     * @param gitPath          the working directory of the git repository
+     * @param branch           the branch (or any revision) to walk from, null for HEAD
+     * @param since            the start of the range (in the format of Constant.TIMESTAMP), null for no limit
+     * @param until            the end of the range (in the format of Constant.TIMESTAMP), null for no limit
+     * @param CLDiffOutputPath the directory of the CLDiff output (the snapshots of the changed files)
+     */
+    public CommitRange(String gitPath, String branch, String since, String until, String CLDiffOutputPath) {
+        this.gitPath = gitPath;
+        this.branch = branch;
+        this.since = since;
+        this.until = until;
+        this.CLDiffOutputPath = CLDiffOutputPath;
+    }
+
+    public String getGitPath() {
+        return gitPath;
+    }
+
+    public String getBranch() {
+        return branch;
+    }
+
+    public String getSince() {
+        return since;
+    }
+
+    public String getUntil() {
+        return until;
+    }
+
+    public String getCLDiffOutputPath() {
+        return CLDiffOutputPath;
+    }
+
+    /**
+     * The max number of commits diffed ahead of the one being resolved
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = Math.max(1, queueSize);
+    }
+
+    /**
+     * Whether the initial version is parsed from the git objects directly (see GitSnapshot)
+     * instead of being checked out into the project folder
+     */
+    public boolean isInMemoryCheckout() {
+        return inMemoryCheckout;
+    }
+
+    public void setInMemoryCheckout(boolean inMemoryCheckout) {
+        this.inMemoryCheckout = inMemoryCheckout;
+    }
+}
@@ -10,6 +10,7 @@ import com.google.common.collect.Lists;
 import depends.utils.Constant;
 import depends.utils.FileUtil;
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.LogCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.diff.DiffAlgorithm;
 import org.eclipse.jgit.diff.DiffEntry;
@@ -59,15 +60,41 @@ public class GitExtractor {
     }
 
     public List<RevCommit> getRangeCommits(String since, String until, boolean removeMerge) {
+        return getRangeCommits(null, since, until, removeMerge);
+    }
+
+    /**
+     * The commits of the branch (HEAD if null) in the time range, the newest first.
+     * A null since or until means no limit on that side.
+     */
+    public List<RevCommit> getRangeCommits(String branch, String since, String until, boolean removeMerge) {
         SimpleDateFormat simpleDateFormat = new SimpleDateFormat(Constant.TIMESTAMP);
         try {
-            Date sinceDate = simpleDateFormat.parse(since);
-            Date untilDate = simpleDateFormat.parse(until);
-            RevFilter between = CommitTimeRevFilter.between(sinceDate, untilDate);
-            RevFilter filter = removeMerge ? AndRevFilter.create(between, RevFilter.NO_MERGES) : between;
-            Iterable<RevCommit> commits = git.log().setRevFilter(filter).call();
+            List<RevFilter> filters = new ArrayList<>();
+            if (since != null && until != null) {
+                filters.add(CommitTimeRevFilter.between(simpleDateFormat.parse(since), simpleDateFormat.parse(until)));
+            } else if (since != null) {
+                filters.add(CommitTimeRevFilter.after(simpleDateFormat.parse(since)));
+            } else if (until != null) {
+                filters.add(CommitTimeRevFilter.before(simpleDateFormat.parse(until)));
+            }
+            if (removeMerge) {
+                filters.add(RevFilter.NO_MERGES);
+            }
+            RevFilter filter = filters.isEmpty() ? RevFilter.ALL
+                    : filters.size() == 1 ? filters.get(0) : AndRevFilter.create(filters);
+            LogCommand log = git.log().setRevFilter(filter);
+            if (branch != null) {
+                ObjectId start = repository.resolve(branch);
+                if (start == null) {
+                    System.err.println("Cannot resolve the branch " + branch);
+                    return new ArrayList<>();
+                }
+                log.add(start);
+            }
+            Iterable<RevCommit> commits = log.call();
             return Lists.newArrayList(commits.iterator());
-        } catch (ParseException | GitAPIException e) {
+        } catch (ParseException | GitAPIException | IOException e) {
             e.printStackTrace();
         }
         return new ArrayList<>();
@@ -145,6 +172,19 @@ public class GitExtractor {
         return repository.getDirectory().getAbsolutePath();
     }
 
+    /**
+     * The source files of the commit as if it was checked out into the project folder,
+     * without writing them to the disk
+     */
+    public GitSnapshot getSnapshot(RevCommit revCommit, String projectPath) {
+        try {
+            return new GitSnapshot(this.repository, revCommit, projectPath);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
     public void checkOutToCommit(RevCommit revCommit, String projectPath) {
         try {
             deleteDir(new File(projectPath));
@@ -0,0 +1,73 @@
+package depends.extractor.git;
+
+import depends.extractor.VirtualFiles;
+import depends.utils.FileUtil;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectLoader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.treewalk.TreeWalk;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The source files of a commit, read from the git objects when they are parsed,
+ * as if the commit was checked out into the project folder (see GitExtractor.checkOutToCommit).
+ */
+public class GitSnapshot implements VirtualFiles {
+
+    private final Repository repository;
+    private final String projectPath;
+    // key-value: full path of the file-blob id
+    private final Map<String, ObjectId> blobs = new LinkedHashMap<>();
+
+    public GitSnapshot(Repository repository, RevCommit revCommit, String projectPath) throws IOException {
+        this.repository = repository;
+        this.projectPath = projectPath;
+        try (TreeWalk treeWalk = new TreeWalk(repository)) {
+            treeWalk.addTree(revCommit.getTree());
+            treeWalk.setRecursive(true);
+            while (treeWalk.next()) {
+                String filePath = treeWalk.getPathString();
+                if (!FileUtil.isFileByFileSuffix(filePath) || FileUtil.isJavaTestFilter(filePath)) {
+                    continue;
+                }
+                blobs.put(projectPath + File.separator + filePath.replace('/', File.separatorChar), treeWalk.getObjectId(0));
+            }
+        }
+    }
+
+    @Override
+    public String getRoot() {
+        return projectPath;
+    }
+
+    @Override
+    public List<String> getFilePaths() {
+        return new ArrayList<>(blobs.keySet());
+    }
+
+    @Override
+    public CharStream open(String fileFullPath) throws IOException {
+        ObjectId objectId = blobs.get(fileFullPath);
+        if (objectId == null) {
+            return null;
+        }
+        // a new reader for each file, so that the files could be read by different threads
+        ObjectLoader objectLoader = repository.open(objectId);
+        try (ReadableByteChannel channel = Channels.newChannel(objectLoader.openStream())) {
+            return CharStreams.fromChannel(channel, StandardCharsets.UTF_8, 4096, CodingErrorAction.REPLACE, fileFullPath, objectLoader.getSize());
+        }
+    }
+}
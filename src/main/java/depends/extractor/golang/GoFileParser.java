@@ -27,14 +27,12 @@ package depends.extractor.golang;
 import depends.entity.Entity;
 import depends.entity.FileEntity;
 import depends.entity.repo.EntityRepo;
+import depends.extractor.AntlrParsingEngine;
+import depends.extractor.VirtualFiles;
 import depends.relations.Inferer;
 import org.antlr.v4.runtime.CharStream;
-import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.Lexer;
-import org.antlr.v4.runtime.atn.LexerATNSimulator;
-import org.antlr.v4.runtime.atn.ParserATNSimulator;
-import org.antlr.v4.runtime.atn.PredictionContextCache;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 
 import java.io.IOException;
@@ -44,32 +42,48 @@ public class GoFileParser implements depends.extractor.FileParser{
 	private String fileFullPath;
 	private EntityRepo entityRepo;
 	private Inferer inferer;
+	private VirtualFiles virtualFiles;
 	public GoFileParser(String fileFullPath, EntityRepo entityRepo, Inferer inferer) {
+		this(fileFullPath, entityRepo, inferer, null);
+	}
+
+	/**
+	 * @param virtualFiles the file is read from them if it is one of them (could be null)
+	 */
+	public GoFileParser(String fileFullPath, EntityRepo entityRepo, Inferer inferer, VirtualFiles virtualFiles) {
         this.fileFullPath = fileFullPath;
         this.entityRepo = entityRepo;
         this.inferer = inferer;
+        this.virtualFiles = virtualFiles;
 	}
 
+	private GoParser.SourceFileContext sourceFile;
+
 	@Override
-	public void parse() throws IOException {
-        CharStream input = CharStreams.fromFileName(fileFullPath);
+	public void prepare() throws IOException {
+        CharStream input = VirtualFiles.charStreamOf(virtualFiles, fileFullPath);
         Lexer lexer = new GoLexer(input);
-        lexer.setInterpreter(new LexerATNSimulator(lexer, lexer.getATN(), lexer.getInterpreter().decisionToDFA, new PredictionContextCache()));
         CommonTokenStream tokens = new CommonTokenStream(lexer);
         GoParser parser = new GoParser(tokens);
-        ParserATNSimulator interpreter = new ParserATNSimulator(parser, parser.getATN(), parser.getInterpreter().decisionToDFA, new PredictionContextCache());
-        parser.setInterpreter(interpreter);
+        this.sourceFile = AntlrParsingEngine.getInstance().parse(parser, GoParser::sourceFile);
+	}
+
+	@Override
+	public void parse() throws IOException {
+		if (sourceFile == null)
+			prepare();
         GoListener bridge = new GoListener(fileFullPath, entityRepo,inferer);
 	    ParseTreeWalker walker = new ParseTreeWalker();
 	    try {
-	    	walker.walk(bridge, parser.sourceFile());
+	    	walker.walk(bridge, sourceFile);
 			Entity fileEntity = entityRepo.getEntity(fileFullPath);
 			((FileEntity)fileEntity).cacheAllExpressions();
-			interpreter.clearDFA();
 			bridge.done();
 	    }catch (Exception e) {
 	    	System.err.println("error encountered during parse..." );
 	    	e.printStackTrace();
+	    }finally {
+	    	sourceFile = null;
 	    }
 	    
     }
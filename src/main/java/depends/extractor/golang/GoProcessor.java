@@ -24,6 +24,7 @@ SOFTWARE.
 
 package depends.extractor.golang;
 
+import depends.entity.FileEntity;
 import depends.entity.repo.BuiltInType;
 import depends.extractor.AbstractLangProcessor;
 import depends.extractor.FileParser;
@@ -53,7 +54,25 @@ public class GoProcessor extends AbstractLangProcessor {
 
 	@Override
 	protected FileParser createFileParser(String fileFullPath) {
-		return new GoFileParser(fileFullPath, entityRepo, inferer);
+		return new GoFileParser(fileFullPath, entityRepo, inferer, getVirtualFiles());
+	}
+
+	@Override
+	protected boolean isParseCacheSupported() {
+		return true;
+	}
+
+	@Override
+	protected boolean isPrepareAheadSupported() {
+		return true;
+	}
+
+	@Override
+	protected void registerCachedFile(FileEntity fileEntity, String parentName) {
+		if (parentName == null) return;
+		GoHandlerContext context = new GoHandlerContext(entityRepo, inferer);
+		context.resumeFile(fileEntity);
+		context.foundPackageDeclaration(parentName);
 	}
 
 	@Override
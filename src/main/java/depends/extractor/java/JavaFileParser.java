@@ -27,14 +27,12 @@ package depends.extractor.java;
 import java.io.IOException;
 
 import org.antlr.v4.runtime.CharStream;
-import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.Lexer;
-import org.antlr.v4.runtime.atn.LexerATNSimulator;
-import org.antlr.v4.runtime.atn.ParserATNSimulator;
-import org.antlr.v4.runtime.atn.PredictionContextCache;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import depends.extractor.AntlrParsingEngine;
 import depends.extractor.LocCalculator;
+import depends.extractor.VirtualFiles;
 import depends.entity.Entity;
 import depends.entity.FileEntity;
 import depends.entity.repo.EntityRepo;
@@ -45,36 +43,55 @@ public class JavaFileParser implements depends.extractor.FileParser {
     private String fileFullPath;
     private EntityRepo entityRepo;
     private Inferer inferer;
+    private CharStream input;
+    private JavaParser.CompilationUnitContext compilationUnit;
+    private VirtualFiles virtualFiles;
 
     public JavaFileParser(String fileFullPath, EntityRepo entityRepo, Inferer inferer) {
+        this(fileFullPath, entityRepo, inferer, null);
+    }
+
+    /**
+     * @param virtualFiles the file is read from them if it is one of them (could be null)
+     */
+    public JavaFileParser(String fileFullPath, EntityRepo entityRepo, Inferer inferer, VirtualFiles virtualFiles) {
         this.fileFullPath = fileFullPath;
         this.entityRepo = entityRepo;
         this.inferer = inferer;
+        this.virtualFiles = virtualFiles;
     }
 
     @Override
-    public void parse() throws IOException {
-        CharStream input = CharStreams.fromFileName(fileFullPath);
+    public void prepare() throws IOException {
+        CharStream input = VirtualFiles.charStreamOf(virtualFiles, fileFullPath);
         Lexer lexer = new JavaLexer(input);
-        lexer.setInterpreter(new LexerATNSimulator(lexer, lexer.getATN(), lexer.getInterpreter().decisionToDFA, new PredictionContextCache()));
         CommonTokenStream tokens = new CommonTokenStream(lexer);
         JavaParser parser = new JavaParser(tokens);
-        ParserATNSimulator interpreter = new ParserATNSimulator(parser, parser.getATN(), parser.getInterpreter().decisionToDFA, new PredictionContextCache());
-        parser.setInterpreter(interpreter);
+        JavaParser.CompilationUnitContext ctx = AntlrParsingEngine.getInstance().parse(parser, JavaParser::compilationUnit);
+        this.input = input;
+        this.compilationUnit = ctx;
+    }
+
+    @Override
+    public void parse() throws IOException {
+        if (compilationUnit == null)
+            prepare();
         JavaListener bridge = new JavaListener(fileFullPath, entityRepo, inferer);
         ParseTreeWalker walker = new ParseTreeWalker();
         try {
-            JavaParser.CompilationUnitContext ctx = parser.compilationUnit();
+            JavaParser.CompilationUnitContext ctx = compilationUnit;
             walker.walk(bridge, ctx);
             Entity fileEntity = entityRepo.getEntity(fileFullPath);
             ((FileEntity) fileEntity).cacheAllExpressions();
             fileEntity.setEndLine(ctx.stop.getLine());
             fileEntity.setLoc(LocCalculator.calcLoc(input.toString()));
-            interpreter.clearDFA();
             bridge.done();
         } catch (Exception e) {
             System.err.println("error encountered during parse...");
             e.printStackTrace();
+        } finally {
+            this.input = null;
+            this.compilationUnit = null;
         }
     }
 }
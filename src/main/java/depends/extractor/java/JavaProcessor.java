@@ -27,6 +27,7 @@ package depends.extractor.java;
 import java.util.ArrayList;
 import java.util.List;
 
+import depends.entity.FileEntity;
 import depends.entity.repo.BuiltInType;
 import depends.extractor.AbstractLangProcessor;
 import depends.extractor.FileParser;
@@ -54,7 +55,27 @@ public class JavaProcessor extends AbstractLangProcessor {
 
     @Override
     protected FileParser createFileParser(String fileFullPath) {
-        return new JavaFileParser(fileFullPath, entityRepo, inferer);
+        return new JavaFileParser(fileFullPath, entityRepo, inferer, getVirtualFiles());
+    }
+
+    @Override
+    protected boolean isParseCacheSupported() {
+        return true;
+    }
+
+    @Override
+    protected boolean isPrepareAheadSupported() {
+        return true;
+    }
+
+    @Override
+    protected void registerCachedFile(FileEntity fileEntity, String parentName) {
+        JavaHandlerContext context = new JavaHandlerContext(entityRepo, inferer);
+        context.resumeFile(fileEntity);
+        if (parentName != null) {
+            context.foundNewPackage(parentName);
+        }
+        context.done();
     }
 
     @Override
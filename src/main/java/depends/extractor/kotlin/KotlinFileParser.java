@@ -9,20 +9,31 @@ import org.antlr.v4.runtime.Lexer;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 
 import depends.entity.repo.EntityRepo;
+import depends.extractor.AntlrParsingEngine;
 import depends.extractor.FileParser;
 import depends.relations.Inferer;
 
 public class KotlinFileParser implements FileParser {
 
+	private KotlinParser.KotlinFileContext kotlinFile;
+
 	@Override
-	public void parse() throws IOException {
-	       CharStream input = CharStreams.fromFileName(fileFullPath);
+	public void prepare() throws IOException {
+	        CharStream input = CharStreams.fromFileName(fileFullPath);
 	        Lexer lexer = new KotlinLexer(input);
 	        CommonTokenStream tokens = new CommonTokenStream(lexer);
 	        KotlinParser parser = new KotlinParser(tokens);
+	        this.kotlinFile = AntlrParsingEngine.getInstance().parse(parser, KotlinParser::kotlinFile);
+	}
+
+	@Override
+	public void parse() throws IOException {
+			if (kotlinFile == null)
+				prepare();
 	        KotlinListener bridge = new KotlinListener(fileFullPath, entityRepo,inferer);
 		    ParseTreeWalker walker = new ParseTreeWalker();
-		    walker.walk(bridge, parser.kotlinFile());
+		    walker.walk(bridge, kotlinFile);
+		    kotlinFile = null;
 	}
 	
 	private String fileFullPath;
@@ -25,10 +25,11 @@ SOFTWARE.
 package depends.extractor.pom;
 
 import java.io.File;
+import java.nio.file.Paths;
 import java.util.List;
 
 import depends.entity.GenericName;
-import multilang.depends.util.file.FileUtil;
+import depends.extractor.PathIndex;
 
 public class PomCoords  {
 	public PomCoords() {
@@ -49,6 +50,12 @@ public class PomCoords  {
 		return new GenericName(getPath());
 	}
 	public void sureFillVersion(List<String> includePaths) {
+		sureFillVersion(includePaths, PathIndex.fileSystem());
+	}
+	/**
+	 * Use the latest version (the max folder name) of the artifact in the include paths if it is not given
+	 */
+	public void sureFillVersion(List<String> includePaths, PathIndex pathIndex) {
 		if (version!="") return;
 		StringBuilder sb = new StringBuilder();
 		sb.append(this.groupId.replace(".", File.separator));
@@ -58,10 +65,10 @@ public class PomCoords  {
 		
 		for (String includePath:includePaths) {
 			String path = includePath+File.separator+sb.toString();
-			if (FileUtil.existFile(path)) {
-				File f = new File(path);
+			if (pathIndex.exists(path)) {
 				String max = "";
-				for (String d:f.list()) {
+				for (String child:pathIndex.list(path)) {
+					String d = Paths.get(child).getFileName().toString();
 					if (d.compareTo(max)>0)
 						max = d;
 				}
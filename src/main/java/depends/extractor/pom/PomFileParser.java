@@ -36,6 +36,7 @@ import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import depends.entity.Entity;
 import depends.entity.FileEntity;
 import depends.entity.repo.EntityRepo;
+import depends.extractor.AntlrParsingEngine;
 import depends.extractor.FileParser;
 import depends.extractor.xml.XMLLexer;
 import depends.extractor.xml.XMLParser;
@@ -72,7 +73,7 @@ public class PomFileParser implements FileParser {
         XMLParser parser = new XMLParser(tokens);
         PomListener bridge = new PomListener(fileFullPath, entityRepo, includePaths,parseCreator,inferer);
 	    ParseTreeWalker walker = new ParseTreeWalker();
-	    walker.walk(bridge, parser.document());
+	    walker.walk(bridge, AntlrParsingEngine.getInstance().parse(parser, XMLParser::document));
 		fileEntity = entityRepo.getEntity(fileFullPath);
 		bridge.done();
 		((FileEntity)fileEntity).cacheAllExpressions();
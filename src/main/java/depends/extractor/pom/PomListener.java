@@ -29,6 +29,7 @@ import depends.entity.GenericName;
 import depends.entity.VarEntity;
 import depends.entity.repo.EntityRepo;
 import depends.extractor.FileParser;
+import depends.extractor.PathIndex;
 import depends.extractor.xml.XMLParser.ElementContext;
 import depends.extractor.xml.XMLParserBaseListener;
 import depends.relations.Inferer;
@@ -46,6 +47,7 @@ public class PomListener extends XMLParserBaseListener {
 	private PomParent pomParent;
 	private PomProcessor parseCreator;
 	private List<String> includePaths;
+	private PathIndex pathIndex;
 	private Inferer inferer;
 	private Stack<PomCoords> pomCoords= new Stack<>();
 
@@ -55,6 +57,7 @@ public class PomListener extends XMLParserBaseListener {
 		this.entityRepo = entityRepo;
 		this.parseCreator = parseCreator;
 		this.includePaths = includePaths;
+		this.pathIndex = parseCreator.getPathIndex();
 		this.inferer = inferer;
 		context.startFile(fileFullPath);
 	}
@@ -118,12 +121,12 @@ public class PomListener extends XMLParserBaseListener {
 			entityRepo.add(currentEntity);
 			pomCoords.pop();
 		} else if (name.equals("plugin")) {
-			peekPomCoords().sureFillVersion(includePaths);
+			peekPomCoords().sureFillVersion(includePaths, pathIndex);
 			currentExpression.setRawType(peekPomCoords().getGenericNamePath());
 			currentEntity.addExpression(ctx, currentExpression);
 			pomCoords.pop();
 		} else if (name.equals("dependency")) {
-			peekPomCoords().sureFillVersion(includePaths);
+			peekPomCoords().sureFillVersion(includePaths, pathIndex);
 			currentVar.setRawType(peekPomCoords().getGenericNamePath());
 			//TODO: Depends currently has a limitation: var name cannot be same as var type
 			//To be fixed in future
@@ -133,7 +136,7 @@ public class PomListener extends XMLParserBaseListener {
 		} else if (name.equals("parent")) {
 			pomParent.buildFrom(peekPomCoords());
 			context.currentFile().addImport(pomParent);
-			String parentFileName = new PomLocator(includePaths, pomParent).getLocation();
+			String parentFileName = new PomLocator(includePaths, pathIndex, pomParent).getLocation();
 			if (parentFileName != null) {
 				FileParser importedParser = parseCreator.createFileParser(parentFileName);
 				try {
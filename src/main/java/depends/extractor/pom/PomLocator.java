@@ -27,15 +27,24 @@ package depends.extractor.pom;
 import java.io.File;
 import java.util.List;
 
-import multilang.depends.util.file.FileUtil;
+import depends.extractor.PathIndex;
 
 public class PomLocator {
 
 	private List<String> includePaths;
+	private PathIndex pathIndex;
 	private PomParent pomParent;
 
 	public PomLocator(List<String> includePaths, PomParent pomParent) {
+		this(includePaths, PathIndex.fileSystem(), pomParent);
+	}
+
+	/**
+	 * @param pathIndex the index of the include paths, the candidate locations are looked up in
+	 */
+	public PomLocator(List<String> includePaths, PathIndex pathIndex, PomParent pomParent) {
 		this.includePaths = includePaths;
+		this.pathIndex = pathIndex;
 		this.pomParent = pomParent;
 	}
 
@@ -53,8 +62,8 @@ public class PomLocator {
 		sb.append(".pom");
 		for (String includePath:includePaths) {
 			String path = includePath+File.separator+sb.toString();
-			if (FileUtil.existFile(path)) {
-				return FileUtil.uniqFilePath(path);
+			if (pathIndex.exists(path)) {
+				return pathIndex.canonicalPath(path);
 			}
 		}
 		return null;
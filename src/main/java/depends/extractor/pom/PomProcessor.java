@@ -32,10 +32,13 @@ import java.util.List;
 import depends.entity.repo.BuiltInType;
 import depends.extractor.AbstractLangProcessor;
 import depends.extractor.FileParser;
+import depends.extractor.PathIndex;
 import depends.extractor.empty.EmptyBuiltInType;
 import depends.relations.ImportLookupStrategy;
 
 public class PomProcessor extends AbstractLangProcessor {
+	private PathIndex pathIndex;
+	private List<String> indexedPaths;
 
 	public PomProcessor() {
 		super(false);
@@ -66,6 +69,25 @@ public class PomProcessor extends AbstractLangProcessor {
 		return new PomFileParser(fileFullPath,entityRepo,includePaths(),this,inferer);
 	}
 	
+	/**
+	 * The index of the include paths (e.g. a local maven repository) the parent poms and the versions
+	 * are looked up in, built once per parsing of the project (or again if the include paths are changed)
+	 */
+	public synchronized PathIndex getPathIndex() {
+		List<String> includePaths = includePaths() == null ? new ArrayList<>() : includePaths();
+		if (pathIndex == null || !includePaths.equals(indexedPaths)) {
+			indexedPaths = new ArrayList<>(includePaths);
+			pathIndex = getFileManifest().getPathIndex();
+		}
+		return pathIndex;
+	}
+
+	@Override
+	protected synchronized void parsingFinished() {
+		pathIndex = null;
+		indexedPaths = null;
+	}
+
 	@Override
 	public List<String> supportedRelations() {
 		ArrayList<String> depedencyTypes = new ArrayList<>();
@@ -6,7 +6,6 @@ import depends.extractor.python.NameAliasImport;
 import depends.extractor.python.PythonHandlerContext;
 import depends.extractor.python.PythonParser.*;
 import depends.extractor.python.PythonParserBaseListener;
-import depends.extractor.ruby.IncludedFileLocator;
 import depends.importtypes.FileImport;
 import depends.relations.Inferer;
 import multilang.depends.util.file.FileUtil;
@@ -21,16 +20,16 @@ public class PythonCodeListener extends PythonParserBaseListener{
 	private final PythonHandlerContext context;
 	private final ExpressionUsage expressionUsage;
 	private final EntityRepo entityRepo;
-	private final IncludedFileLocator  includeFileLocator;
+	private final PythonModuleIndex moduleIndex;
 	private final PythonProcessor pythonProcessor;
 	private final Inferer inferer;
 	public PythonCodeListener(String fileFullPath, EntityRepo entityRepo, Inferer inferer,
-			IncludedFileLocator includeFileLocator, PythonProcessor pythonProcessor) {
+			PythonModuleIndex moduleIndex, PythonProcessor pythonProcessor) {
 		this.context = new PythonHandlerContext(entityRepo, inferer);
 		this.expressionUsage = new ExpressionUsage(context, entityRepo, inferer);
 		FileEntity fileEntity = context.startFile(fileFullPath);
 		this.entityRepo = entityRepo;
-		this.includeFileLocator = includeFileLocator;
+		this.moduleIndex = moduleIndex;
 		this.inferer = inferer;
 		this.pythonProcessor = pythonProcessor;
 
@@ -59,7 +58,7 @@ public class PythonCodeListener extends PythonParserBaseListener{
 			List<String> fullNames = foundImportedModuleOrPackage(0,moduleName);
 			 
 			for (String fullName:fullNames) {
-				if (FileUtil.existFile(fullName) && !(FileUtil.isDirectory(fullName))) {
+				if (moduleIndex.exists(fullName) && !(moduleIndex.isDirectory(fullName))) {
 					context.foundNewImport(new FileImport(fullName));
 				}
 				context.foundNewImport(new NameAliasImport(fullName, entityRepo.getEntity(fullName), aliasName));
@@ -108,13 +107,13 @@ public class PythonCodeListener extends PythonParserBaseListener{
 					String alias = name;
 					if (item.name().size() > 1)
 						alias = item.name(1).getText();
-					if (FileUtil.isDirectory(fullName)) {
+					if (moduleIndex.isDirectory(fullName)) {
 						String fileName = fullName + File.separator + name + ".py";
-						if (FileUtil.existFile(fileName) && !(FileUtil.isDirectory(fileName))) {
+						if (moduleIndex.exists(fileName) && !(moduleIndex.isDirectory(fileName))) {
 							context.foundNewImport(new FileImport(fileName));
 						}
 					}
-					if (FileUtil.existFile(fullName) && !(FileUtil.isDirectory(fullName))) {
+					if (moduleIndex.exists(fullName) && !(moduleIndex.isDirectory(fullName))) {
 						context.foundNewImport(new FileImport(fullName));
 					}
 					Entity itemEntity = inferer.resolveName(entityRepo.getEntity(fullName), GenericName.build(name), true);
@@ -140,50 +139,24 @@ public class PythonCodeListener extends PythonParserBaseListener{
 		return total;
 	}
 	private List<String> foundImportedModuleOrPackage(int prefixDotCount, String originalName) {
-		String dir = FileUtil.getLocatedDir(context.currentFile().getRawName().uniqName());
-		String preFix = "";
-		for (int i = 0; i < prefixDotCount - 1; i++) {
-			preFix = preFix + ".." + File.separator;
-		}
-		dir = dir + File.separator + preFix;
-		String fullName = null;
-		if (originalName != null) {
-			String importedName = originalName.replace(".", File.separator);
-			fullName = includeFileLocator.uniqFileName(dir, importedName);
-			if (fullName == null) {
-				fullName = includeFileLocator.uniqFileName(dir, importedName + ".py");
-			}
-		} else {
-			fullName = FileUtil.uniqFilePath(dir);
-		}
+		String currentFile = context.currentFile().getRawName().uniqName();
+		String fullName = moduleIndex.resolveModule(currentFile, prefixDotCount, originalName);
 		if (fullName != null) {
-			if (FileUtil.isDirectory(fullName)) {
-				if (!FileUtil.uniqFilePath(fullName).equals(FileUtil.uniqFilePath(dir))) {
-					File d = new File(fullName);
-					File[] files = d.listFiles();
-					for (File file : files) {
-						if (!file.isDirectory()) {
-							if (file.getAbsolutePath().endsWith(".py")) {
-								visitIncludedFile(FileUtil.uniqFilePath(file.getAbsolutePath()));
-							}
-						}
-					}
-				}
-			} else {
-				visitIncludedFile(fullName);
+			for (String file : moduleIndex.filesOfModule(currentFile, prefixDotCount, fullName)) {
+				visitIncludedFile(file);
 			}
 		}
 		ArrayList<String> r = new ArrayList<>();
 		if (fullName==null) return r;
 		r.add(fullName);
-		if (FileUtil.existFile(fullName+File.separator + "__init__.py")) {
+		if (moduleIndex.exists(fullName+File.separator + "__init__.py")) {
 			r.add( fullName+File.separator +"__init__.py");
 		}
 		return r;
 	}
 
 	private void visitIncludedFile(String fullName) {
-		PythonFileParser importedParser = new PythonFileParser(fullName, entityRepo, includeFileLocator, inferer,
+		PythonFileParser importedParser = new PythonFileParser(fullName, entityRepo, moduleIndex, inferer,
 				pythonProcessor);
 		try {
 			importedParser.parse();
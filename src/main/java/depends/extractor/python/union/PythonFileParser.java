@@ -11,10 +11,10 @@ import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import depends.entity.Entity;
 import depends.entity.FileEntity;
 import depends.entity.repo.EntityRepo;
+import depends.extractor.AntlrParsingEngine;
 import depends.extractor.FileParser;
 import depends.extractor.python.PythonLexer;
 import depends.extractor.python.PythonParser;
-import depends.extractor.ruby.IncludedFileLocator;
 import depends.relations.Inferer;
 
 public class PythonFileParser implements FileParser {
@@ -22,34 +22,65 @@ public class PythonFileParser implements FileParser {
 	private String fileFullPath;
 	private EntityRepo entityRepo;
 	private Inferer inferer;
-	private IncludedFileLocator includeFileLocator;
+	private PythonModuleIndex moduleIndex;
 	private PythonProcessor processor;
 
-	public PythonFileParser(String fileFullPath, EntityRepo entityRepo, IncludedFileLocator includeFileLocator,
+	public PythonFileParser(String fileFullPath, EntityRepo entityRepo, PythonModuleIndex moduleIndex,
 			Inferer inferer, PythonProcessor pythonProcessor) {
 		this.fileFullPath = fileFullPath;
 		this.entityRepo = entityRepo;
 		this.inferer = inferer;
-		this.includeFileLocator = includeFileLocator;
+		this.moduleIndex = moduleIndex;
 		this.processor = pythonProcessor;
 	}
 
+	private PythonParser.File_inputContext fileInput;
+
+	@Override
+	public void prepare() throws IOException {
+		this.fileInput = parseTree(fileFullPath);
+	}
+
+	static PythonParser.File_inputContext parseTree(String fileFullPath) throws IOException {
+        CharStream input = CharStreams.fromFileName(fileFullPath);
+        Lexer lexer = new PythonLexer(input);
+        CommonTokenStream tokens = new CommonTokenStream(lexer);
+        PythonParser parser = new PythonParser(tokens);
+        /* the version detected by the SLL stage should not affect the LL stage */
+        return AntlrParsingEngine.getInstance().parse(parser, p -> {
+            p.Version = PythonVersion.Autodetect;
+            return p.file_input();
+        });
+	}
+
 	@Override
 	public void parse() throws IOException {
+		PythonImportQueue importQueue = processor == null ? null : processor.getImportQueue();
 		/** If file already exist, skip it */
 		Entity fileEntity = entityRepo.getEntity(fileFullPath);
 		if (fileEntity!=null && fileEntity instanceof FileEntity) {
+			fileInput = null;
+			if (importQueue != null)
+				importQueue.discard(fileFullPath);
 			return;
 		}
-        CharStream input = CharStreams.fromFileName(fileFullPath);
-        Lexer lexer = new PythonLexer(input);
-        CommonTokenStream tokens = new CommonTokenStream(lexer);
-        
-        
-        PythonParser parser = new PythonParser(tokens);
-        PythonCodeListener bridge = new PythonCodeListener(fileFullPath, entityRepo,inferer, includeFileLocator, processor);
+		boolean isQueued = false;
+		if (importQueue != null) {
+			if (fileInput == null) {
+				fileInput = importQueue.take(fileFullPath);
+				isQueued = fileInput != null;
+			} else {
+				importQueue.discard(fileFullPath);
+			}
+		}
+		if (fileInput == null)
+			prepare();
+		if (importQueue != null && !isQueued)
+			importQueue.enqueueImportsOf(fileFullPath, fileInput);
+        PythonCodeListener bridge = new PythonCodeListener(fileFullPath, entityRepo,inferer, moduleIndex, processor);
 	    ParseTreeWalker walker = new ParseTreeWalker();
-	    walker.walk(bridge, parser.file_input());
+	    walker.walk(bridge, fileInput);
+	    fileInput = null;
 		fileEntity = entityRepo.getEntity(fileFullPath);
 		((FileEntity)fileEntity).cacheAllExpressions();
 		bridge.done();
@@ -0,0 +1,72 @@
+package depends.extractor.python.union;
+
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+
+import depends.extractor.ParseAheadQueue;
+import depends.extractor.python.PythonParser.Dotted_as_nameContext;
+import depends.extractor.python.PythonParser.File_inputContext;
+import depends.extractor.python.PythonParser.From_stmtContext;
+import depends.extractor.python.PythonParser.Import_stmtContext;
+import depends.extractor.python.PythonParserBaseListener;
+
+/**
+ * The work queue of the imported modules, so the nested parse of an imported module
+ * (see PythonCodeListener) only has to walk a ready tree.
+ */
+public class PythonImportQueue extends ParseAheadQueue<File_inputContext> {
+	private final PythonModuleIndex moduleIndex;
+
+	public PythonImportQueue(PythonModuleIndex moduleIndex, int threads) {
+		this(moduleIndex, threads, DEFAULT_MAX_PENDING_TREES);
+	}
+
+	public PythonImportQueue(PythonModuleIndex moduleIndex, int threads, int maxPendingTrees) {
+		super("python-import-worker", threads, maxPendingTrees);
+		this.moduleIndex = moduleIndex;
+	}
+
+	@Override
+	protected File_inputContext parseTree(String fileFullPath) throws Exception {
+		return PythonFileParser.parseTree(fileFullPath);
+	}
+
+	@Override
+	protected void scanImports(String fileFullPath, File_inputContext fileInput) {
+		ImportScanner scanner = new ImportScanner(fileFullPath);
+		new ParseTreeWalker().walk(scanner, fileInput);
+	}
+
+	private class ImportScanner extends PythonParserBaseListener {
+		private final String fileFullPath;
+
+		ImportScanner(String fileFullPath) {
+			this.fileFullPath = fileFullPath;
+		}
+
+		@Override
+		public void enterImport_stmt(Import_stmtContext ctx) {
+			for (Dotted_as_nameContext dotted_as_name : ctx.dotted_as_names().dotted_as_name()) {
+				enqueueModule(0, dotted_as_name.dotted_name().getText());
+			}
+		}
+
+		@Override
+		public void enterFrom_stmt(From_stmtContext ctx) {
+			int prefixDotCount = 0;
+			if (ctx.DOT() != null)
+				prefixDotCount = ctx.DOT().size();
+			if (ctx.ELLIPSIS() != null)
+				prefixDotCount += ctx.ELLIPSIS().size() * 3;
+			enqueueModule(prefixDotCount, ctx.dotted_name() == null ? null : ctx.dotted_name().getText());
+		}
+
+		private void enqueueModule(int prefixDotCount, String moduleName) {
+			String module = moduleIndex.resolveModule(fileFullPath, prefixDotCount, moduleName);
+			if (module == null)
+				return;
+			for (String file : moduleIndex.filesOfModule(fileFullPath, prefixDotCount, module)) {
+				enqueue(file);
+			}
+		}
+	}
+}
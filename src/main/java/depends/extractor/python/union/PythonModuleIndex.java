@@ -0,0 +1,136 @@
+package depends.extractor.python.union;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import depends.extractor.PathIndex;
+import depends.extractor.ruby.IncludedFileLocator;
+
+/**
+ * The imported modules, resolved from the index of the files and folders under the include paths
+ * (and the project) instead of probing the file system for every include path.
+ * It is read-only once built, so it could be shared by the threads parsing the files.
+ */
+public class PythonModuleIndex extends IncludedFileLocator {
+	private final List<String> includePaths;
+	private final PathIndex pathIndex;
+	private final Map<String, Optional<String>> resolved = new ConcurrentHashMap<>();
+
+	/**
+	 * @param includePaths the folders to look up the modules in, by priority
+	 * @param projectPath the folder of the project (could be null), indexed but not used as an include path
+	 */
+	public PythonModuleIndex(List<String> includePaths, String projectPath) {
+		this(PathIndex.build(foldersOf(includePaths, projectPath)), includePaths);
+	}
+
+	/**
+	 * @param pathIndex the index of the include paths and the project
+	 */
+	public PythonModuleIndex(PathIndex pathIndex, List<String> includePaths) {
+		super(includePaths, pathIndex);
+		this.includePaths = new ArrayList<>(includePaths);
+		this.pathIndex = pathIndex;
+	}
+
+	private static List<String> foldersOf(List<String> includePaths, String projectPath) {
+		List<String> folders = new ArrayList<>(includePaths);
+		if (projectPath != null)
+			folders.add(projectPath);
+		return folders;
+	}
+
+	/**
+	 * @param importingFile the file of the import statement
+	 * @param prefixDotCount the leading dots of a relative import, e.g. 2 of "from ..a import b"
+	 * @param moduleName the dotted name of the module (null for "from . import b")
+	 * @return the imported module (a file or a package folder), or null if it is not found
+	 */
+	public String resolveModule(String importingFile, int prefixDotCount, String moduleName) {
+		String dir = importingDir(importingFile, prefixDotCount);
+		if (moduleName == null)
+			return pathIndex.canonicalPath(dir);
+		String importedName = moduleName.replace(".", File.separator);
+		String fullName = uniqFileName(dir, importedName);
+		if (fullName == null) {
+			fullName = uniqFileName(dir, importedName + ".py");
+		}
+		return fullName;
+	}
+
+	/**
+	 * @return the files to be parsed for an imported module: the module file, or the python files
+	 * of the package folder (none if it is the folder of the importing file)
+	 */
+	public List<String> filesOfModule(String importingFile, int prefixDotCount, String module) {
+		if (!isDirectory(module))
+			return Collections.singletonList(module);
+		String dir = importingDir(importingFile, prefixDotCount);
+		if (pathIndex.canonicalPath(module).equals(pathIndex.canonicalPath(dir)))
+			return Collections.emptyList();
+		List<String> files = new ArrayList<>();
+		for (String file : pythonFilesOf(module)) {
+			files.add(pathIndex.canonicalPath(file));
+		}
+		return files;
+	}
+
+	private String importingDir(String importingFile, int prefixDotCount) {
+		String dir = pathIndex.exists(importingFile) ? new File(importingFile).getParent() : null;
+		String preFix = "";
+		for (int i = 0; i < prefixDotCount - 1; i++) {
+			preFix = preFix + ".." + File.separator;
+		}
+		return dir + File.separator + preFix;
+	}
+
+	/**
+	 * Same as the file system lookup: the name as is, then in the dir, then in the include paths
+	 */
+	@Override
+	public String uniqFileName(String dirPath, String importedFilename) {
+		String key = dirPath + File.pathSeparator + importedFilename;
+		return resolved.computeIfAbsent(key, k -> Optional.ofNullable(lookup(dirPath, importedFilename))).orElse(null);
+	}
+
+	private String lookup(String dirPath, String importedFilename) {
+		if (exists(importedFilename))
+			return pathIndex.canonicalPath(importedFilename);
+		if (dirPath != null) {
+			String path = dirPath + File.separator + importedFilename;
+			if (exists(path))
+				return pathIndex.canonicalPath(path);
+		}
+		for (String includePath : includePaths) {
+			String path = includePath + File.separator + importedFilename;
+			if (exists(path))
+				return pathIndex.canonicalPath(path);
+		}
+		return null;
+	}
+
+	public boolean exists(String path) {
+		return pathIndex.exists(path);
+	}
+
+	public boolean isDirectory(String path) {
+		return pathIndex.isDirectory(path);
+	}
+
+	/**
+	 * @return the python files (not the sub folders) of a directory
+	 */
+	public List<String> pythonFilesOf(String dir) {
+		List<String> result = new ArrayList<>();
+		for (String path : pathIndex.list(dir)) {
+			if (path.endsWith(".py") && !pathIndex.isDirectory(path))
+				result.add(path);
+		}
+		return result;
+	}
+}
@@ -1,20 +1,16 @@
 package depends.extractor.python.union;
 
-import static depends.deptypes.DependencyType.*;
-
 import java.util.ArrayList;
 import java.util.List;
 
-import depends.entity.repo.BuiltInType;
-import depends.extractor.AbstractLangProcessor;
 import depends.extractor.FileParser;
 import depends.extractor.python.BasePythonProcessor;
-import depends.extractor.python.PythonBuiltInType;
-import depends.extractor.python.PythonImportLookupStrategy;
-import depends.extractor.ruby.IncludedFileLocator;
-import depends.relations.ImportLookupStrategy;
 
 public class PythonProcessor extends BasePythonProcessor {
+	private PythonModuleIndex moduleIndex;
+	/* the include paths the module index was built from */
+	private List<String> indexedPaths;
+	private PythonImportQueue importQueue;
 
 	public PythonProcessor() {
 		/* Because Python is dynamic languange, 
@@ -30,10 +26,48 @@ public class PythonProcessor extends BasePythonProcessor {
 
 	@Override
 	public FileParser createFileParser(String fileFullPath) {
-		IncludedFileLocator includeFileLocator = new IncludedFileLocator(super.includePaths());
-		return new PythonFileParser(fileFullPath,entityRepo,includeFileLocator,inferer,this);
+		return new PythonFileParser(fileFullPath,entityRepo,getModuleIndex(),inferer,this);
+	}
+
+	/**
+	 * The index of the modules under the include paths, built once per parsing of the project
+	 * (or again if the include paths are changed)
+	 */
+	public synchronized PythonModuleIndex getModuleIndex() {
+		List<String> includePaths = super.includePaths() == null ? new ArrayList<>() : super.includePaths();
+		if (moduleIndex == null || !includePaths.equals(indexedPaths)) {
+			shutdownImportQueue();
+			indexedPaths = new ArrayList<>(includePaths);
+			moduleIndex = new PythonModuleIndex(getFileManifest().getPathIndex(), indexedPaths);
+		}
+		return moduleIndex;
+	}
+
+	/**
+	 * The queue of the imported modules to be parsed ahead by the parse threads,
+	 * null if the files are parsed sequentially
+	 */
+	public synchronized PythonImportQueue getImportQueue() {
+		if (getParseThreads() <= 1)
+			return null;
+		PythonModuleIndex index = getModuleIndex();
+		if (importQueue == null)
+			importQueue = new PythonImportQueue(index, getParseThreads());
+		return importQueue;
 	}
 
-	
+	@Override
+	protected synchronized void parsingFinished() {
+		shutdownImportQueue();
+		moduleIndex = null;
+		indexedPaths = null;
+	}
+
+	private void shutdownImportQueue() {
+		if (importQueue != null) {
+			importQueue.shutdown();
+			importQueue = null;
+		}
+	}
 
 }
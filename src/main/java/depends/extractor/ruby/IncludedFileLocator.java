@@ -27,23 +27,34 @@ package depends.extractor.ruby;
 import java.io.File;
 import java.util.List;
 
-import multilang.depends.util.file.FileUtil;
+import depends.extractor.PathIndex;
 
 public class IncludedFileLocator {
 	private List<String> includesPath;
+	private PathIndex pathIndex;
 	public IncludedFileLocator(List<String> includedPath) {
+		this(includedPath, PathIndex.fileSystem());
+	}
+	/**
+	 * @param pathIndex the index of the include paths (and the project), the candidate paths are looked up in
+	 */
+	public IncludedFileLocator(List<String> includedPath, PathIndex pathIndex) {
 		this.includesPath = includedPath;
+		this.pathIndex = pathIndex;
 	}
 	public String uniqFileName(String dirPath, String importedFilename) {
-		if (FileUtil.existFile(importedFilename)) return FileUtil.uniqFilePath(importedFilename);
+		if (pathIndex.exists(importedFilename)) return pathIndex.canonicalPath(importedFilename);
 		if (dirPath!=null) {
 			String path = dirPath + File.separator + importedFilename;
-			if (FileUtil.existFile(path)) return FileUtil.uniqFilePath(path);
+			if (pathIndex.exists(path)) return pathIndex.canonicalPath(path);
 		}
 		for (String includePath:includesPath) {
 			String path = includePath + File.separator + importedFilename;
-			if (FileUtil.existFile(path)) return FileUtil.uniqFilePath(path);
+			if (pathIndex.exists(path)) return pathIndex.canonicalPath(path);
 		}
 		return null;
 	}
+	public PathIndex getPathIndex() {
+		return pathIndex;
+	}
 }
@@ -35,7 +35,6 @@ import depends.relations.Inferer;
 import multilang.depends.util.file.FileUtil;
 
 import java.util.Collection;
-import java.util.concurrent.ExecutorService;
 
 public class RubyHandlerContext extends HandlerContext {
 
@@ -43,7 +42,6 @@ public class RubyHandlerContext extends HandlerContext {
 	private ParserCreator parserCreator;
 	public RubyHandlerContext(EntityRepo entityRepo, 
 			IncludedFileLocator includedFileLocator,
-			ExecutorService executorService,
 			Inferer inferer, ParserCreator parserCreator) {
 		super(entityRepo,inferer);
 		this.includedFileLocator = includedFileLocator;
@@ -64,10 +62,9 @@ public class RubyHandlerContext extends HandlerContext {
 		// Handle Import relation
 		if(methodName.equals("require") || methodName.equals("require_relative")) { 
 			for (String importedFilename:params) {
-				if (!importedFilename.endsWith(".rb")) importedFilename = importedFilename + ".rb";
-				String dir = FileUtil.getLocatedDir(currentFile().getRawName().uniqName());
-				String inclFileName = includedFileLocator.uniqFileName(dir,importedFilename);
+				String inclFileName = requiredFileOf(includedFileLocator, currentFile().getRawName().uniqName(), importedFilename);
 				if (inclFileName==null) {
+					if (!importedFilename.endsWith(".rb")) importedFilename = importedFilename + ".rb";
 					System.err.println("Warning: cannot found included file " + importedFilename );
 					continue;
 				}
@@ -102,6 +99,13 @@ public class RubyHandlerContext extends HandlerContext {
 		} 
 	}
 
-
+	/**
+	 * @return the file of a require statement, or null if it is not found
+	 */
+	public static String requiredFileOf(IncludedFileLocator includedFileLocator, String currentFile, String importedFilename) {
+		if (!importedFilename.endsWith(".rb")) importedFilename = importedFilename + ".rb";
+		String dir = FileUtil.getLocatedDir(currentFile);
+		return includedFileLocator.uniqFileName(dir,importedFilename);
+	}
 
 }
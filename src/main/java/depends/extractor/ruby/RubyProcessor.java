@@ -28,20 +28,21 @@ import static depends.deptypes.DependencyType.*;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import depends.entity.repo.BuiltInType;
 import depends.extractor.AbstractLangProcessor;
 import depends.extractor.FileParser;
 import depends.extractor.ParserCreator;
 import depends.extractor.ruby.jruby.JRubyFileParser;
+import depends.extractor.ruby.jruby.RubyRequireQueue;
 import depends.relations.ImportLookupStrategy;
 
 public class RubyProcessor extends AbstractLangProcessor implements ParserCreator{
     private static final String LANG = "ruby";
     private static final String[] SUFFIX = new String[] {".rb"};
-	private ExecutorService executor;
+	private RubyRequireQueue requireQueue;
+	private IncludedFileLocator includedFileLocator;
+	private List<String> indexedPaths;
     public RubyProcessor() {
     	super(true);
     }
@@ -59,15 +60,43 @@ public class RubyProcessor extends AbstractLangProcessor implements ParserCreato
 
 	@Override
 	public FileParser createFileParser(String fileFullPath) {
-		executor = Executors.newSingleThreadExecutor();
-		return new JRubyFileParser(fileFullPath,entityRepo,executor,new IncludedFileLocator(super.includePaths()),inferer,this);
+		IncludedFileLocator includedFileLocator = getIncludedFileLocator();
+		return new JRubyFileParser(fileFullPath,entityRepo,includedFileLocator,inferer,this,getRequireQueue(includedFileLocator));
 	}
 
+	/**
+	 * The locator of the required files, looking them up in the index of the include paths and the project,
+	 * built once per parsing of the project (or again if the include paths are changed)
+	 */
+	private synchronized IncludedFileLocator getIncludedFileLocator() {
+		List<String> includePaths = super.includePaths() == null ? new ArrayList<>() : super.includePaths();
+		if (includedFileLocator == null || !includePaths.equals(indexedPaths)) {
+			indexedPaths = new ArrayList<>(includePaths);
+			includedFileLocator = new IncludedFileLocator(indexedPaths, getFileManifest().getPathIndex());
+		}
+		return includedFileLocator;
+	}
+
+	/**
+	 * The queue of the required files to be parsed ahead by the parse threads,
+	 * null if the files are parsed sequentially
+	 */
+	private synchronized RubyRequireQueue getRequireQueue(IncludedFileLocator includedFileLocator) {
+		if (getParseThreads() <= 1)
+			return null;
+		if (requireQueue == null)
+			requireQueue = new RubyRequireQueue(includedFileLocator, getParseThreads());
+		return requireQueue;
+	}
 
 	@Override
-	protected void finalize() throws Throwable {
-		this.executor.shutdown();
-		super.finalize();
+	protected synchronized void parsingFinished() {
+		if (requireQueue != null) {
+			requireQueue.shutdown();
+			requireQueue = null;
+		}
+		includedFileLocator = null;
+		indexedPaths = null;
 	}
 
 	@Override
@@ -26,7 +26,6 @@ package depends.extractor.ruby.jruby;
 
 import java.io.IOException;
 import java.io.StringReader;
-import java.util.concurrent.ExecutorService;
 
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
@@ -46,44 +45,79 @@ import multilang.depends.util.file.FileUtil;
 public class JRubyFileParser implements FileParser {
 	private String fileFullPath;
 	private EntityRepo entityRepo;
-	private ExecutorService executor;
 	private IncludedFileLocator includesFileLocator;
 	private Inferer inferer;
 	private ParserCreator parserCreator;
+	private RubyRequireQueue requireQueue;
+	private Node root;
 
 	public JRubyFileParser(String fileFullPath, EntityRepo entityRepo, 
-			ExecutorService executorService, 
 			IncludedFileLocator includesFileLocator, 
 			Inferer inferer, ParserCreator parserCreator) {
+		this(fileFullPath, entityRepo, includesFileLocator, inferer, parserCreator, null);
+	}
+
+	/**
+	 * @param requireQueue the required files are parsed ahead on it (could be null)
+	 */
+	public JRubyFileParser(String fileFullPath, EntityRepo entityRepo, 
+			IncludedFileLocator includesFileLocator, 
+			Inferer inferer, ParserCreator parserCreator, RubyRequireQueue requireQueue) {
         this.fileFullPath  = FileUtil.uniqFilePath(fileFullPath);
         this.entityRepo = entityRepo;
-        this.executor = executorService;
         this.includesFileLocator = includesFileLocator;
         this.inferer = inferer;
         this.parserCreator = parserCreator;
+        this.requireQueue = requireQueue;
     }
 
+	@Override
+	public void prepare() throws IOException {
+		this.root = parseTree(fileFullPath);
+	}
+
+	static Node parseTree(String fileFullPath) throws IOException {
+        CharStream input = CharStreams.fromFileName(fileFullPath);
+		Parser rubyParser = new Parser();
+		StringReader in = new StringReader(input.toString());
+		CompatVersion version = CompatVersion.RUBY2_3;
+		ParserConfiguration config = new ParserConfiguration(0, version);
+		return rubyParser.parse("<code>", in, config);
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public void parse() throws IOException {
+		Node node = root;
+		root = null;
 		/** If file already exist, skip it */
 		Entity fileEntity = entityRepo.getEntity(fileFullPath);
 		if (fileEntity!=null && fileEntity instanceof FileEntity) {
+			if (requireQueue != null)
+				requireQueue.discard(fileFullPath);
 			return;
 		}
-		
-        CharStream input = CharStreams.fromFileName(fileFullPath);
-		Parser rubyParser = new Parser();
-		StringReader in = new StringReader(input.toString());
-		CompatVersion version = CompatVersion.RUBY2_3;
-		ParserConfiguration config = new ParserConfiguration(0, version);
+		boolean isQueued = false;
+		if (requireQueue != null) {
+			if (node == null) {
+				node = requireQueue.take(fileFullPath);
+				isQueued = node != null;
+			} else {
+				requireQueue.discard(fileFullPath);
+			}
+		}
 		try {
-			Node node = rubyParser.parse("<code>", in, config);
-			JRubyVisitor parser = new JRubyVisitor(fileFullPath, entityRepo, includesFileLocator,executor,inferer,parserCreator);
+			if (node == null)
+				node = parseTree(fileFullPath);
+			if (requireQueue != null && !isQueued)
+				requireQueue.enqueueImportsOf(fileFullPath, node);
+			JRubyVisitor parser = new JRubyVisitor(fileFullPath, entityRepo, includesFileLocator,inferer,parserCreator);
 			node.accept(parser);
 			fileEntity = entityRepo.getEntity(fileFullPath);
 			((FileEntity)fileEntity).cacheAllExpressions();
 			parser.done();
+		}catch(IOException e) {
+			throw e;
 		}catch(Exception e) {
 			System.err.println("parsing error in "+fileFullPath);
 		}
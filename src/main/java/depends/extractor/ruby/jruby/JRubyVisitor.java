@@ -35,7 +35,6 @@ import org.jrubyparser.util.NoopVisitor;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.concurrent.ExecutorService;
 
 public class JRubyVisitor extends NoopVisitor {
 
@@ -44,8 +43,8 @@ public class JRubyVisitor extends NoopVisitor {
 	private ExpressionUsage expressionUsage;
 
 	public JRubyVisitor(String fileFullPath, EntityRepo entityRepo, IncludedFileLocator includedFileLocator,
-			ExecutorService executorService, Inferer inferer, ParserCreator parserCreator) {
-		this.context = new RubyHandlerContext(entityRepo, includedFileLocator, executorService, inferer, parserCreator);
+			Inferer inferer, ParserCreator parserCreator) {
+		this.context = new RubyHandlerContext(entityRepo, includedFileLocator, inferer, parserCreator);
 		expressionUsage = new ExpressionUsage(context, entityRepo, helper, inferer);
 		context.startFile(fileFullPath);
 
@@ -101,7 +100,7 @@ public class JRubyVisitor extends NoopVisitor {
 		return super.visitFCallNode(node);
 	}
 
-	private Collection<String> getParams(IArgumentNode node) {
+	static Collection<String> getParams(IArgumentNode node) {
 		Node args = node.getArgs();
 		Collection<String> params = new ArrayList<>();
 		if (args instanceof ArrayNode) {
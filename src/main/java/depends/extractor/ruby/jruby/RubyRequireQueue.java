@@ -0,0 +1,58 @@
+package depends.extractor.ruby.jruby;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.jrubyparser.ast.CallNode;
+import org.jrubyparser.ast.FCallNode;
+import org.jrubyparser.ast.IArgumentNode;
+import org.jrubyparser.ast.Node;
+
+import depends.extractor.ParseAheadQueue;
+import depends.extractor.ruby.IncludedFileLocator;
+import depends.extractor.ruby.RubyHandlerContext;
+
+/**
+ * The work queue of the required files, so the nested parse of a required file
+ * (see RubyHandlerContext) only has to visit a ready tree.
+ */
+public class RubyRequireQueue extends ParseAheadQueue<Node> {
+	private final IncludedFileLocator includedFileLocator;
+
+	public RubyRequireQueue(IncludedFileLocator includedFileLocator, int threads) {
+		this(includedFileLocator, threads, DEFAULT_MAX_PENDING_TREES);
+	}
+
+	public RubyRequireQueue(IncludedFileLocator includedFileLocator, int threads, int maxPendingTrees) {
+		super("ruby-require-worker", threads, maxPendingTrees);
+		this.includedFileLocator = includedFileLocator;
+	}
+
+	@Override
+	protected Node parseTree(String fileFullPath) throws Exception {
+		return JRubyFileParser.parseTree(fileFullPath);
+	}
+
+	@Override
+	protected void scanImports(String fileFullPath, Node root) {
+		Deque<Node> nodes = new ArrayDeque<>();
+		nodes.push(root);
+		while (!nodes.isEmpty()) {
+			Node node = nodes.pop();
+			if (node instanceof FCallNode || node instanceof CallNode) {
+				String name = RubyParserHelper.getInst().getName(node);
+				if ("require".equals(name) || "require_relative".equals(name)) {
+					for (String importedFilename : JRubyVisitor.getParams((IArgumentNode) node)) {
+						String inclFileName = RubyHandlerContext.requiredFileOf(includedFileLocator, fileFullPath, importedFilename);
+						if (inclFileName != null)
+							enqueue(inclFileName);
+					}
+				}
+			}
+			for (Node child : node.childNodes()) {
+				if (child != null)
+					nodes.push(child);
+			}
+		}
+	}
+}
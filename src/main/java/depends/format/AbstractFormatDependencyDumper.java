@@ -41,6 +41,12 @@ public abstract class AbstractFormatDependencyDumper {
 
 	public abstract boolean output();
 	public abstract String getFormatName();
+	/**
+	 * The extension of the output file, the dumpers with the same extension write the same file
+	 */
+	public String getOutputFileExtension() {
+		return getFormatName();
+	}
 	protected String composeFilename() {
 		return outputDir+File.separator+name;
 	}
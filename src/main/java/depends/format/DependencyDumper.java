@@ -24,16 +24,30 @@ SOFTWARE.
 
 package depends.format;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import depends.format.binary.BinaryDependencyWriter;
+import depends.format.binary.BinaryFormatDependencyDumper;
 import depends.format.detail.DetailTextFormatDependencyDumper;
 import depends.format.dot.DotFormatDependencyDumper;
 import depends.format.dot.DotFullnameDependencyDumper;
 import depends.format.excel.ExcelXlsFormatDependencyDumper;
+import depends.format.excel.ExcelXlsxDependencyWriter;
 import depends.format.excel.ExcelXlsxFormatDependencyDumper;
+import depends.format.json.JsonDependencyWriter;
 import depends.format.json.JsonFormatDependencyDumper;
 import depends.format.plantuml.BriefPlantUmlFormatDependencyDumper;
 import depends.format.plantuml.PlantUmlFormatDependencyDumper;
+import depends.format.xml.XmlDependencyWriter;
 import depends.format.xml.XmlFormatDependencyDumper;
 import depends.matrix.core.DependencyMatrix;
 import edu.emory.mathcs.backport.java.util.Arrays;
@@ -41,11 +55,19 @@ import edu.emory.mathcs.backport.java.util.Arrays;
 public class DependencyDumper {
 
 	private DependencyMatrix dependencyMatrix;
+	private int threads = Runtime.getRuntime().availableProcessors();
 
 	public DependencyDumper(DependencyMatrix dependencies) {
 		this.dependencyMatrix = dependencies;
 	}
 	
+	/**
+	 * The max number of formats written at the same time (1 for one format after another)
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
 	public void outputResult(String projectName, String outputDir, String[] outputFormat) {
         outputDeps(projectName,outputDir,outputFormat);
 	}
@@ -62,13 +84,85 @@ public class DependencyDumper {
 		 	new DotFormatDependencyDumper(dependencyMatrix,projectName,outputDir),
 		 	new DotFullnameDependencyDumper(dependencyMatrix,projectName,outputDir),
 		 	new PlantUmlFormatDependencyDumper(dependencyMatrix,projectName,outputDir),
-		 	new BriefPlantUmlFormatDependencyDumper(dependencyMatrix,projectName,outputDir)
+		 	new BriefPlantUmlFormatDependencyDumper(dependencyMatrix,projectName,outputDir),
+		 	new BinaryFormatDependencyDumper(dependencyMatrix,projectName,outputDir)
 		};
+		/* the dumpers writing the same file run in one task, in the order above */
+		Map<String, List<AbstractFormatDependencyDumper>> tasks = new LinkedHashMap<>();
 		for (AbstractFormatDependencyDumper builder:builders) {
 			if (formatList.contains(builder.getFormatName())){
-				builder.output();
+				tasks.computeIfAbsent(builder.getOutputFileExtension(), key -> new ArrayList<>()).add(builder);
+			}
+		}
+		if (threads <= 1 || tasks.size() <= 1) {
+			for (List<AbstractFormatDependencyDumper> task : tasks.values()) {
+				output(task);
 			}
+			return;
+		}
+		// the pairs of the matrix may be built lazily, not to be done by the dumpers concurrently
+		dependencyMatrix.getDependencyPairs();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, tasks.size()));
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (List<AbstractFormatDependencyDumper> task : tasks.values()) {
+				futures.add(executor.submit(() -> output(task)));
+			}
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					e.getCause().printStackTrace();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
 		}
     }
+
+	private void output(List<AbstractFormatDependencyDumper> builders) {
+		for (AbstractFormatDependencyDumper builder : builders) {
+			long startTime = System.currentTimeMillis();
+			builder.output();
+			System.out.println("Output " + builder.getFormatName() + " in " + (System.currentTimeMillis() - startTime) + " ms");
+		}
+	}
+
+	/**
+	 * The writers of the formats which could be written incrementally (json, xml, xlsx and binary),
+	 * to be used with {@link depends.generator.DependencyGenerator#stream}
+	 */
+	public static List<StreamingDependencyWriter> createStreamingWriters(String projectName, String outputDir, String[] outputFormat) throws IOException {
+		String filename = outputDir + File.separator + projectName;
+		List<StreamingDependencyWriter> writers = new ArrayList<>();
+		try {
+			for (String format : outputFormat) {
+				switch (format) {
+				case "json":
+					writers.add(new JsonDependencyWriter(filename + ".json", new FileAttributes(projectName)));
+					break;
+				case "xml":
+					writers.add(new XmlDependencyWriter(filename + ".xml", new FileAttributes(projectName)));
+					break;
+				case "binary":
+					writers.add(new BinaryDependencyWriter(filename + ".dsm"));
+					break;
+				case "xlsx":
+					writers.add(new ExcelXlsxDependencyWriter(filename + ".xlsx"));
+					break;
+				default:
+					System.err.println("The format " + format + " could not be streamed, it is ignored");
+				}
+			}
+		} catch (IOException e) {
+			for (StreamingDependencyWriter writer : writers) {
+				writer.close();
+			}
+			throw e;
+		}
+		return writers;
+	}
 	
 }
@@ -0,0 +1,40 @@
+package depends.format;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import depends.matrix.core.DependencyMatrix;
+import depends.matrix.core.DependencyPair;
+
+/**
+ * Writes the dependencies incrementally: the nodes first, then the cells one by one,
+ * so that neither the whole matrix nor an object tree of the output has to be kept in memory.
+ * The cells are given row by row, i.e. in the order of their source node
+ * (see {@link depends.generator.DependencyGenerator#stream}).
+ */
+public interface StreamingDependencyWriter extends Closeable {
+	void begin(List<String> nodes) throws IOException;
+
+	/**
+	 * @param cell the dependencies from the node getFrom() to the node getTo() (indexes of the nodes)
+	 */
+	void writeCell(DependencyPair cell) throws IOException;
+
+	void end() throws IOException;
+
+	/**
+	 * Write a matrix which is already built, with the cells ordered by (from, to)
+	 */
+	default void write(DependencyMatrix matrix) throws IOException {
+		begin(matrix.getNodes());
+		List<DependencyPair> cells = new ArrayList<>(matrix.getDependencyPairs());
+		cells.sort(Comparator.comparing(DependencyPair::getFrom).thenComparing(DependencyPair::getTo));
+		for (DependencyPair cell : cells) {
+			writeCell(cell);
+		}
+		end();
+	}
+}
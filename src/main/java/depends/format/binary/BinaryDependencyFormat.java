@@ -0,0 +1,44 @@
+package depends.format.binary;
+
+/**
+ * The layout of the binary dependency matrix (all the numbers are big-endian).
+ * <pre>
+ * header:  magic, version, nodeCount, typeCount, cellCount, valueCount, detailCount, detailStringCount (int)
+ *          the offsets of the sections below (long, 0 if a section is absent)
+ * NODES, TYPES, DETAIL_STRINGS: string tables, i.e. the byte offsets int[count+1] followed by the utf-8 bytes
+ * ROW_PTR      int[nodeCount+1]  the cells of row r are rowPtr[r] .. rowPtr[r+1], by increasing column
+ * COL_IDX      int[cellCount]    the dest node of a cell
+ * VALUE_PTR    int[cellCount+1]  the values (one per relation type) of a cell
+ * VALUE_TYPE   int[valueCount]   the index of the type in TYPES
+ * VALUE_WEIGHT int[valueCount]
+ * COL_PTR      int[nodeCount+1]  the transposed index: colCells[colPtr[c]] .. colCells[colPtr[c+1]]
+ * COL_CELLS    int[cellCount]    are the cells of column c, by increasing row
+ * DETAIL_PTR   int[valueCount+1] (optional) the details of a value
+ * DETAILS      int[detailCount*8] (optional) src object, file, start line, end line, then the same of dest;
+ *                                 the object and file are indexes in DETAIL_STRINGS (-1 for null)
+ * </pre>
+ */
+public final class BinaryDependencyFormat {
+	public static final int MAGIC = 0x44534D42; // "DSMB"
+	public static final int VERSION = 1;
+
+	static final int NODES = 0;
+	static final int TYPES = 1;
+	static final int ROW_PTR = 2;
+	static final int COL_IDX = 3;
+	static final int VALUE_PTR = 4;
+	static final int VALUE_TYPE = 5;
+	static final int VALUE_WEIGHT = 6;
+	static final int COL_PTR = 7;
+	static final int COL_CELLS = 8;
+	static final int DETAIL_STRINGS = 9;
+	static final int DETAIL_PTR = 10;
+	static final int DETAILS = 11;
+	static final int SECTIONS = 12;
+
+	static final int DETAIL_INTS = 8;
+	static final int HEADER_SIZE = 8 * 4 + SECTIONS * 8;
+
+	private BinaryDependencyFormat() {
+	}
+}
@@ -0,0 +1,246 @@
+package depends.format.binary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import depends.matrix.core.DependencyDetail;
+import depends.matrix.core.DependencyMatrix;
+import depends.matrix.core.DependencyPair;
+import depends.matrix.core.LocationInfo;
+
+/**
+ * Reads a binary dependency matrix (see {@link BinaryDependencyFormat}) through memory-mapped
+ * sections, so a row, a column or a cell could be queried without loading the whole file.
+ * Every section has to be smaller than 2GB.
+ */
+public class BinaryDependencyReader implements Closeable {
+	private final FileChannel channel;
+	private final int nodeCount;
+	private final int cellCount;
+	private final boolean hasDetails;
+	private final StringTable nodes;
+	private final StringTable types;
+	private final IntBuffer rowPtr;
+	private final IntBuffer colIdx;
+	private final IntBuffer valuePtr;
+	private final IntBuffer valueType;
+	private final IntBuffer valueWeight;
+	private final IntBuffer colPtr;
+	private final IntBuffer colCells;
+	private StringTable detailStrings;
+	private IntBuffer detailPtr;
+	private IntBuffer details;
+
+	public BinaryDependencyReader(String filename) throws IOException {
+		channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+		try {
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, BinaryDependencyFormat.HEADER_SIZE);
+			if (header.getInt() != BinaryDependencyFormat.MAGIC)
+				throw new IOException(filename + " is not a binary dependency matrix");
+			int version = header.getInt();
+			if (version != BinaryDependencyFormat.VERSION)
+				throw new IOException("Unsupported version " + version + " of the binary dependency matrix " + filename);
+			nodeCount = header.getInt();
+			int typeCount = header.getInt();
+			cellCount = header.getInt();
+			int valueCount = header.getInt();
+			int detailCount = header.getInt();
+			int detailStringCount = header.getInt();
+			long[] offsets = new long[BinaryDependencyFormat.SECTIONS];
+			for (int i = 0; i < offsets.length; i++) {
+				offsets[i] = header.getLong();
+			}
+			nodes = new StringTable(offsets[BinaryDependencyFormat.NODES], nodeCount);
+			types = new StringTable(offsets[BinaryDependencyFormat.TYPES], typeCount);
+			rowPtr = ints(offsets[BinaryDependencyFormat.ROW_PTR], nodeCount + 1);
+			colIdx = ints(offsets[BinaryDependencyFormat.COL_IDX], cellCount);
+			valuePtr = ints(offsets[BinaryDependencyFormat.VALUE_PTR], cellCount + 1);
+			valueType = ints(offsets[BinaryDependencyFormat.VALUE_TYPE], valueCount);
+			valueWeight = ints(offsets[BinaryDependencyFormat.VALUE_WEIGHT], valueCount);
+			colPtr = ints(offsets[BinaryDependencyFormat.COL_PTR], nodeCount + 1);
+			colCells = ints(offsets[BinaryDependencyFormat.COL_CELLS], cellCount);
+			hasDetails = offsets[BinaryDependencyFormat.DETAILS] != 0;
+			if (hasDetails) {
+				detailStrings = new StringTable(offsets[BinaryDependencyFormat.DETAIL_STRINGS], detailStringCount);
+				detailPtr = ints(offsets[BinaryDependencyFormat.DETAIL_PTR], valueCount + 1);
+				details = ints(offsets[BinaryDependencyFormat.DETAILS], detailCount * BinaryDependencyFormat.DETAIL_INTS);
+			}
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	public int getCellCount() {
+		return cellCount;
+	}
+
+	public String getNodeName(int node) {
+		return nodes.get(node);
+	}
+
+	public List<String> getNodes() {
+		List<String> names = new ArrayList<>(nodeCount);
+		for (int i = 0; i < nodeCount; i++) {
+			names.add(nodes.get(i));
+		}
+		return names;
+	}
+
+	public boolean hasDetails() {
+		return hasDetails;
+	}
+
+	/**
+	 * @return the cells of the dependencies from the node, by increasing dest node
+	 */
+	public List<DependencyPair> getRow(int from) {
+		List<DependencyPair> row = new ArrayList<>();
+		for (int cell = rowPtr.get(from); cell < rowPtr.get(from + 1); cell++) {
+			row.add(buildPair(cell, from));
+		}
+		return row;
+	}
+
+	/**
+	 * @return the cells of the dependencies to the node, by increasing src node
+	 */
+	public List<DependencyPair> getColumn(int to) {
+		List<DependencyPair> column = new ArrayList<>();
+		for (int i = colPtr.get(to); i < colPtr.get(to + 1); i++) {
+			int cell = colCells.get(i);
+			column.add(buildPair(cell, rowOf(cell)));
+		}
+		return column;
+	}
+
+	/**
+	 * @return the cell of the dependencies from a node to another, or null if there is none
+	 */
+	public DependencyPair getCell(int from, int to) {
+		int low = rowPtr.get(from);
+		int high = rowPtr.get(from + 1) - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int column = colIdx.get(mid);
+			if (column < to)
+				low = mid + 1;
+			else if (column > to)
+				high = mid - 1;
+			else
+				return buildPair(mid, from);
+		}
+		return null;
+	}
+
+	/**
+	 * Load the whole matrix, e.g. to be written in another format
+	 */
+	public DependencyMatrix toMatrix() {
+		DependencyMatrix matrix = new DependencyMatrix(cellCount);
+		for (int i = 0; i < nodeCount; i++) {
+			matrix.addNode(nodes.get(i), i);
+		}
+		for (int from = 0; from < nodeCount; from++) {
+			for (int cell = rowPtr.get(from); cell < rowPtr.get(from + 1); cell++) {
+				addValues(matrix, cell, from);
+			}
+		}
+		return matrix;
+	}
+
+	private DependencyPair buildPair(int cell, int from) {
+		DependencyPair pair = new DependencyPair(from, colIdx.get(cell));
+		for (int value = valuePtr.get(cell); value < valuePtr.get(cell + 1); value++) {
+			pair.addDependency(types.get(valueType.get(value)), valueWeight.get(value), buildDetails(value));
+		}
+		return pair;
+	}
+
+	private void addValues(DependencyMatrix matrix, int cell, int from) {
+		for (int value = valuePtr.get(cell); value < valuePtr.get(cell + 1); value++) {
+			matrix.addDependency(types.get(valueType.get(value)), from, colIdx.get(cell), valueWeight.get(value), buildDetails(value));
+		}
+	}
+
+	private List<DependencyDetail> buildDetails(int value) {
+		List<DependencyDetail> result = new ArrayList<>();
+		if (!hasDetails)
+			return result;
+		for (int detail = detailPtr.get(value); detail < detailPtr.get(value + 1); detail++) {
+			int offset = detail * BinaryDependencyFormat.DETAIL_INTS;
+			result.add(new DependencyDetail(buildLocation(offset), buildLocation(offset + BinaryDependencyFormat.DETAIL_INTS / 2)));
+		}
+		return result;
+	}
+
+	private LocationInfo buildLocation(int offset) {
+		return new LocationInfo(detailStrings.get(details.get(offset)), detailStrings.get(details.get(offset + 1)),
+				details.get(offset + 2), details.get(offset + 3));
+	}
+
+	/* the row of a cell is found by a binary search in the row pointers */
+	private int rowOf(int cell) {
+		int low = 0;
+		int high = nodeCount - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (rowPtr.get(mid) <= cell)
+				low = mid;
+			else
+				high = mid - 1;
+		}
+		return low;
+	}
+
+	private MappedByteBuffer map(long offset, long size) throws IOException {
+		if (size > Integer.MAX_VALUE)
+			throw new IOException("The section of " + size + " bytes at " + offset + " is too large to be mapped");
+		return channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+	}
+
+	private IntBuffer ints(long offset, int count) throws IOException {
+		return map(offset, 4L * count).asIntBuffer();
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private class StringTable {
+		private final int count;
+		private final IntBuffer offsets;
+		private final ByteBuffer bytes;
+
+		StringTable(long offset, int count) throws IOException {
+			this.count = count;
+			this.offsets = ints(offset, count + 1);
+			this.bytes = map(offset + 4L * (count + 1), offsets.get(count));
+		}
+
+		String get(int index) {
+			if (index < 0 || index >= count)
+				return null;
+			int start = offsets.get(index);
+			byte[] string = new byte[offsets.get(index + 1) - start];
+			ByteBuffer view = bytes.duplicate();
+			view.position(start);
+			view.get(string);
+			return new String(string, StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -0,0 +1,247 @@
+package depends.format.binary;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import depends.format.StreamingDependencyWriter;
+import depends.matrix.core.DependencyDetail;
+import depends.matrix.core.DependencyPair;
+import depends.matrix.core.DependencyValue;
+import depends.matrix.core.LocationInfo;
+
+/**
+ * Writes the dependencies in the binary format of {@link BinaryDependencyFormat}.
+ * Only primitive arrays (and the interned strings) are kept while the cells are written;
+ * the cells have to be given row by row, and by the increasing index of their dest node in a row.
+ */
+public class BinaryDependencyWriter implements StreamingDependencyWriter {
+	private final String filename;
+	private List<String> nodes;
+	private int[] rowPtr;
+	/* the last row which has cells */
+	private int currentRow = -1;
+	private int lastColumn = -1;
+
+	private final HashMap<String, Integer> typeIndexes = new HashMap<>();
+	private final List<String> types = new ArrayList<>();
+	private final HashMap<String, Integer> detailStringIndexes = new HashMap<>();
+	private final List<String> detailStrings = new ArrayList<>();
+
+	private int cellCount = 0;
+	private int[] colIdx = new int[1024];
+	/* valuePtr[cell] .. valuePtr[cell+1] are the values of the cell */
+	private int[] valuePtr = new int[1025];
+	private int valueCount = 0;
+	private int[] valueType = new int[1024];
+	private int[] valueWeight = new int[1024];
+	/* detailPtr[value] .. detailPtr[value+1] are the details of the value */
+	private int[] detailPtr = new int[1025];
+	private int detailCount = 0;
+	private int[] details = new int[1024];
+
+	public BinaryDependencyWriter(String filename) {
+		this.filename = filename;
+	}
+
+	@Override
+	public void begin(List<String> nodes) throws IOException {
+		this.nodes = nodes;
+		this.rowPtr = new int[nodes.size() + 1];
+	}
+
+	@Override
+	public void writeCell(DependencyPair cell) throws IOException {
+		int from = cell.getFrom();
+		int to = cell.getTo();
+		if (from < currentRow || (from == currentRow && to <= lastColumn))
+			throw new IOException("The cell (" + from + "," + to + ") is out of order, cells should be written row by row");
+		if (from >= nodes.size() || to < 0 || to >= nodes.size())
+			throw new IOException("The cell (" + from + "," + to + ") is out of the " + nodes.size() + " nodes");
+		fillRowsUntil(from);
+		currentRow = from;
+		lastColumn = to;
+
+		colIdx = ensureCapacity(colIdx, cellCount + 1);
+		valuePtr = ensureCapacity(valuePtr, cellCount + 2);
+		colIdx[cellCount] = to;
+		for (DependencyValue value : cell.getDependencies()) {
+			addValue(value);
+		}
+		cellCount++;
+		valuePtr[cellCount] = valueCount;
+	}
+
+	private void addValue(DependencyValue value) {
+		valueType = ensureCapacity(valueType, valueCount + 1);
+		valueWeight = ensureCapacity(valueWeight, valueCount + 1);
+		detailPtr = ensureCapacity(detailPtr, valueCount + 2);
+		valueType[valueCount] = typeIndexes.computeIfAbsent(value.getType(), type -> {
+			types.add(type);
+			return types.size() - 1;
+		});
+		valueWeight[valueCount] = value.getWeight();
+		List<DependencyDetail> valueDetails = value.getDetails();
+		if (valueDetails != null) {
+			for (DependencyDetail detail : valueDetails) {
+				details = ensureCapacity(details, (detailCount + 1) * BinaryDependencyFormat.DETAIL_INTS);
+				int offset = detailCount * BinaryDependencyFormat.DETAIL_INTS;
+				addLocation(detail.getSrc(), offset);
+				addLocation(detail.getDest(), offset + BinaryDependencyFormat.DETAIL_INTS / 2);
+				detailCount++;
+			}
+		}
+		valueCount++;
+		detailPtr[valueCount] = detailCount;
+	}
+
+	private void addLocation(LocationInfo location, int offset) {
+		details[offset] = detailStringIndex(location.getObject());
+		details[offset + 1] = detailStringIndex(location.getFile());
+		details[offset + 2] = location.getStartLineNumber();
+		details[offset + 3] = location.getEndLineNumber();
+	}
+
+	private int detailStringIndex(String value) {
+		if (value == null)
+			return -1;
+		return detailStringIndexes.computeIfAbsent(value, key -> {
+			detailStrings.add(key);
+			return detailStrings.size() - 1;
+		});
+	}
+
+	private void fillRowsUntil(int row) {
+		/* the rows without cells end where they start */
+		for (int i = currentRow + 1; i <= row; i++) {
+			rowPtr[i] = cellCount;
+		}
+	}
+
+	@Override
+	public void end() throws IOException {
+		fillRowsUntil(nodes.size());
+		currentRow = nodes.size();
+		int nodeCount = nodes.size();
+
+		/* the transposed index: the cells of each column */
+		int[] colPtr = new int[nodeCount + 1];
+		for (int cell = 0; cell < cellCount; cell++) {
+			colPtr[colIdx[cell] + 1]++;
+		}
+		for (int i = 0; i < nodeCount; i++) {
+			colPtr[i + 1] += colPtr[i];
+		}
+		int[] colCells = new int[cellCount];
+		int[] colNext = Arrays.copyOf(colPtr, nodeCount);
+		for (int cell = 0; cell < cellCount; cell++) {
+			colCells[colNext[colIdx[cell]]++] = cell;
+		}
+
+		byte[][] nodeTable = encode(nodes);
+		byte[][] typeTable = encode(types);
+		byte[][] detailStringTable = encode(detailStrings);
+		boolean hasDetails = detailCount > 0;
+
+		long[] offsets = new long[BinaryDependencyFormat.SECTIONS];
+		long offset = BinaryDependencyFormat.HEADER_SIZE;
+		offset = section(offsets, BinaryDependencyFormat.NODES, offset, stringTableSize(nodeTable));
+		offset = section(offsets, BinaryDependencyFormat.TYPES, offset, stringTableSize(typeTable));
+		offset = section(offsets, BinaryDependencyFormat.ROW_PTR, offset, 4L * (nodeCount + 1));
+		offset = section(offsets, BinaryDependencyFormat.COL_IDX, offset, 4L * cellCount);
+		offset = section(offsets, BinaryDependencyFormat.VALUE_PTR, offset, 4L * (cellCount + 1));
+		offset = section(offsets, BinaryDependencyFormat.VALUE_TYPE, offset, 4L * valueCount);
+		offset = section(offsets, BinaryDependencyFormat.VALUE_WEIGHT, offset, 4L * valueCount);
+		offset = section(offsets, BinaryDependencyFormat.COL_PTR, offset, 4L * (nodeCount + 1));
+		offset = section(offsets, BinaryDependencyFormat.COL_CELLS, offset, 4L * cellCount);
+		if (hasDetails) {
+			offset = section(offsets, BinaryDependencyFormat.DETAIL_STRINGS, offset, stringTableSize(detailStringTable));
+			offset = section(offsets, BinaryDependencyFormat.DETAIL_PTR, offset, 4L * (valueCount + 1));
+			offset = section(offsets, BinaryDependencyFormat.DETAILS, offset, 4L * detailCount * BinaryDependencyFormat.DETAIL_INTS);
+		}
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename), 1 << 16))) {
+			out.writeInt(BinaryDependencyFormat.MAGIC);
+			out.writeInt(BinaryDependencyFormat.VERSION);
+			out.writeInt(nodeCount);
+			out.writeInt(types.size());
+			out.writeInt(cellCount);
+			out.writeInt(valueCount);
+			out.writeInt(detailCount);
+			out.writeInt(detailStrings.size());
+			for (long sectionOffset : offsets) {
+				out.writeLong(sectionOffset);
+			}
+			writeStringTable(out, nodeTable);
+			writeStringTable(out, typeTable);
+			writeInts(out, rowPtr, nodeCount + 1);
+			writeInts(out, colIdx, cellCount);
+			writeInts(out, valuePtr, cellCount + 1);
+			writeInts(out, valueType, valueCount);
+			writeInts(out, valueWeight, valueCount);
+			writeInts(out, colPtr, nodeCount + 1);
+			writeInts(out, colCells, cellCount);
+			if (hasDetails) {
+				writeStringTable(out, detailStringTable);
+				writeInts(out, detailPtr, valueCount + 1);
+				writeInts(out, details, detailCount * BinaryDependencyFormat.DETAIL_INTS);
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+	}
+
+	private static long section(long[] offsets, int section, long offset, long size) {
+		offsets[section] = offset;
+		return offset + size;
+	}
+
+	private static byte[][] encode(List<String> strings) {
+		byte[][] encoded = new byte[strings.size()][];
+		for (int i = 0; i < encoded.length; i++) {
+			encoded[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+		}
+		return encoded;
+	}
+
+	/* the int offsets of the strings (count + 1) followed by their utf-8 bytes */
+	private static long stringTableSize(byte[][] table) {
+		long size = 4L * (table.length + 1);
+		for (byte[] string : table) {
+			size += string.length;
+		}
+		return size;
+	}
+
+	private static void writeStringTable(DataOutputStream out, byte[][] table) throws IOException {
+		int offset = 0;
+		out.writeInt(offset);
+		for (byte[] string : table) {
+			offset += string.length;
+			out.writeInt(offset);
+		}
+		for (byte[] string : table) {
+			out.write(string);
+		}
+	}
+
+	private static void writeInts(DataOutputStream out, int[] values, int length) throws IOException {
+		for (int i = 0; i < length; i++) {
+			out.writeInt(values[i]);
+		}
+	}
+
+	private static int[] ensureCapacity(int[] values, int size) {
+		if (size <= values.length)
+			return values;
+		return Arrays.copyOf(values, Math.max(size, values.length + (values.length >> 1)));
+	}
+}
@@ -0,0 +1,28 @@
+package depends.format.binary;
+
+import java.io.IOException;
+
+import depends.format.AbstractFormatDependencyDumper;
+import depends.matrix.core.DependencyMatrix;
+
+public class BinaryFormatDependencyDumper extends AbstractFormatDependencyDumper {
+	@Override
+	public String getFormatName() {
+		return "binary";
+	}
+
+	public BinaryFormatDependencyDumper(DependencyMatrix dependencyMatrix, String projectName, String outputDir) {
+		super(dependencyMatrix, projectName, outputDir);
+	}
+
+	@Override
+	public boolean output() {
+		try (BinaryDependencyWriter writer = new BinaryDependencyWriter(composeFilename() + ".dsm")) {
+			writer.write(matrix);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return false;
+		}
+		return true;
+	}
+}
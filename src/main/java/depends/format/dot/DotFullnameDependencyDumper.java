@@ -39,6 +39,10 @@ public class DotFullnameDependencyDumper extends  AbstractFormatDependencyDumper
 	public String getFormatName() {
 		return "dotx";
 	}
+	@Override
+	public String getOutputFileExtension() {
+		return "dot";
+	}
 	public DotFullnameDependencyDumper(DependencyMatrix dependencyMatrix, String projectName, String outputDir) {
 		super(dependencyMatrix,projectName,outputDir);
 	}
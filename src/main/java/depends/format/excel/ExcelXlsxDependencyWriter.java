@@ -0,0 +1,137 @@
+package depends.format.excel;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import depends.format.StreamingDependencyWriter;
+import depends.matrix.core.DependencyPair;
+import depends.matrix.core.DependencyValue;
+
+/**
+ * Writes the DSM sheet (a header row and a header column of the node indexes) with a streaming (SXSSF)
+ * workbook: only a window of rows is kept in memory, the others are flushed to a temporary file.
+ * So the cells have to be written row by row (in the order of the source nodes).
+ * If there are more nodes than the columns of a sheet, the columns are split across
+ * the sheets "DSM", "DSM 2", "DSM 3"... which all have a row per node.
+ */
+public class ExcelXlsxDependencyWriter implements StreamingDependencyWriter {
+	public static final int DEFAULT_WINDOW_SIZE = 100;
+	/* the first two columns are the index and the name of the node */
+	private static final int HEADER_COLUMNS = 2;
+	public static final int MAX_NODES_PER_SHEET = SpreadsheetVersion.EXCEL2007.getMaxColumns() - HEADER_COLUMNS;
+	private final String filename;
+	private final SXSSFWorkbook workbook;
+	private final int nodesPerSheet;
+	private final List<SXSSFSheet> sheets = new ArrayList<>();
+	private List<String> nodes;
+	/* the rows of nodes before it were created */
+	private int nextNode = 0;
+	/* the rows of the current node, one per sheet */
+	private Row[] currentRows;
+
+	public ExcelXlsxDependencyWriter(String filename) {
+		this(filename, DEFAULT_WINDOW_SIZE);
+	}
+
+	public ExcelXlsxDependencyWriter(String filename, int windowSize) {
+		this(filename, windowSize, MAX_NODES_PER_SHEET);
+	}
+
+	/**
+	 * @param windowSize the number of rows of a sheet kept in memory
+	 * @param nodesPerSheet the number of node columns of a sheet (at most MAX_NODES_PER_SHEET)
+	 */
+	public ExcelXlsxDependencyWriter(String filename, int windowSize, int nodesPerSheet) {
+		this.filename = filename;
+		this.workbook = new SXSSFWorkbook(windowSize);
+		this.nodesPerSheet = Math.min(nodesPerSheet, MAX_NODES_PER_SHEET);
+	}
+
+	@Override
+	public void begin(List<String> nodes) throws IOException {
+		if (nodes.size() >= SpreadsheetVersion.EXCEL2007.getMaxRows())
+			throw new IOException("Too many nodes for the rows of a sheet: " + nodes.size());
+		this.nodes = nodes;
+		int sheetCount = Math.max(1, (nodes.size() + nodesPerSheet - 1) / nodesPerSheet);
+		for (int s = 0; s < sheetCount; s++) {
+			SXSSFSheet sheet = workbook.createSheet(s == 0 ? "DSM" : "DSM " + (s + 1));
+			Row header = sheet.createRow(0);
+			int first = s * nodesPerSheet;
+			int last = Math.min(nodes.size(), first + nodesPerSheet);
+			for (int i = first; i < last; i++) {
+				Cell cell = header.createCell(i - first + HEADER_COLUMNS);
+				cell.setCellValue(i);
+			}
+			sheets.add(sheet);
+		}
+		currentRows = new Row[sheetCount];
+	}
+
+	@Override
+	public void writeCell(DependencyPair cell) throws IOException {
+		int from = cell.getFrom();
+		if (from >= nextNode) {
+			createRowsUntil(from);
+			createNodeRows(from);
+		} else if (from != nextNode - 1) {
+			throw new IOException("The row of node " + from + " was already written, cells should be written row by row");
+		}
+		int to = cell.getTo();
+		Row row = currentRows[to / nodesPerSheet];
+		row.createCell(to % nodesPerSheet + HEADER_COLUMNS).setCellValue(buildDependencyValues(cell.getDependencies()));
+	}
+
+	@Override
+	public void end() throws IOException {
+		createRowsUntil(nodes.size());
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(filename))) {
+			workbook.write(out);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		workbook.dispose();
+		workbook.close();
+	}
+
+	/**
+	 * Create the rows (without dependencies) of the nodes before the given one
+	 */
+	private void createRowsUntil(int node) {
+		while (nextNode < node) {
+			createNodeRows(nextNode);
+		}
+	}
+
+	private void createNodeRows(int node) {
+		for (int s = 0; s < sheets.size(); s++) {
+			Row row = sheets.get(s).createRow(node + 1);
+			row.createCell(0).setCellValue(node);
+			row.createCell(1).setCellValue(nodes.get(node));
+			currentRows[s] = row;
+		}
+		currentRows[node / nodesPerSheet].createCell(node % nodesPerSheet + HEADER_COLUMNS).setCellValue("(" + node + ")");
+		nextNode = node + 1;
+	}
+
+	static String buildDependencyValues(Collection<DependencyValue> dependencies) {
+		StringBuilder sb = new StringBuilder();
+		for (DependencyValue dependency : dependencies) {
+			String comma = sb.length() > 0 ? "," : "";
+			sb.append(comma).append(dependency.getType()).append("(").append(dependency.getWeight()).append(")");
+		}
+		return sb.toString();
+	}
+}
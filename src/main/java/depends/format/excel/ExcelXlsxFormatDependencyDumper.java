@@ -24,23 +24,16 @@ SOFTWARE.
 
 package depends.format.excel;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.Collection;
-
-import org.apache.poi.xssf.usermodel.XSSFCell;
-import org.apache.poi.xssf.usermodel.XSSFRow;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import depends.format.AbstractFormatDependencyDumper;
 import depends.matrix.core.DependencyMatrix;
-import depends.matrix.core.DependencyPair;
-import depends.matrix.core.DependencyValue;
 
+/**
+ * The dependencies are written by {@link ExcelXlsxDependencyWriter} row by row,
+ * so that only a window of rows is kept in memory by the workbook.
+ */
 public class ExcelXlsxFormatDependencyDumper extends AbstractFormatDependencyDumper {
-	private XSSFWorkbook workbook;
-	private XSSFSheet sheet;
 	@Override
 	public String getFormatName() {
 		return "xlsx";
@@ -51,69 +44,13 @@ public class ExcelXlsxFormatDependencyDumper extends AbstractFormatDependencyDum
 
 	@Override
 	public boolean output() {
-		String filename = composeFilename() + ".xlsx";
-
-		startFile();
-		Collection<DependencyPair> dependencyPairs = matrix.getDependencyPairs();
-		XSSFRow[] row = new XSSFRow[matrix.getNodes().size()];
-
-		// create header row
-		XSSFRow header = sheet.createRow(0);
-		for (int i = 0; i < matrix.getNodes().size(); i++) {
-			XSSFCell cell = header.createCell(i + 2);
-			cell.setCellValue(i);
-		}
-		;
-
-		// create header col
-		for (int i = 0; i < matrix.getNodes().size(); i++) {
-			row[i] = sheet.createRow(i + 1);
-			String node = matrix.getNodes().get(i);
-			XSSFCell cell = row[i].createCell(0);
-			cell.setCellValue(i);
-			cell = row[i].createCell(1);
-			cell.setCellValue(node);
-		}
-		;
-
-		// create header col
-		for (int i = 0; i < matrix.getNodes().size(); i++) {
-			XSSFCell cell = row[i].createCell(i + 2);
-			cell.setCellValue("(" + i + ")");
-		}
-		;
-
-		for (DependencyPair dependencyPair : dependencyPairs) {
-			XSSFCell cell = row[dependencyPair.getFrom()].createCell(dependencyPair.getTo() + 2);
-			cell.setCellValue(buildDependencyValues(dependencyPair.getDependencies()));
-		}
-		closeFile(filename);
-		return true;
-	}
-
-	private String buildDependencyValues(Collection<DependencyValue> dependencies) {
-		StringBuilder sb = new StringBuilder();
-		for (DependencyValue dependency : dependencies) {
-			String comma = sb.length() > 0 ? "," : "";
-			sb.append(comma).append(dependency.getType()).append("(").append(dependency.getWeight()).append(")");
-		}
-		return sb.toString();
-	}
-
-	private void closeFile(String filename) {
-		try {
-	        FileOutputStream out = new FileOutputStream(filename);
-	        workbook.write(out);
-	        workbook.close();
-	        out.close();
+		try (ExcelXlsxDependencyWriter writer = new ExcelXlsxDependencyWriter(composeFilename() + ".xlsx")) {
+			writer.write(matrix);
 		} catch (IOException e) {
 			e.printStackTrace();
+			return false;
 		}
-	}
-
-	private void startFile() {
-		workbook = new XSSFWorkbook();
-		sheet = workbook.createSheet("DSM");
+		return true;
 	}
 
 }
@@ -55,18 +55,22 @@ public class JDataBuilder {
 		ArrayList<JCellObject> cellObjects = new ArrayList<JCellObject>();
 
 		for (DependencyPair dependencyPair : dependencyPairs) {
-			Map<String, Float> valueObject = buildValueObject(dependencyPair.getDependencies());
-			List<DetailItem> details = buildDetails(dependencyPair.getDependencies());
-			JCellObject cellObject = new JCellObject();
-			cellObject.setSrc(dependencyPair.getFrom());
-			cellObject.setDest(dependencyPair.getTo());
-			cellObject.setValues(valueObject);
-			cellObject.setDetails(details);
-			cellObjects.add(cellObject);
+			cellObjects.add(buildCellObject(dependencyPair));
 		}
 		return cellObjects;
 	}
 
+	public JCellObject buildCellObject(DependencyPair dependencyPair) {
+		Map<String, Float> valueObject = buildValueObject(dependencyPair.getDependencies());
+		List<DetailItem> details = buildDetails(dependencyPair.getDependencies());
+		JCellObject cellObject = new JCellObject();
+		cellObject.setSrc(dependencyPair.getFrom());
+		cellObject.setDest(dependencyPair.getTo());
+		cellObject.setValues(valueObject);
+		cellObject.setDetails(details);
+		return cellObject;
+	}
+
 	private List<DetailItem> buildDetails(Collection<DependencyValue> dependencies) {
 		List<DetailItem>  r = new ArrayList<>();
 		for (DependencyValue dependency : dependencies) {
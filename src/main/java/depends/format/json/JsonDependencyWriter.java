@@ -0,0 +1,61 @@
+package depends.format.json;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import depends.format.FileAttributes;
+import depends.format.StreamingDependencyWriter;
+import depends.matrix.core.DependencyPair;
+
+/**
+ * Writes the same json as the {@link JDepObject} serialized by jackson, but cell by cell
+ * with a JsonGenerator, so only one {@link JCellObject} exists at a time.
+ */
+public class JsonDependencyWriter implements StreamingDependencyWriter {
+	private final JsonGenerator generator;
+	private final FileAttributes attributes;
+	private final JDataBuilder builder = new JDataBuilder();
+
+	public JsonDependencyWriter(String jsonFileName, FileAttributes attributes) throws IOException {
+		this.attributes = attributes;
+		ObjectMapper mapper = new ObjectMapper();
+		generator = mapper.getFactory().createGenerator(new File(jsonFileName), JsonEncoding.UTF8);
+		generator.setPrettyPrinter(new DefaultPrettyPrinter());
+	}
+
+	@Override
+	public void begin(List<String> nodes) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("schemaVersion", attributes.getSchemaVersion());
+		generator.writeStringField("name", attributes.getAttributeName());
+		generator.writeArrayFieldStart("variables");
+		for (String node : nodes) {
+			generator.writeString(node);
+		}
+		generator.writeEndArray();
+		generator.writeArrayFieldStart("cells");
+	}
+
+	@Override
+	public void writeCell(DependencyPair cell) throws IOException {
+		generator.writeObject(builder.buildCellObject(cell));
+	}
+
+	@Override
+	public void end() throws IOException {
+		generator.writeEndArray();
+		generator.writeEndObject();
+		generator.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		generator.close();
+	}
+}
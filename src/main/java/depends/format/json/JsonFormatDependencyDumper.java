@@ -24,9 +24,7 @@ SOFTWARE.
 
 package depends.format.json;
 
-import java.io.File;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
 
 import depends.format.AbstractFormatDependencyDumper;
 import depends.format.FileAttributes;
@@ -44,22 +42,12 @@ public class JsonFormatDependencyDumper extends AbstractFormatDependencyDumper {
 
 	@Override
 	public boolean output() {
-		JDataBuilder jBuilder = new JDataBuilder();
-		JDepObject jDepObject = jBuilder.build(matrix, new FileAttributes(name));
-		toJson(jDepObject, composeFilename()+ ".json");
-		return true;
-	}
-
-	
-
-	private void toJson(JDepObject depObject, String jsonFileName) {
-		ObjectMapper mapper = new ObjectMapper();
-		try {
-			mapper.writerWithDefaultPrettyPrinter().writeValue(new File(jsonFileName), depObject);
-		} catch (Exception e) {
+		try (JsonDependencyWriter writer = new JsonDependencyWriter(composeFilename() + ".json", new FileAttributes(name))) {
+			writer.write(matrix);
+		} catch (IOException e) {
 			e.printStackTrace();
 		}
-
+		return true;
 	}
 
 }
@@ -0,0 +1,132 @@
+package depends.format.xml;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import depends.format.FileAttributes;
+import depends.format.StreamingDependencyWriter;
+import depends.matrix.core.DependencyPair;
+import depends.matrix.core.DependencyValue;
+
+/**
+ * Writes the same xml as the {@link XDepObject} marshalled by JAXB (formatted output),
+ * but element by element with StAX, without building the object tree.
+ */
+public class XmlDependencyWriter implements StreamingDependencyWriter {
+	private static final String INDENT = "    ";
+	private final Writer out;
+	private final XMLStreamWriter writer;
+	private final FileAttributes attributes;
+	private boolean cellsStarted = false;
+
+	public XmlDependencyWriter(String xmlFileName, FileAttributes attributes) throws IOException {
+		this.attributes = attributes;
+		this.out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(xmlFileName), StandardCharsets.UTF_8));
+		try {
+			// the declaration is written directly, as StAX could not write the standalone flag
+			out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+			this.writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out);
+		} catch (XMLStreamException | IOException e) {
+			out.close();
+			throw new IOException(e);
+		}
+	}
+
+	@Override
+	public void begin(List<String> nodes) throws IOException {
+		try {
+			writer.writeStartElement("matrix");
+			writer.writeAttribute("name", attributes.getAttributeName());
+			writer.writeAttribute("schema-version", attributes.getSchemaVersion());
+			writer.writeDefaultNamespace("http://dv8.archdia.com/xml/matrix");
+			newLine(1);
+			if (nodes.isEmpty()) {
+				writer.writeEmptyElement("variables");
+				return;
+			}
+			writer.writeStartElement("variables");
+			for (String node : nodes) {
+				newLine(2);
+				writer.writeStartElement("variable");
+				writer.writeCharacters(node);
+				writer.writeEndElement();
+			}
+			newLine(1);
+			writer.writeEndElement();
+		} catch (XMLStreamException e) {
+			throw new IOException(e);
+		}
+	}
+
+	@Override
+	public void writeCell(DependencyPair cell) throws IOException {
+		try {
+			if (!cellsStarted) {
+				newLine(1);
+				writer.writeStartElement("cells");
+				cellsStarted = true;
+			}
+			newLine(2);
+			writer.writeStartElement("cell");
+			writer.writeAttribute("dest", String.valueOf(cell.getTo()));
+			writer.writeAttribute("src", String.valueOf(cell.getFrom()));
+			for (DependencyValue dependency : cell.getDependencies()) {
+				newLine(3);
+				writer.writeEmptyElement("depend");
+				writer.writeAttribute("name", dependency.getType());
+				writer.writeAttribute("weight", String.valueOf((float) dependency.getWeight()));
+			}
+			newLine(2);
+			writer.writeEndElement();
+		} catch (XMLStreamException e) {
+			throw new IOException(e);
+		}
+	}
+
+	@Override
+	public void end() throws IOException {
+		try {
+			if (cellsStarted) {
+				newLine(1);
+				writer.writeEndElement();
+			} else {
+				newLine(1);
+				writer.writeEmptyElement("cells");
+			}
+			newLine(0);
+			writer.writeEndElement();
+			writer.writeCharacters("\n");
+			writer.flush();
+		} catch (XMLStreamException e) {
+			throw new IOException(e);
+		}
+	}
+
+	private void newLine(int depth) throws XMLStreamException {
+		StringBuilder sb = new StringBuilder("\n");
+		for (int i = 0; i < depth; i++) {
+			sb.append(INDENT);
+		}
+		writer.writeCharacters(sb.toString());
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			writer.close();
+		} catch (XMLStreamException e) {
+			throw new IOException(e);
+		} finally {
+			out.close();
+		}
+	}
+}
@@ -24,10 +24,7 @@ SOFTWARE.
 
 package depends.format.xml;
 
-import java.io.FileOutputStream;
-
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.Marshaller;
+import java.io.IOException;
 
 import depends.format.AbstractFormatDependencyDumper;
 import depends.format.FileAttributes;
@@ -42,22 +39,13 @@ public class XmlFormatDependencyDumper extends AbstractFormatDependencyDumper{
 		super(dependencyMatrix,projectName,outputDir);
 	}
 
-	private void toXml(XDepObject xDepObject, String xmlFileName)  {
-        try {
-            JAXBContext jaxbContext = JAXBContext.newInstance(XDepObject.class);
-            Marshaller marshaller = jaxbContext.createMarshaller();
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            marshaller.marshal(xDepObject, new FileOutputStream(xmlFileName));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
-
 	@Override
 	public boolean output() {
-        XDataBuilder xBuilder = new XDataBuilder();
-        XDepObject xDepObject = xBuilder.build(matrix,new FileAttributes(name));
-        toXml(xDepObject,composeFilename()+".xml");
+        try (XmlDependencyWriter writer = new XmlDependencyWriter(composeFilename() + ".xml", new FileAttributes(name))) {
+            writer.write(matrix);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
  		return true;
 	}
 }
@@ -28,22 +28,131 @@ import depends.entity.Entity;
 import depends.entity.FileEntity;
 import depends.entity.EntityNameBuilder;
 import depends.entity.repo.EntityRepo;
+import depends.format.StreamingDependencyWriter;
 import depends.matrix.core.DependencyDetail;
 import depends.matrix.core.DependencyMatrix;
+import depends.matrix.core.DependencyPair;
+import depends.matrix.core.DependencyValue;
 import depends.matrix.core.LocationInfo;
+import depends.matrix.core.PrimitiveDependencyMatrix;
 import multilang.depends.util.file.path.EmptyFilenameWritter;
 import multilang.depends.util.file.path.FilenameWritter;
 import multilang.depends.util.file.strip.EmptyLeadingNameStripper;
 import multilang.depends.util.file.strip.ILeadingNameStrippper;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 public abstract class DependencyGenerator {
 	public abstract DependencyMatrix build(EntityRepo entityRepo,List<String> typeFilter);
 
+	/**
+	 * The name of the node if the entity is a node of the matrix (e.g. a file), otherwise null
+	 */
+	protected abstract String nodeName(Entity entity);
+
+	/**
+	 * The id of the node which contains the entity, or -1
+	 */
+	protected abstract int nodeIdOf(Entity entity);
+
+	/**
+	 * Add the dependencies from the relations of the entity (contained by the node from) into the matrix
+	 */
+	protected abstract void addDependencies(EntityRepo entityRepo, Entity entity, int from, DependencyMatrix matrix);
+
+	/**
+	 * Write the dependencies to the writers without building the whole matrix.
+	 * The entities are grouped by their nodes first, then the dependencies of each node
+	 * (a row of the matrix) are collected and written, one row at a time.
+	 * The nodes are ordered by name and the cells re-mapped as {@link depends.matrix.transform.OrderedMatrixGenerator}
+	 * does, so the output is the same as build() + OrderedMatrixGenerator (except the order of cells, which are
+	 * written by row and column), and the memory depends on the number of entities but not of dependencies.
+	 */
+	public void stream(EntityRepo entityRepo, List<String> typeFilter, List<StreamingDependencyWriter> writers) throws IOException {
+		System.out.println("Start streaming dependencies....");
+		ArrayList<String> nodes = new ArrayList<>();
+		Map<Integer, String> nodeNames = new HashMap<>();
+		Map<Integer, List<Entity>> entitiesOfNode = new HashMap<>();
+		Iterator<Entity> iterator = entityRepo.entityIterator();
+		while (iterator.hasNext()) {
+			Entity entity = iterator.next();
+			if (!entity.inScope()) continue;
+			String name = nodeName(entity);
+			if (name != null) {
+				nodes.add(name);
+				nodeNames.put(entity.getId(), name);
+			}
+			int from = nodeIdOf(entity);
+			if (from == -1) continue;
+			entitiesOfNode.computeIfAbsent(from, key -> new ArrayList<>()).add(entity);
+		}
+		nodes.sort(Comparator.naturalOrder());
+		Map<String, Integer> nodeIndexes = new HashMap<>();
+		for (int index = 0; index < nodes.size(); index++) {
+			nodeIndexes.put(nodes.get(index), index);
+		}
+		for (StreamingDependencyWriter writer : writers) {
+			writer.begin(nodes);
+		}
+
+		// the source nodes in the order of rows; the nodes with the same name share a row
+		List<Integer> sources = new ArrayList<>();
+		for (Integer source : entitiesOfNode.keySet()) {
+			if (nodeNames.containsKey(source))
+				sources.add(source);
+		}
+		sources.sort(Comparator.comparing((Integer source) -> nodeIndexes.get(nodeNames.get(source))).thenComparing(source -> source));
+		int next = 0;
+		while (next < sources.size()) {
+			Integer rowIndex = nodeIndexes.get(nodeNames.get(sources.get(next)));
+			DependencyMatrix row = new DependencyMatrix(typeFilter);
+			while (next < sources.size() && nodeIndexes.get(nodeNames.get(sources.get(next))).equals(rowIndex)) {
+				Integer source = sources.get(next++);
+				for (Entity entity : entitiesOfNode.get(source)) {
+					addDependencies(entityRepo, entity, source, row);
+				}
+			}
+			List<DependencyPair> cells = reMapRow(row, nodeNames, nodeIndexes);
+			for (DependencyPair cell : cells) {
+				for (StreamingDependencyWriter writer : writers) {
+					writer.writeCell(cell);
+				}
+			}
+		}
+		for (StreamingDependencyWriter writer : writers) {
+			writer.end();
+		}
+		System.out.println("Finish streaming dependencies....");
+	}
+
+	private List<DependencyPair> reMapRow(DependencyMatrix row, Map<Integer, String> nodeNames, Map<String, Integer> nodeIndexes) {
+		// the pairs of nodes with the same name are merged in the order of the nodes
+		List<DependencyPair> pairs = new ArrayList<>(row.getDependencyPairs());
+		pairs.sort(Comparator.comparing(DependencyPair::getFrom).thenComparing(DependencyPair::getTo));
+		DependencyMatrix ordered = new DependencyMatrix();
+		for (DependencyPair pair : pairs) {
+			Integer from = nodeIndexes.get(nodeNames.get(pair.getFrom()));
+			Integer to = nodeIndexes.get(nodeNames.get(pair.getTo()));
+			if (to == null) continue;
+			for (DependencyValue dependency : pair.getDependencies()) {
+				ordered.addDependency(dependency.getType(), from, to, dependency.getWeight(), dependency.getDetails());
+			}
+		}
+		List<DependencyPair> cells = new ArrayList<>(ordered.getDependencyPairs());
+		cells.sort(Comparator.comparing(DependencyPair::getTo));
+		return cells;
+	}
+
 	protected ILeadingNameStrippper stripper = new EmptyLeadingNameStripper();
 	protected FilenameWritter filenameWritter = new EmptyFilenameWritter();
 	private boolean generateDetail = false;
+	private boolean primitiveMatrix = false;
 	
 	public void setLeadingStripper(ILeadingNameStrippper stripper) {
 		this.stripper = stripper;
@@ -66,4 +175,15 @@ public abstract class DependencyGenerator {
 	public void setGenerateDetail(boolean generateDetail) {
 		this.generateDetail = generateDetail;
 	}
+	/**
+	 * Use the PrimitiveDependencyMatrix, which is much smaller and faster on large outputs
+	 */
+	public void setPrimitiveMatrix(boolean primitiveMatrix) {
+		this.primitiveMatrix = primitiveMatrix;
+	}
+	protected DependencyMatrix createMatrix(List<String> typeFilter) {
+		if (primitiveMatrix)
+			return new PrimitiveDependencyMatrix(typeFilter);
+		return new DependencyMatrix(typeFilter);
+	}
 }
@@ -46,51 +46,68 @@ public class FileDependencyGenerator extends DependencyGenerator{
 	 */
 	@Override
 	public DependencyMatrix build(EntityRepo entityRepo,List<String> typeFilter) {
-		DependencyMatrix dependencyMatrix = new DependencyMatrix(typeFilter);
+		DependencyMatrix dependencyMatrix = createMatrix(typeFilter);
 		Iterator<Entity> iterator = entityRepo.entityIterator();
 		System.out.println("Start create dependencies matrix....");
 		while(iterator.hasNext()) {
 			Entity entity = iterator.next();
 			if (!entity.inScope()) continue;
-			if (entity instanceof FileEntity){
-				String name = stripper.stripFilename(entity.getDisplayName());
-				name = filenameWritter.reWrite(name);
+			String name = nodeName(entity);
+			if (name!=null){
         		dependencyMatrix.addNode(name,entity.getId());
         	}
-        	int fileEntityFrom = getFileEntityIdNoException(entityRepo, entity);
+        	int fileEntityFrom = nodeIdOf(entity);
         	if (fileEntityFrom==-1) continue;
-        	for (Relation relation:entity.getRelations()) {
-        		Entity relatedEntity = relation.getEntity();
-        		if (relatedEntity==null) continue;
-        		if (relatedEntity instanceof CandidateTypes) {
-        			List<TypeEntity> candidateTypes = ((CandidateTypes)relatedEntity).getCandidateTypes();
-        			for (TypeEntity candidateType:candidateTypes) {
-    	        		if (candidateType.getId()>=0) {
-    	        			int fileEntityTo = getFileEntityIdNoException(entityRepo,candidateType);
-    	        			if (fileEntityTo!=-1) {
-								DependencyDetail detail = buildDescription(entity,candidateType, relation.getStartLine(), relation.getEndLine());
-								detail = rewriteDetail(detail);
-								dependencyMatrix.addDependency(relation.getType(), fileEntityFrom,fileEntityTo,1,detail);
-    	        			}
-    	        		}
-        			}
-        		}else {
-	        		if (relatedEntity.getId()>=0) {
-	        			int fileEntityTo = getFileEntityIdNoException(entityRepo,relatedEntity);
-	        			if (fileEntityTo!=-1) {
-							DependencyDetail detail = buildDescription(entity, relatedEntity, relation.getStartLine(), relation.getEndLine());
-							detail = rewriteDetail(detail);
-							dependencyMatrix.addDependency(relation.getType(), fileEntityFrom,fileEntityTo,1,detail);
-	        			}
-	        		}
-        		}
-        	}
+        	addDependencies(entityRepo, entity, fileEntityFrom, dependencyMatrix);
         }
 		System.out.println("Finish create dependencies matrix....");
 
 		return dependencyMatrix;
 	}
 
+	@Override
+	protected String nodeName(Entity entity) {
+		if (!(entity instanceof FileEntity))
+			return null;
+		String name = stripper.stripFilename(entity.getDisplayName());
+		return filenameWritter.reWrite(name);
+	}
+
+	@Override
+	protected int nodeIdOf(Entity entity) {
+		return getFileEntityIdNoException(entity);
+	}
+
+	@Override
+	protected void addDependencies(EntityRepo entityRepo, Entity entity, int fileEntityFrom, DependencyMatrix dependencyMatrix) {
+		for (Relation relation:entity.getRelations()) {
+			Entity relatedEntity = relation.getEntity();
+			if (relatedEntity==null) continue;
+			if (relatedEntity instanceof CandidateTypes) {
+				List<TypeEntity> candidateTypes = ((CandidateTypes)relatedEntity).getCandidateTypes();
+				for (TypeEntity candidateType:candidateTypes) {
+					if (candidateType.getId()>=0) {
+						int fileEntityTo = getFileEntityIdNoException(candidateType);
+						if (fileEntityTo!=-1) {
+							DependencyDetail detail = buildDescription(entity,candidateType, relation.getStartLine(), relation.getEndLine());
+							detail = rewriteDetail(detail);
+							dependencyMatrix.addDependency(relation.getType(), fileEntityFrom,fileEntityTo,1,detail);
+						}
+					}
+				}
+			}else {
+				if (relatedEntity.getId()>=0) {
+					int fileEntityTo = getFileEntityIdNoException(relatedEntity);
+					if (fileEntityTo!=-1) {
+						DependencyDetail detail = buildDescription(entity, relatedEntity, relation.getStartLine(), relation.getEndLine());
+						detail = rewriteDetail(detail);
+						dependencyMatrix.addDependency(relation.getType(), fileEntityFrom,fileEntityTo,1,detail);
+					}
+				}
+			}
+		}
+	}
+
 	private DependencyDetail rewriteDetail(DependencyDetail detail) {
 		if (detail==null) return null;
 		String srcFile = filenameWritter.reWrite(
@@ -106,7 +123,7 @@ public class FileDependencyGenerator extends DependencyGenerator{
 						dstFile, detail.getDest().getStartLineNumber(), detail.getDest().getEndLineNumber()));
 	}
 
-	private int getFileEntityIdNoException(EntityRepo entityRepo, Entity entity) {
+	private int getFileEntityIdNoException(Entity entity) {
 		Entity ancestor = entity.getAncestorOfType(FileEntity.class);
 		if (ancestor==null) {
 			return -1;
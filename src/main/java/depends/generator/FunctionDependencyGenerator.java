@@ -37,33 +37,50 @@ import java.util.List;
 
 public class FunctionDependencyGenerator extends DependencyGenerator {
 	public DependencyMatrix build(EntityRepo entityRepo,List<String> typeFilter) {
-		DependencyMatrix dependencyMatrix = new DependencyMatrix(typeFilter);
+		DependencyMatrix dependencyMatrix = createMatrix(typeFilter);
 		Iterator<Entity> iterator = entityRepo.entityIterator();
 		while(iterator.hasNext()) {
 			Entity entity = iterator.next();
 			if (!entity.inScope()) continue;
-			if (entity instanceof FunctionEntity) {
-				String name = getFunctionEntityDisplayName((FunctionEntity)entity);
+			String name = nodeName(entity);
+			if (name != null) {
 				dependencyMatrix.addNode(name,entity.getId());
 			}
-			int entityFrom = getFunctionEntityIdNoException(entity);
+			int entityFrom = nodeIdOf(entity);
 			if (entityFrom == -1)
 				continue;
-			for (Relation relation : entity.getRelations()) {
-				Entity relatedEntity = relation.getEntity();
-        		if (relatedEntity==null) continue;
-				if (relatedEntity.getId() >= 0) {
-					int entityTo = getFunctionEntityIdNoException(relation.getEntity());
-					if (entityTo == -1)
-						continue;
-					dependencyMatrix.addDependency(relation.getType(), entityFrom, entityTo, 1,buildDescription(entity,
-							relation.getEntity(),relation.getStartLine(),relation.getEndLine()));
-				}
-			}
+			addDependencies(entityRepo, entity, entityFrom, dependencyMatrix);
 		}
 		return dependencyMatrix;
 	}
 
+	@Override
+	protected String nodeName(Entity entity) {
+		if (!(entity instanceof FunctionEntity))
+			return null;
+		return getFunctionEntityDisplayName((FunctionEntity) entity);
+	}
+
+	@Override
+	protected int nodeIdOf(Entity entity) {
+		return getFunctionEntityIdNoException(entity);
+	}
+
+	@Override
+	protected void addDependencies(EntityRepo entityRepo, Entity entity, int entityFrom, DependencyMatrix dependencyMatrix) {
+		for (Relation relation : entity.getRelations()) {
+			Entity relatedEntity = relation.getEntity();
+			if (relatedEntity==null) continue;
+			if (relatedEntity.getId() >= 0) {
+				int entityTo = getFunctionEntityIdNoException(relation.getEntity());
+				if (entityTo == -1)
+					continue;
+				dependencyMatrix.addDependency(relation.getType(), entityFrom, entityTo, 1,buildDescription(entity,
+						relation.getEntity(),relation.getStartLine(),relation.getEndLine()));
+			}
+		}
+	}
+
 
 	private String getFunctionEntityDisplayName(FunctionEntity entity) {
 		FileEntity file = (FileEntity) entity.getAncestorOfType(FileEntity.class);
@@ -82,6 +82,10 @@ public class DependencyMatrix {
 		relationCount+=weight;		
 	}
 	
+	public void addDependency(String depType, int from, int to, int weight, DependencyDetail detail) {
+		addDependency(depType, Integer.valueOf(from), Integer.valueOf(to), weight, detail);
+	}
+
     public ArrayList<String> getNodes() {
 		return nodes;
 	}
@@ -0,0 +1,90 @@
+package depends.matrix.core;
+
+import java.util.Arrays;
+
+/**
+ * A map from long keys to int values with open addressing (linear probing),
+ * without boxing the keys or the values.
+ */
+public class LongIntHashMap {
+	private static final float LOAD_FACTOR = 0.6f;
+	private long[] keys;
+	private int[] values;
+	private boolean[] used;
+	private int size = 0;
+	private int threshold;
+	private final int missingValue;
+
+	/**
+	 * @param expectedSize the expected number of keys
+	 * @param missingValue the value returned by get() for absent keys
+	 */
+	public LongIntHashMap(int expectedSize, int missingValue) {
+		int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+		allocate(capacity);
+		this.missingValue = missingValue;
+	}
+
+	public int get(long key) {
+		int mask = keys.length - 1;
+		for (int i = slot(key, mask); used[i]; i = (i + 1) & mask) {
+			if (keys[i] == key)
+				return values[i];
+		}
+		return missingValue;
+	}
+
+	public void put(long key, int value) {
+		int mask = keys.length - 1;
+		int i = slot(key, mask);
+		for (; used[i]; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				values[i] = value;
+				return;
+			}
+		}
+		used[i] = true;
+		keys[i] = key;
+		values[i] = value;
+		if (++size > threshold)
+			rehash(keys.length << 1);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		Arrays.fill(used, false);
+		size = 0;
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new int[capacity];
+		used = new boolean[capacity];
+		threshold = (int) (capacity * LOAD_FACTOR);
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		boolean[] oldUsed = used;
+		allocate(capacity);
+		int mask = capacity - 1;
+		for (int j = 0; j < oldKeys.length; j++) {
+			if (!oldUsed[j]) continue;
+			int i = slot(oldKeys[j], mask);
+			while (used[i])
+				i = (i + 1) & mask;
+			used[i] = true;
+			keys[i] = oldKeys[j];
+			values[i] = oldValues[j];
+		}
+	}
+
+	private static int slot(long key, int mask) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+}
@@ -0,0 +1,172 @@
+package depends.matrix.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A dependency matrix for large outputs (e.g. method granularity).
+ * The pairs are indexed by the primitive key (from<<32|to), the relation types are
+ * interned into ordinals, and the weights are kept in flat arrays per type. The
+ * DependencyPair objects are only built when they are requested by getDependencyPairs().
+ */
+public class PrimitiveDependencyMatrix extends DependencyMatrix {
+	/* the types of a pair are a bit mask */
+	private static final int MAX_TYPES = Long.SIZE;
+	private static final int FILTERED = -1;
+
+	private final Set<String> typeFilter;
+	private final HashMap<String, Integer> typeOrdinals = new HashMap<>();
+	private final ArrayList<String> typeNames = new ArrayList<>();
+	private final LongIntHashMap pairIndex;
+	private int[] pairFrom;
+	private int[] pairTo;
+	private long[] pairTypes;
+	/* weights[ordinal][pair] */
+	private int[][] weights = new int[MAX_TYPES][];
+	/* details of ((long)pair<<6|ordinal), only if there are any */
+	private final HashMap<Long, List<DependencyDetail>> details = new HashMap<>();
+	private int pairCount = 0;
+	private long relationCount = 0;
+	private List<DependencyPair> dependencyPairs = null;
+
+	public PrimitiveDependencyMatrix() {
+		this(null, 16);
+	}
+
+	/**
+	 * @param typeFilter only the dependencies of the types are kept (null for all)
+	 * @param expectedPairs the expected number of pairs
+	 */
+	public PrimitiveDependencyMatrix(List<String> typeFilter, int expectedPairs) {
+		this.typeFilter = typeFilter == null ? null : new HashSet<>(typeFilter);
+		int capacity = Math.max(16, expectedPairs);
+		pairIndex = new LongIntHashMap(capacity, -1);
+		pairFrom = new int[capacity];
+		pairTo = new int[capacity];
+		pairTypes = new long[capacity];
+	}
+
+	public PrimitiveDependencyMatrix(List<String> typeFilter) {
+		this(typeFilter, 1024);
+	}
+
+	@Override
+	public Collection<DependencyPair> getDependencyPairs() {
+		if (dependencyPairs == null) {
+			List<DependencyPair> pairs = new ArrayList<>(pairCount);
+			for (int pair = 0; pair < pairCount; pair++) {
+				DependencyPair dependencyPair = new DependencyPair(pairFrom[pair], pairTo[pair]);
+				long types = pairTypes[pair];
+				while (types != 0) {
+					int ordinal = Long.numberOfTrailingZeros(types);
+					types &= types - 1;
+					List<DependencyDetail> pairDetails = details.get(detailKey(pair, ordinal));
+					dependencyPair.addDependency(typeNames.get(ordinal), weights[ordinal][pair],
+							pairDetails == null ? new ArrayList<>() : pairDetails);
+				}
+				pairs.add(dependencyPair);
+			}
+			dependencyPairs = pairs;
+		}
+		return dependencyPairs;
+	}
+
+	@Override
+	public void addDependency(String depType, Integer from, Integer to, int weight, List<DependencyDetail> details) {
+		addDependency(depType, from.intValue(), to.intValue(), weight, details);
+	}
+
+	@Override
+	public void addDependency(String depType, Integer from, Integer to, int weight, DependencyDetail detail) {
+		addDependency(depType, from.intValue(), to.intValue(), weight, detail);
+	}
+
+	@Override
+	public void addDependency(String depType, int from, int to, int weight, DependencyDetail detail) {
+		long key = add(depType, from, to, weight);
+		if (key != FILTERED && detail != null)
+			details.computeIfAbsent(key, k -> new ArrayList<>()).add(detail);
+	}
+
+	public void addDependency(String depType, int from, int to, int weight, List<DependencyDetail> details) {
+		long key = add(depType, from, to, weight);
+		if (key != FILTERED && details != null && !details.isEmpty())
+			this.details.computeIfAbsent(key, k -> new ArrayList<>()).addAll(details);
+	}
+
+	@Override
+	public Integer relationCount() {
+		return (int) relationCount;
+	}
+
+	/**
+	 * The number of the (from, to) pairs
+	 */
+	public int pairCount() {
+		return pairCount;
+	}
+
+	/**
+	 * @return the detail key of the dependency, or FILTERED
+	 */
+	private long add(String depType, int from, int to, int weight) {
+		if (from == to || from == -1 || to == -1)
+			return FILTERED;
+		int ordinal = ordinalOf(depType);
+		if (ordinal == FILTERED)
+			return FILTERED;
+		long pairKey = ((long) from << 32) | (to & 0xffffffffL);
+		int pair = pairIndex.get(pairKey);
+		if (pair == -1) {
+			pair = newPair(from, to);
+			pairIndex.put(pairKey, pair);
+		}
+		int[] typeWeights = weights[ordinal];
+		if (typeWeights == null || typeWeights.length <= pair) {
+			typeWeights = typeWeights == null ? new int[pairFrom.length] : Arrays.copyOf(typeWeights, pairFrom.length);
+			weights[ordinal] = typeWeights;
+		}
+		typeWeights[pair] += weight;
+		pairTypes[pair] |= 1L << ordinal;
+		relationCount += weight;
+		dependencyPairs = null;
+		return detailKey(pair, ordinal);
+	}
+
+	private int newPair(int from, int to) {
+		if (pairCount == pairFrom.length) {
+			int capacity = pairFrom.length + (pairFrom.length >> 1);
+			pairFrom = Arrays.copyOf(pairFrom, capacity);
+			pairTo = Arrays.copyOf(pairTo, capacity);
+			pairTypes = Arrays.copyOf(pairTypes, capacity);
+		}
+		pairFrom[pairCount] = from;
+		pairTo[pairCount] = to;
+		return pairCount++;
+	}
+
+	private int ordinalOf(String depType) {
+		Integer ordinal = typeOrdinals.get(depType);
+		if (ordinal != null)
+			return ordinal;
+		if (typeFilter != null && !typeFilter.contains(depType)) {
+			ordinal = FILTERED;
+		} else {
+			if (typeNames.size() == MAX_TYPES)
+				throw new IllegalStateException("Too many dependency types (max " + MAX_TYPES + "): " + depType);
+			ordinal = typeNames.size();
+			typeNames.add(depType);
+		}
+		typeOrdinals.put(depType, ordinal);
+		return ordinal;
+	}
+
+	private static long detailKey(int pair, int ordinal) {
+		return ((long) pair << 6) | ordinal;
+	}
+}
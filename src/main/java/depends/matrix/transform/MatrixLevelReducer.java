@@ -25,18 +25,28 @@ SOFTWARE.
 package depends.matrix.transform;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 
 import depends.matrix.core.DependencyMatrix;
 import depends.matrix.core.DependencyPair;
 import depends.matrix.core.DependencyValue;
-
+import depends.matrix.core.PrimitiveDependencyMatrix;
+
+/**
+ * Reduce a matrix to the folder (or package) levels of its nodes: a node at level L is
+ * the prefix of its path with L segments.
+ * The paths of the nodes are split once into a trie, so every node finds its ancestor of a level
+ * by walking up the trie; the dependencies of all the requested levels are aggregated
+ * in one pass over the pairs (see {@link #shrinkToLevels}).
+ */
 public class MatrixLevelReducer {
 
 	private DependencyMatrix origin;
 	private int level;
-	HashMap<String, Integer> nodesMap = new HashMap<>();
 
 	public MatrixLevelReducer(DependencyMatrix matrix, String levelString) {
 		this.origin = matrix;
@@ -46,73 +56,74 @@ public class MatrixLevelReducer {
 	public DependencyMatrix shrinkToLevel() {
 		if (level < 0)
 			return origin;
+		return shrinkToLevels(origin, level).get(level);
+	}
 
-		ArrayList<String> reMappedNodes = new ArrayList<>();
+	/**
+	 * @param levels the positive levels, e.g. 1, 2, 3, 4
+	 * @return the reduced matrix of every level
+	 */
+	public static Map<Integer, DependencyMatrix> shrinkToLevels(DependencyMatrix origin, int... levels) {
+		PathTrie trie = new PathTrie();
+		Map<Integer, PathTrie.Node> nodeOfId = new HashMap<>();
+		List<PathTrie.Node> nodes = new ArrayList<>(origin.getNodes().size());
 		for (String node : origin.getNodes()) {
-			String newNode = calcuateNodeAtLevel(node, level);
-			if (!reMappedNodes.contains(newNode)) {
-				reMappedNodes.add(newNode);
-			}
+			nodes.add(trie.insert(node));
 		}
-		// sort nodes by name
-		reMappedNodes.sort(new Comparator<String>() {
-			@Override
-			public int compare(String o1, String o2) {
-				return o1.compareTo(o2);
+
+		// the nodes of every level, sorted by name
+		Map<Integer, DependencyMatrix> matrixes = new LinkedHashMap<>();
+		List<Map<String, Integer>> newIdsOfLevels = new ArrayList<>(levels.length);
+		for (int level : levels) {
+			TreeSet<String> reMappedNodes = new TreeSet<>();
+			for (PathTrie.Node node : nodes) {
+				reMappedNodes.add(node.ancestorAt(level).name);
+			}
+			DependencyMatrix ordered = new PrimitiveDependencyMatrix(null);
+			Map<String, Integer> newIds = new HashMap<>();
+			for (String node : reMappedNodes) {
+				newIds.put(node, newIds.size());
+				ordered.addNode(node, newIds.get(node));
 			}
-		});
-	    DependencyMatrix ordered = new DependencyMatrix();
-		for (int id=0;id<reMappedNodes.size();id++) {
-			nodesMap.put(reMappedNodes.get(id), id);
-			ordered.addNode(reMappedNodes.get(id), id);
+			newIdsOfLevels.add(newIds);
+			matrixes.put(level, ordered);
 		}
 
-		// add dependencies
+		// the new ids of every level, computed once per node
+		Map<Integer, int[]> newIdsOfNodes = new HashMap<>();
+		List<DependencyMatrix> orderedMatrixes = new ArrayList<>(matrixes.values());
 		for (DependencyPair dependencyPair : origin.getDependencyPairs()) {
+			int[] from = newIdsOfNodes.computeIfAbsent(dependencyPair.getFrom(), id -> translateToNewIds(origin, id, trie, nodeOfId, levels, newIdsOfLevels));
+			int[] to = newIdsOfNodes.computeIfAbsent(dependencyPair.getTo(), id -> translateToNewIds(origin, id, trie, nodeOfId, levels, newIdsOfLevels));
+			if (from == null || to == null)
+				continue;
 			for (DependencyValue dep : dependencyPair.getDependencies()) {
-				ordered.addDependency(dep.getType(), translateToNewId(dependencyPair.getFrom()),
-						translateToNewId(dependencyPair.getTo()), dep.getWeight(), dep.getDetails());
+				for (int i = 0; i < levels.length; i++) {
+					orderedMatrixes.get(i).addDependency(dep.getType(), from[i], to[i], dep.getWeight(), dep.getDetails());
+				}
 			}
 		}
-		return ordered;
+		return matrixes;
 	}
 
-	public static String calcuateNodeAtLevel(String node, int level) {
-		String splitterRegex = "\\.";
-		String splitter = ".";
-		String windowsSplitter = "\\";
-		String unixSplitter = "/";
-		
-		if (node.contains(windowsSplitter)) {
-			splitter = windowsSplitter;
-			splitterRegex = windowsSplitter+windowsSplitter;
-		}else if (node.contains(unixSplitter)) {
-			splitter = unixSplitter;
-			splitterRegex = unixSplitter;		
+	private static int[] translateToNewIds(DependencyMatrix origin, Integer id, PathTrie trie, Map<Integer, PathTrie.Node> nodeOfId,
+			int[] levels, List<Map<String, Integer>> newIdsOfLevels) {
+		String name = origin.getNodeName(id);
+		if (name == null)
+			return null;
+		PathTrie.Node node = nodeOfId.computeIfAbsent(id, key -> trie.insert(name));
+		int[] newIds = new int[levels.length];
+		for (int i = 0; i < levels.length; i++) {
+			Integer newId = newIdsOfLevels.get(i).get(node.ancestorAt(levels[i]).name);
+			if (newId == null)
+				return null;
+			newIds[i] = newId;
 		}
-		String prefix = "";
-		if (node.startsWith(splitter)) {
-			prefix = splitter;
-		}
-		String[] segments = node.split(splitterRegex);
-		StringBuffer sb = new StringBuffer();
-		int count = 0;
-		for (int i = 0; i < segments.length; i++) {
-			if (count == level)
-				break;
-			if (segments[i].length() > 0) {
-				if (sb.length()>0)
-					sb.append(splitter);
-				sb.append(segments[i]);
-				count++;
-			}
-		}
-		return prefix + sb.toString();
+		return newIds;
 	}
 
-	private Integer translateToNewId(Integer id) {
-		String newNode = calcuateNodeAtLevel(origin.getNodeName(id), level);
-		return nodesMap.get(newNode);
+	public static String calcuateNodeAtLevel(String node, int level) {
+		return new PathTrie().insert(node).ancestorAt(level).name;
 	}
 
 	private int stringToPositiveInt(String level) {
@@ -128,4 +139,69 @@ public class MatrixLevelReducer {
 		return result;
 	}
 
+	/**
+	 * The paths split by their splitter (\, / or .), the empty segments are skipped.
+	 * The paths with different splitters (or with and without a leading splitter) have different roots.
+	 */
+	static class PathTrie {
+		private final Map<String, Node> roots = new HashMap<>();
+
+		Node insert(String path) {
+			char splitter = '.';
+			if (path.indexOf('\\') >= 0) {
+				splitter = '\\';
+			} else if (path.indexOf('/') >= 0) {
+				splitter = '/';
+			}
+			String prefix = path.length() > 0 && path.charAt(0) == splitter ? String.valueOf(splitter) : "";
+			final char rootSplitter = splitter;
+			Node node = roots.computeIfAbsent(prefix + ":" + splitter, key -> new Node(null, prefix, rootSplitter));
+			int start = 0;
+			while (start <= path.length()) {
+				int end = path.indexOf(splitter, start);
+				if (end < 0)
+					end = path.length();
+				if (end > start)
+					node = node.child(path.substring(start, end));
+				start = end + 1;
+			}
+			return node;
+		}
+
+		static class Node {
+			final Node parent;
+			final int depth;
+			final char splitter;
+			/* the path of the node, e.g. the folder of the level */
+			final String name;
+			private Map<String, Node> children;
+
+			Node(Node parent, String name, char splitter) {
+				this.parent = parent;
+				this.depth = parent == null ? 0 : parent.depth + 1;
+				this.name = name;
+				this.splitter = splitter;
+			}
+
+			Node child(String segment) {
+				if (children == null)
+					children = new HashMap<>();
+				Node child = children.get(segment);
+				if (child == null) {
+					String childName = depth == 0 ? name + segment : name + splitter + segment;
+					child = new Node(this, childName, splitter);
+					children.put(segment, child);
+				}
+				return child;
+			}
+
+			Node ancestorAt(int level) {
+				Node node = this;
+				while (node.depth > level) {
+					node = node.parent;
+				}
+				return node;
+			}
+		}
+	}
 }
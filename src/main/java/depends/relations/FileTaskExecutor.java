@@ -0,0 +1,62 @@
+package depends.relations;
+
+import depends.entity.Entity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Run a per-file task over all file entities, either sequentially (threads <= 1)
+ * or on a fixed thread pool. It returns only after all the tasks are finished,
+ * so it acts as a barrier between the resolving steps.
+ */
+public class FileTaskExecutor {
+	private final int threads;
+
+	public FileTaskExecutor(int threads) {
+		this.threads = threads;
+	}
+
+	public void run(Collection<Entity> files, Consumer<Entity> task, ProgressReporter progress) {
+		if (threads <= 1 || files.size() <= 1) {
+			for (Entity file : files) {
+				task.accept(file);
+				progress.step();
+			}
+			progress.done();
+			return;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>(files.size());
+			for (Entity file : files) {
+				futures.add(executor.submit(() -> {
+					task.accept(file);
+					progress.step();
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while resolving files", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IllegalStateException(cause);
+		} finally {
+			executor.shutdownNow();
+		}
+		progress.done();
+	}
+}
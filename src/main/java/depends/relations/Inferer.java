@@ -33,9 +33,14 @@ import depends.extractor.java.JavaImportLookupStrategy;
 import depends.extractor.java.JavaProcessor;
 import depends.importtypes.Import;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Inferer {
+    private static final Logger logger = LoggerFactory.getLogger(Inferer.class);
     static final public TypeEntity buildInType = new TypeEntity(GenericName.build("built-in"), null, -1);
     static final public TypeEntity genericParameterType = new TypeEntity(GenericName.build("T"), null, -3);
     private final BuiltInType buildInTypeManager;
@@ -46,26 +51,45 @@ public class Inferer {
     private final boolean eagerExpressionResolve;
     private boolean isCollectUnsolvedBindings = false;
     private boolean isDuckTypingDeduce = true;
+    private int resolveThreads = 1;
+    private NameResolutionCache nameCache;
+    private final TypeFunctionIndex typeFunctionIndex;
 
     public Inferer(EntityRepo repo, ImportLookupStrategy importLookupStrategy, BuiltInType buildInTypeManager, boolean eagerExpressionResolve) {
         this.repo = repo;
         this.importLookupStrategy = importLookupStrategy;
         this.buildInTypeManager = buildInTypeManager;
-        unsolvedSymbols = new HashSet<>();
+        unsolvedSymbols = ConcurrentHashMap.newKeySet();
         this.eagerExpressionResolve = eagerExpressionResolve;
+        this.nameCache = new NameResolutionCache(repo);
+        this.typeFunctionIndex = new TypeFunctionIndex(repo);
     }
 
     /**
      * Resolve all bindings
      * - Firstly, we resolve all types from there names.
      * - Secondly, we resolve all expressions (expression will use type infomation of previous step
+     * Both steps are done file by file. The first one is sequential, the second one runs
+     * on resolveThreads threads, and starts only after all files finished the first one.
+     * The names looked up in scopes are cached during both steps; as the types resolved
+     * in the first step change the scopes, the cache is dropped between the steps.
      */
     public Set<UnsolvedBindings> resolveAllBindings(boolean callAsImpl, Collection<Entity> entityCollection, AbstractLangProcessor langProcessor) {
-        resolveTypes(entityCollection);
-        if (langProcessor instanceof JavaProcessor) {
-            new MyRelationCounter(entityCollection, this, repo, callAsImpl, langProcessor).computeRelations();
-        } else {
-            new RelationCounter(entityCollection, this, repo, callAsImpl, langProcessor).computeRelations();
+        nameCache.setEnabled(true);
+        try {
+            resolveTypes(entityCollection);
+            nameCache.invalidate();
+            FileTaskExecutor executor = new FileTaskExecutor(resolveThreads);
+            if (langProcessor instanceof JavaProcessor) {
+                new MyRelationCounter(entityCollection, this, repo, callAsImpl, langProcessor).computeRelations(executor);
+            } else {
+                new RelationCounter(entityCollection, this, repo, callAsImpl, langProcessor).computeRelations(executor);
+            }
+        } finally {
+            nameCache.setEnabled(false);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(nameCache.toString());
         }
         System.out.println("Dependency done...");
         return unsolvedSymbols;
@@ -76,19 +100,11 @@ public class Inferer {
     }
 
     private void resolveTypes(Collection<Entity> entityCollection) {
-        int index = 0;
-        int allFilesNum = entityCollection.size();
-        for (Entity entity : entityCollection) {
-            entity.inferEntities(this);
-            index++;
-            try {
-                System.out.print("\rNumber Of Type-resolved files:[" + index + "/" + allFilesNum + "]");
-                Thread.sleep(20);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-        }
-        System.out.println();
+        // the names are looked up through the inherited/implemented types of the other files,
+        // which are resolved in this step as well, so the result depends on the order of files:
+        // keep it sequential (with eager expression resolve, so are the expressions)
+        new FileTaskExecutor(1).run(entityCollection, entity -> entity.inferEntities(this),
+                new ProgressReporter("Number Of Type-resolved files", entityCollection.size()));
     }
 
     /**
@@ -236,6 +252,10 @@ public class Inferer {
                     return parentType;
             }
         }
+        return nameCache.get(fromEntity, name, searchImport, () -> lookupEntityInScopes(fromEntity, name, searchImport));
+    }
+
+    private Entity lookupEntityInScopes(Entity fromEntity, String name, boolean searchImport) {
         Entity inferData = findEntityUnderSamePackage(fromEntity, name);
         if (inferData != null) {
             return inferData;
@@ -325,21 +345,12 @@ public class Inferer {
         return searchTypesInRepo(functionCalls);
     }
 
+    /**
+     * The declared types having all the called functions, in the order of files
+     * (answered by the function name index, which follows the changes of the repo)
+     */
     private List<TypeEntity> searchTypesInRepo(List<FunctionCall> functionCalls) {
-        List<TypeEntity> types = new ArrayList<>();
-        Iterator<Entity> iterator = repo.sortedFileIterator();
-        while (iterator.hasNext()) {
-            Entity f = iterator.next();
-            if (f instanceof FileEntity) {
-                for (TypeEntity type : ((FileEntity) f).getDeclaredTypes()) {
-                    FunctionMatcher functionMatcher = new FunctionMatcher(type.getFunctions());
-                    if (functionMatcher.containsAll(functionCalls)) {
-                        types.add(type);
-                    }
-                }
-            }
-        }
-        return types;
+        return typeFunctionIndex.typesContainingAll(functionCalls);
     }
 
     public boolean isEagerExpressionResolve() {
@@ -358,6 +369,44 @@ public class Inferer {
         this.isDuckTypingDeduce = isDuckTypingDeduce;
     }
 
+    /**
+     * The number of threads used to resolve files. 1 (default) means sequential resolving.
+     * More than one thread requires a thread-safe entity repo.
+     */
+    public void setResolveThreads(int resolveThreads) {
+        this.resolveThreads = resolveThreads;
+    }
+
+    /**
+     * The max number of names cached during resolving, 0 disables the cache
+     */
+    public void setNameCacheSize(int nameCacheSize) {
+        this.nameCache = new NameResolutionCache(repo, nameCacheSize);
+    }
+
+    public NameResolutionCache getNameCache() {
+        return nameCache;
+    }
+
+    /**
+     * Called when a scope (imports, inherited types etc.) is resolved, so that the names
+     * looked up before from the file of the scope (or through the scope, see addInheritedScopes)
+     * are looked up again
+     */
+    public void invalidateNameCache(Entity scope) {
+        nameCache.invalidate(scope);
+    }
+
+    /**
+     * Called when the inherited/implemented types of a type are resolved: the names looked up
+     * from the type go through them, so they are looked up again when those types change
+     */
+    public void addInheritedScopes(Entity scope, Collection<? extends Entity> inheritedScopes) {
+        for (Entity inheritedScope : inheritedScopes) {
+            nameCache.addInheritingScope(inheritedScope, scope);
+        }
+    }
+
     public BuiltInType getBuildInTypeManager() {
         return buildInTypeManager;
     }
@@ -51,19 +51,12 @@ public class MyRelationCounter {
     }
 
     public void computeRelations() {
-        int index = 0;
-        int allEntitiesNum = entities.size();
-        for (Entity entity : entities) {
-            computeRelationOf(entity);
-            index++;
-            try {
-                System.out.print("\rNumber Of Binding-resolved files:[" + index + "/" + allEntitiesNum + "]");
-                Thread.sleep(20);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-        }
-        System.out.println();
+        computeRelations(new FileTaskExecutor(1));
+    }
+
+    public void computeRelations(FileTaskExecutor executor) {
+        executor.run(entities, this::computeRelationOf,
+                new ProgressReporter("Number Of Binding-resolved files", entities.size()));
     }
 
     private void computeRelationOf(Entity entity) {
@@ -0,0 +1,246 @@
+package depends.relations;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import depends.entity.Entity;
+import depends.entity.FileEntity;
+import depends.entity.repo.EntityRepo;
+
+/**
+ * Memoized results of the scope/import lookup of {@link Inferer}, keyed by
+ * (container id, name, searchImport), and of the lookups in the imports of a file. The names which could not be found are cached too.
+ *
+ * The result of a lookup depends on the files of the repo, and on the scopes resolved
+ * during the type-resolving step (imports, inherited types, implemented prototypes).
+ * The names are cached apart per file of the container: a resolved scope drops the names
+ * looked up from its file, and from the files of the scopes looking names up through it
+ * (e.g. the subtypes of a type, declared in other files, see addInheritingScope).
+ * All names are dropped when a file is added to or removed from the repo (e.g. the files of a commit).
+ * The other changes of the repo (e.g. the candidate types added while the relations are computed)
+ * keep the cache.
+ * It is only used while it is enabled (during the resolving steps).
+ */
+public class NameResolutionCache {
+	public static final int DEFAULT_MAX_SIZE = 1 << 20;
+	private static final Object NOT_FOUND = new Object();
+	private static final int NO_FILE = Integer.MIN_VALUE;
+
+	private final EntityRepo repo;
+	private final int maxSize;
+	/* file id of the container (NO_FILE if it is not in a file) -> the cached names */
+	private final ConcurrentHashMap<Integer, ConcurrentHashMap<Key, Object>> partitions = new ConcurrentHashMap<>();
+	/* scope id -> the scopes looking names up through it, e.g. the subtypes of a type */
+	private final ConcurrentHashMap<Integer, Set<Entity>> inheritingScopes = new ConcurrentHashMap<>();
+	/* the number of the cached names, checked against maxSize */
+	private final AtomicInteger size = new AtomicInteger();
+	private volatile long repoVersion = -1;
+	private volatile boolean enabled = false;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+
+	public NameResolutionCache(EntityRepo repo) {
+		this(repo, DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * @param maxSize the max number of cached names; when it is reached, all cached names are evicted.
+	 *                0 disables the cache.
+	 */
+	public NameResolutionCache(EntityRepo repo, int maxSize) {
+		this.repo = repo;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * The cached result of the lookup, or the result of the lookup (which is cached then)
+	 */
+	public Entity get(Entity fromEntity, String name, boolean searchImport, Supplier<Entity> lookup) {
+		return get(fromEntity, name, searchImport ? Key.SCOPES_AND_IMPORTS : Key.SCOPES, lookup);
+	}
+
+	/**
+	 * The cached result of the lookup of a name in the imports of a file only
+	 * (e.g. in the headers included by a C++ translation unit)
+	 */
+	public Entity getImported(Entity file, String name, Supplier<Entity> lookup) {
+		return get(file, name, Key.IMPORTS, lookup);
+	}
+
+	private Entity get(Entity fromEntity, String name, int kind, Supplier<Entity> lookup) {
+		if (!enabled || maxSize <= 0 || fromEntity.getId() == null)
+			return lookup.get();
+		long version = repo.getFileModificationCount();
+		if (version != repoVersion) {
+			invalidate();
+			repoVersion = version;
+		}
+		Integer fileId = fileIdOf(fromEntity);
+		ConcurrentHashMap<Key, Object> results = partitions.computeIfAbsent(fileId, id -> new ConcurrentHashMap<>());
+		Key key = new Key(fromEntity.getId(), name, kind);
+		Object cached = results.get(key);
+		if (cached != null) {
+			hits.increment();
+			return cached == NOT_FOUND ? null : (Entity) cached;
+		}
+		misses.increment();
+		Entity entity = lookup.get();
+		// the lookup was done against a scope which has changed in between, do not keep it
+		if (repo.getFileModificationCount() != version || partitions.get(fileId) != results)
+			return entity;
+		if (size.get() >= maxSize) {
+			evictions.add(clear());
+			results = partitions.computeIfAbsent(fileId, id -> new ConcurrentHashMap<>());
+		}
+		if (results.put(key, entity == null ? NOT_FOUND : entity) == null)
+			size.incrementAndGet();
+		return entity;
+	}
+
+	/**
+	 * Drop all cached names, e.g. between the resolving steps
+	 */
+	public void invalidate() {
+		if (clear() > 0)
+			invalidations.increment();
+	}
+
+	/**
+	 * Drop the names looked up from the file of the scope, because the scope was changed
+	 * (e.g. the imports of the file or the inherited types of a type were resolved),
+	 * and the names looked up from the files of the scopes inheriting it (transitively)
+	 */
+	public void invalidate(Entity scope) {
+		Set<Integer> fileIds = new HashSet<>();
+		Set<Entity> visited = new HashSet<>();
+		Deque<Entity> scopes = new ArrayDeque<>();
+		scopes.add(scope);
+		visited.add(scope);
+		while (!scopes.isEmpty()) {
+			Entity changed = scopes.poll();
+			fileIds.add(fileIdOf(changed));
+			Set<Entity> inheriting = changed.getId() == null ? null : inheritingScopes.get(changed.getId());
+			if (inheriting == null)
+				continue;
+			for (Entity child : inheriting) {
+				if (visited.add(child))
+					scopes.add(child);
+			}
+		}
+		int removed = 0;
+		for (Integer fileId : fileIds) {
+			ConcurrentHashMap<Key, Object> results = partitions.remove(fileId);
+			if (results != null)
+				removed += results.size();
+		}
+		if (removed == 0)
+			return;
+		size.addAndGet(-removed);
+		invalidations.increment();
+	}
+
+	/**
+	 * The names of the scope are looked up through the inherited scope as well (e.g. a subtype
+	 * through its inherited and implemented types), so they are dropped when the inherited scope changes
+	 */
+	public void addInheritingScope(Entity inheritedScope, Entity scope) {
+		if (inheritedScope.getId() == null)
+			return;
+		inheritingScopes.computeIfAbsent(inheritedScope.getId(), id -> ConcurrentHashMap.newKeySet()).add(scope);
+	}
+
+	private int clear() {
+		int cleared = 0;
+		for (Integer fileId : partitions.keySet()) {
+			ConcurrentHashMap<Key, Object> results = partitions.remove(fileId);
+			if (results != null)
+				cleared += results.size();
+		}
+		// the names put meanwhile are not counted
+		size.set(0);
+		return cleared;
+	}
+
+	private static Integer fileIdOf(Entity entity) {
+		Entity file = entity.getAncestorOfType(FileEntity.class);
+		if (file == null || file.getId() == null)
+			return NO_FILE;
+		return file.getId();
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		invalidate();
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	public long getInvalidations() {
+		return invalidations.sum();
+	}
+
+	public int size() {
+		int count = 0;
+		for (ConcurrentHashMap<Key, Object> results : partitions.values()) {
+			count += results.size();
+		}
+		return count;
+	}
+
+	@Override
+	public String toString() {
+		return "Name resolution cache: " + getHits() + " hits, " + getMisses() + " misses, "
+				+ getEvictions() + " evicted, " + getInvalidations() + " invalidations";
+	}
+
+	private static final class Key {
+		static final int SCOPES = 0;
+		static final int SCOPES_AND_IMPORTS = 1;
+		static final int IMPORTS = 2;
+		private final int containerId;
+		private final String name;
+		private final int kind;
+		private final int hash;
+
+		Key(int containerId, String name, int kind) {
+			this.containerId = containerId;
+			this.name = name;
+			this.kind = kind;
+			this.hash = Objects.hash(containerId, name, kind);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) return true;
+			if (!(obj instanceof Key)) return false;
+			Key other = (Key) obj;
+			return containerId == other.containerId && kind == other.kind
+					&& name.equals(other.name);
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package depends.relations;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Console progress counter of the resolving steps.
+ * It can be stepped from any thread: the counter never blocks, and the line is
+ * re-printed at most once per interval (the final count is always printed by done()).
+ */
+public class ProgressReporter {
+	private static final long DEFAULT_INTERVAL_MS = 200;
+
+	private final String title;
+	private final int total;
+	private final long intervalNanos;
+	private final AtomicInteger finished = new AtomicInteger(0);
+	private final AtomicLong lastPrinted;
+
+	public ProgressReporter(String title, int total) {
+		this(title, total, DEFAULT_INTERVAL_MS);
+	}
+
+	public ProgressReporter(String title, int total, long intervalMs) {
+		this.title = title;
+		this.total = total;
+		this.intervalNanos = intervalMs * 1_000_000L;
+		this.lastPrinted = new AtomicLong(System.nanoTime() - intervalNanos);
+	}
+
+	public void step() {
+		int index = finished.incrementAndGet();
+		long now = System.nanoTime();
+		long last = lastPrinted.get();
+		if (now - last < intervalNanos)
+			return;
+		// only the thread winning the race prints, the others just go on
+		if (lastPrinted.compareAndSet(last, now)) {
+			print(index);
+		}
+	}
+
+	public void done() {
+		print(finished.get());
+		System.out.println();
+	}
+
+	public int getFinished() {
+		return finished.get();
+	}
+
+	private void print(int index) {
+		System.out.print("\r" + title + ":[" + index + "/" + total + "]");
+	}
+}
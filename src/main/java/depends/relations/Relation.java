@@ -27,10 +27,12 @@ package depends.relations;
 import depends.entity.Entity;
 import depends.entity.Location;
 
+import java.io.Serializable;
+
 /**
  * Dependency relation object
  */
-public class Relation {
+public class Relation implements Serializable {
 	/*Where the relation happen in src*/
 	private Location location;
 	private String type;
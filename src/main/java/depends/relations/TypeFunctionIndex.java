@@ -0,0 +1,239 @@
+package depends.relations;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import depends.entity.Entity;
+import depends.entity.FileEntity;
+import depends.entity.FunctionCall;
+import depends.entity.FunctionEntity;
+import depends.entity.GenericName;
+import depends.entity.TypeEntity;
+import depends.entity.repo.EntityRepo;
+
+/**
+ * Inverted index from function name to the declared types having a function of the name,
+ * used to deduce the candidate types of a variable from the functions called on it.
+ *
+ * Every declared type (of every file in the repo) has an ordinal, and the types of a name
+ * are a bitset of ordinals, so that the types having all the called functions are the
+ * intersection of the bitsets. The index follows the repo file by file: when a file is
+ * added to or removed from the repo, the types of the removed files are dropped, and the types
+ * of the new files (or of the files whose types/functions changed) are indexed. The other changes
+ * of the repo (e.g. the candidate types or the multi-declare entities added while resolving)
+ * do not touch the declared types, so they do not cause a rescan.
+ * The lookups share a read lock, so they run in parallel between the changes of the files.
+ * The result is the same as matching every declared type in the order of files.
+ */
+public class TypeFunctionIndex {
+	private final EntityRepo repo;
+	private volatile long repoVersion = -1;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final Map<GenericName, BitSet> typesByFunctionName = new HashMap<>();
+	/* by ordinal */
+	private final List<TypeEntity> types = new ArrayList<>();
+	private final List<Set<GenericName>> functionNames = new ArrayList<>();
+	/* the number of functions of the type when it was indexed, to detect the changed types */
+	private final List<Integer> functionCounts = new ArrayList<>();
+	/* the position of the type in the order of files and declared types */
+	private int[] ranks = new int[0];
+	private final BitSet usedOrdinals = new BitSet();
+	private final Map<Integer, IndexedFile> files = new HashMap<>();
+
+	private static class IndexedFile {
+		final FileEntity file;
+		final int[] ordinals;
+
+		IndexedFile(FileEntity file, int[] ordinals) {
+			this.file = file;
+			this.ordinals = ordinals;
+		}
+	}
+
+	public TypeFunctionIndex(EntityRepo repo) {
+		this.repo = repo;
+	}
+
+	/**
+	 * All declared types which have functions of all the given names,
+	 * in the order of files and declared types of each file
+	 */
+	public List<TypeEntity> typesContainingAll(List<FunctionCall> functionCalls) {
+		syncIfChanged();
+		lock.readLock().lock();
+		try {
+			return typesContainingAllOf(functionCalls);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private List<TypeEntity> typesContainingAllOf(List<FunctionCall> functionCalls) {
+		BitSet matched = null;
+		for (FunctionCall functionCall : functionCalls) {
+			BitSet typesOfName = typesByFunctionName.get(functionCall.getRawName());
+			if (typesOfName == null)
+				return new ArrayList<>();
+			if (matched == null) {
+				matched = (BitSet) typesOfName.clone();
+			} else {
+				matched.and(typesOfName);
+			}
+			if (matched.isEmpty())
+				return new ArrayList<>();
+		}
+		if (matched == null)
+			matched = usedOrdinals;
+		List<Integer> ordinals = new ArrayList<>(matched.cardinality());
+		for (int ordinal = matched.nextSetBit(0); ordinal >= 0; ordinal = matched.nextSetBit(ordinal + 1)) {
+			ordinals.add(ordinal);
+		}
+		ordinals.sort((a, b) -> Integer.compare(ranks[a], ranks[b]));
+		List<TypeEntity> result = new ArrayList<>(ordinals.size());
+		for (Integer ordinal : ordinals) {
+			result.add(types.get(ordinal));
+		}
+		return result;
+	}
+
+	public int size() {
+		syncIfChanged();
+		lock.readLock().lock();
+		try {
+			return usedOrdinals.cardinality();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void syncIfChanged() {
+		if (repo.getFileModificationCount() == repoVersion)
+			return;
+		lock.writeLock().lock();
+		try {
+			sync();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Bring the index up to date with the files of the repo
+	 */
+	private void sync() {
+		long version = repo.getFileModificationCount();
+		if (version == repoVersion)
+			return;
+		Set<Integer> present = new HashSet<>();
+		int rank = 0;
+		Iterator<Entity> iterator = repo.sortedFileIterator();
+		while (iterator.hasNext()) {
+			Entity entity = iterator.next();
+			if (!(entity instanceof FileEntity))
+				continue;
+			FileEntity file = (FileEntity) entity;
+			present.add(file.getId());
+			IndexedFile indexed = files.get(file.getId());
+			if (indexed != null && (indexed.file != file || isChanged(indexed))) {
+				removeFile(indexed);
+				indexed = null;
+			}
+			if (indexed == null) {
+				indexed = addFile(file);
+			}
+			for (int ordinal : indexed.ordinals) {
+				ranks[ordinal] = rank++;
+			}
+		}
+		Iterator<IndexedFile> indexedFiles = files.values().iterator();
+		while (indexedFiles.hasNext()) {
+			IndexedFile indexed = indexedFiles.next();
+			if (present.contains(indexed.file.getId()))
+				continue;
+			clearOrdinals(indexed);
+			indexedFiles.remove();
+		}
+		repoVersion = version;
+	}
+
+	private boolean isChanged(IndexedFile indexed) {
+		List<TypeEntity> declaredTypes = indexed.file.getDeclaredTypes();
+		if (declaredTypes.size() != indexed.ordinals.length)
+			return true;
+		for (int i = 0; i < indexed.ordinals.length; i++) {
+			int ordinal = indexed.ordinals[i];
+			if (types.get(ordinal) != declaredTypes.get(i))
+				return true;
+			if (functionCounts.get(ordinal) != declaredTypes.get(i).getFunctions().size())
+				return true;
+		}
+		return false;
+	}
+
+	private IndexedFile addFile(FileEntity file) {
+		List<TypeEntity> declaredTypes = file.getDeclaredTypes();
+		int[] ordinals = new int[declaredTypes.size()];
+		for (int i = 0; i < ordinals.length; i++) {
+			ordinals[i] = addType(declaredTypes.get(i));
+		}
+		IndexedFile indexed = new IndexedFile(file, ordinals);
+		files.put(file.getId(), indexed);
+		return indexed;
+	}
+
+	private int addType(TypeEntity type) {
+		int ordinal = usedOrdinals.nextClearBit(0);
+		usedOrdinals.set(ordinal);
+		Set<GenericName> names = new HashSet<>();
+		List<FunctionEntity> functions = type.getFunctions();
+		for (FunctionEntity function : functions) {
+			names.add(function.getRawName());
+		}
+		for (GenericName name : names) {
+			typesByFunctionName.computeIfAbsent(name, key -> new BitSet()).set(ordinal);
+		}
+		if (ordinal == types.size()) {
+			types.add(type);
+			functionNames.add(names);
+			functionCounts.add(functions.size());
+		} else {
+			types.set(ordinal, type);
+			functionNames.set(ordinal, names);
+			functionCounts.set(ordinal, functions.size());
+		}
+		if (ordinal >= ranks.length) {
+			int[] newRanks = new int[Math.max(16, ranks.length * 2)];
+			System.arraycopy(ranks, 0, newRanks, 0, ranks.length);
+			ranks = newRanks;
+		}
+		return ordinal;
+	}
+
+	private void removeFile(IndexedFile indexed) {
+		clearOrdinals(indexed);
+		files.remove(indexed.file.getId());
+	}
+
+	private void clearOrdinals(IndexedFile indexed) {
+		for (int ordinal : indexed.ordinals) {
+			for (GenericName name : functionNames.get(ordinal)) {
+				BitSet typesOfName = typesByFunctionName.get(name);
+				typesOfName.clear(ordinal);
+				if (typesOfName.isEmpty())
+					typesByFunctionName.remove(name);
+			}
+			types.set(ordinal, null);
+			functionNames.set(ordinal, null);
+			usedOrdinals.clear(ordinal);
+		}
+	}
+}
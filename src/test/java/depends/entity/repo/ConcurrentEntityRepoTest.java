@@ -0,0 +1,55 @@
+package depends.entity.repo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import depends.entity.Entity;
+import depends.entity.GenericName;
+import depends.entity.MultiDeclareEntities;
+import depends.entity.PackageEntity;
+
+public class ConcurrentEntityRepoTest {
+
+	@Test
+	public void test_same_name_entities_added_concurrently_should_be_merged() throws InterruptedException {
+		ConcurrentEntityRepo repo = new ConcurrentEntityRepo();
+		int count = 1000;
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < count; i++) {
+			executor.submit(() -> repo.add(new PackageEntity("a.b", repo.generateId())));
+		}
+		executor.shutdown();
+		executor.awaitTermination(1, TimeUnit.MINUTES);
+		Entity entity = repo.getEntity("a.b");
+		assertTrue(entity instanceof MultiDeclareEntities);
+		assertEquals(count, ((MultiDeclareEntities) entity).getEntities().size());
+		assertEquals(count, repo.getAllEntities().size());
+	}
+
+	@Test
+	public void test_entities_should_be_iterated_in_id_order() {
+		ConcurrentEntityRepo repo = new ConcurrentEntityRepo();
+		List<Integer> ids = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			Entity entity = new PackageEntity("p" + i, repo.generateId());
+			ids.add(entity.getId());
+			repo.add(entity);
+		}
+		List<Integer> iterated = new ArrayList<>();
+		Iterator<Entity> iterator = repo.entityIterator();
+		while (iterator.hasNext()) {
+			iterated.add(iterator.next().getId());
+		}
+		assertEquals(ids, iterated);
+		assertEquals("p42", repo.getEntity(GenericName.build("p42")).getQualifiedName());
+	}
+}
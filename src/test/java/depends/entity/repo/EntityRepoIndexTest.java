@@ -0,0 +1,60 @@
+package depends.entity.repo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import depends.entity.Entity;
+import depends.entity.FileEntity;
+import depends.entity.PackageEntity;
+
+public class EntityRepoIndexTest {
+
+	private void checkPackageIndex(EntityRepo repo) {
+		Entity first = new PackageEntity("a.b", repo.generateId());
+		Entity second = new PackageEntity("a.b", repo.generateId());
+		repo.add(second);
+		repo.add(first);
+		repo.add(new PackageEntity("a.c", repo.generateId()));
+		List<Entity> packages = new ArrayList<>(repo.getPackageEntities("a.b"));
+		assertEquals(2, packages.size());
+		assertSame(first, packages.get(0));
+		assertSame(second, packages.get(1));
+
+		repo.removeEntity(first);
+		assertEquals(1, repo.getPackageEntities("a.b").size());
+		assertEquals(0, repo.getPackageEntities("a.d").size());
+	}
+
+	private void checkFileIndex(EntityRepo repo) {
+		FileEntity file = new FileEntity("/snapshot/a/A.java", repo.generateId());
+		repo.add(file);
+		repo.addFile(file);
+		assertSame(file, repo.getFileEntityByPath("/snapshot/a/./A.java"));
+
+		repo.updateEntityPath(file, "/project/a/A.java");
+		assertNull(repo.getFileEntityByPath("/snapshot/a/A.java"));
+		assertSame(file, repo.getFileEntityByPath("/project/a/A.java"));
+
+		repo.removeEntity(file);
+		assertNull(repo.getFileEntityByPath("/project/a/A.java"));
+		assertEquals(0, repo.getFileEntities().size());
+	}
+
+	@Test
+	public void test_packages_should_be_indexed_by_name() {
+		checkPackageIndex(new InMemoryEntityRepo());
+		checkPackageIndex(new ConcurrentEntityRepo());
+	}
+
+	@Test
+	public void test_files_should_be_indexed_by_path() {
+		checkFileIndex(new InMemoryEntityRepo());
+		checkFileIndex(new ConcurrentEntityRepo());
+	}
+}
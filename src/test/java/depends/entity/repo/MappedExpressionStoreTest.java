@@ -0,0 +1,141 @@
+package depends.entity.repo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import depends.entity.Expression;
+import depends.entity.GenericName;
+
+public class MappedExpressionStoreTest {
+
+	private ArrayList<Expression> buildExpressions() {
+		Expression parent = new Expression(1);
+		parent.setText("a.foo(b)");
+		parent.setCall(true);
+		parent.setIdentifier("foo");
+		parent.setStartLine(3);
+		Expression child = new Expression(2);
+		child.setText("a");
+		child.setDot(true);
+		child.setRawType(GenericName.build("List", Arrays.asList(GenericName.build("String"))));
+		child.setParent(parent);
+		parent.addChild(child);
+		return new ArrayList<>(Arrays.asList(parent, child));
+	}
+
+	@Test
+	public void test_expressions_should_be_reloaded_with_same_fields() {
+		// a tiny segment size, so that records cross the segments
+		MappedExpressionStore store = new MappedExpressionStore(16);
+		store.save(100, buildExpressions());
+		ArrayList<Expression> reloaded = store.load(100);
+		assertEquals(2, reloaded.size());
+		Expression parent = reloaded.get(0);
+		Expression child = reloaded.get(1);
+		child.reload(new InMemoryEntityRepo(), reloaded);
+		assertTrue(parent.isCall());
+		assertEquals("foo", parent.getIdentifier().getName());
+		assertEquals(Integer.valueOf(3), parent.getLocation().getStartLine());
+		assertEquals(Integer.valueOf(2), parent.getDeduceTypeBasedId());
+		assertTrue(child.isDot());
+		assertEquals("String", child.getRawType().getArguments().get(0).getName());
+		assertSame(parent, child.getParent());
+		assertSame(child, parent.getChildren().get(0));
+		store.close();
+	}
+
+	@Test
+	public void test_latest_save_should_win() {
+		MappedExpressionStore store = new MappedExpressionStore();
+		store.save(1, buildExpressions());
+		store.save(1, new ArrayList<>(Arrays.asList(new Expression(7))));
+		assertEquals(1, store.load(1).size());
+		assertEquals(Integer.valueOf(7), store.load(1).get(0).id);
+		assertNull(store.load(2));
+		store.close();
+	}
+
+	@Test
+	public void test_saving_again_should_reuse_the_slots() {
+		MappedExpressionStore store = new MappedExpressionStore(64);
+		store.save(1, buildExpressions());
+		long size = store.size();
+		// it fits in its own slot
+		store.save(1, new ArrayList<>(Arrays.asList(new Expression(7))));
+		store.save(1, buildExpressions());
+		assertEquals(size, store.size());
+		assertEquals(0, store.freeBytes());
+
+		store.save(2, new ArrayList<>(Arrays.asList(new Expression(7))));
+		ArrayList<Expression> larger = buildExpressions();
+		larger.addAll(buildExpressions());
+		store.save(2, larger);
+		assertTrue(store.freeBytes() > 0);
+		size = store.size();
+		// the slot freed by the entity 2 is taken by the next record it could hold
+		store.save(3, new ArrayList<>(Arrays.asList(new Expression(8))));
+		assertEquals(size, store.size());
+		assertEquals(0, store.freeBytes());
+		assertEquals(2, store.load(1).size());
+		assertEquals(4, store.load(2).size());
+		assertEquals(Integer.valueOf(8), store.load(3).get(0).id);
+		store.close();
+	}
+
+	@Test
+	public void test_listed_children_of_inline_children_should_be_reloaded() {
+		Expression parent = new Expression(1);
+		Expression inline = new Expression(2);
+		Expression listed = new Expression(3);
+		Expression other = new Expression(4);
+		// inline is not in the list, so it is written within its parent
+		parent.addChild(other);
+		parent.addChild(inline);
+		inline.addChild(listed);
+		MappedExpressionStore store = new MappedExpressionStore();
+		store.save(1, new ArrayList<>(Arrays.asList(parent, listed, other)));
+		ArrayList<Expression> reloaded = store.load(1);
+		assertEquals(3, reloaded.size());
+		Expression reloadedParent = reloaded.get(0);
+		// in the same order as before
+		assertEquals(2, reloadedParent.getChildren().size());
+		assertSame(reloaded.get(2), reloadedParent.getChildren().get(0));
+		Expression reloadedInline = reloadedParent.getChildren().get(1);
+		assertEquals(Integer.valueOf(2), reloadedInline.id);
+		assertEquals(1, reloadedInline.getChildren().size());
+		assertSame(reloaded.get(1), reloadedInline.getChildren().get(0));
+		store.close();
+	}
+
+	@Test
+	public void test_missing_child_should_fail_to_be_read() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			Expression.writeExpressions(buildExpressions(), out);
+		}
+		byte[] data = bytes.toByteArray();
+		// only the parent is read, its child is written by id
+		ByteBuffer.wrap(data).putInt(0, 1);
+		try {
+			Expression.readExpressions(new DataInputStream(new ByteArrayInputStream(data)));
+			fail("a child of unknown id should not be read as null");
+		} catch (StreamCorruptedException e) {
+			// expected
+		}
+	}
+}
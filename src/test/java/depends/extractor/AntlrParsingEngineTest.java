@@ -0,0 +1,69 @@
+package depends.extractor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.After;
+import org.junit.Test;
+
+import depends.extractor.java.JavaLexer;
+import depends.extractor.java.JavaParser;
+
+public class AntlrParsingEngineTest {
+	private AntlrParsingEngine engine = AntlrParsingEngine.getInstance();
+
+	@After
+	public void tearDown() {
+		engine.setMaxDfaStates(AntlrParsingEngine.DEFAULT_MAX_DFA_STATES);
+	}
+
+	private JavaParser parser(String code) {
+		JavaParser parser = new JavaParser(new CommonTokenStream(new JavaLexer(CharStreams.fromString(code))));
+		parser.removeErrorListeners();
+		return parser;
+	}
+
+	private String parseByLL(String code) {
+		JavaParser parser = parser(code);
+		return parser.compilationUnit().toStringTree(parser);
+	}
+
+	@Test
+	public void test_valid_file_should_be_parsed_by_sll_only() {
+		long sll = engine.getSllParses();
+		long ll = engine.getLlParses();
+		String code = "package a; class A { int f(int x) { return x > 0 ? f(x - 1) : (int) 0L; } }";
+		JavaParser parser = parser(code);
+		ParseTree tree = engine.parse(parser, JavaParser::compilationUnit);
+		assertEquals(parseByLL(code), tree.toStringTree(parser));
+		assertEquals(sll + 1, engine.getSllParses());
+		assertEquals(ll, engine.getLlParses());
+	}
+
+	@Test
+	public void test_invalid_file_should_fall_back_to_ll_with_recovery() {
+		long ll = engine.getLlParses();
+		String code = "class A { void f() { int x = ; } void g() {} }";
+		JavaParser parser = parser(code);
+		ParseTree tree = engine.parse(parser, JavaParser::compilationUnit);
+		assertEquals(parseByLL(code), tree.toStringTree(parser));
+		assertEquals(ll + 1, engine.getLlParses());
+		assertTrue(tree.getText().contains("voidg()"));
+	}
+
+	@Test
+	public void test_dfa_should_be_reset_when_it_grows_over_the_bound() {
+		engine.setMaxDfaStates(0);
+		long resets = engine.getDfaResets();
+		String code = "class A { void f() { g(1, 2); } }";
+		String expected = parseByLL(code);
+		for (int i = 0; i < 128; i++) {
+			JavaParser parser = parser(code);
+			assertEquals(expected, engine.parse(parser, JavaParser::compilationUnit).toStringTree(parser));
+		}
+		assertTrue(engine.getDfaResets() > resets);
+	}
+}
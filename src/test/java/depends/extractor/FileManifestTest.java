@@ -0,0 +1,76 @@
+package depends.extractor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import multilang.depends.util.file.FileTraversal;
+import multilang.depends.util.file.FileUtil;
+import multilang.depends.util.file.FolderCollector;
+
+public class FileManifestTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	private String project;
+
+	@Before
+	public void setUp() throws IOException {
+		project = FileUtil.uniqFilePath(folder.newFolder("project").getPath());
+		for (String file : Arrays.asList("a.java", "B.JAVA", "readme.md", "src/c.java", "src/sub/d.java",
+				"src/sub/e.txt", "test/t.java", "test/data/f.java", "empty/.keep")) {
+			create(new File(project, file));
+		}
+		create(new File(folder.getRoot(), "lib/g.java"));
+	}
+
+	private void create(File file) throws IOException {
+		file.getParentFile().mkdirs();
+		file.createNewFile();
+	}
+
+	@Test
+	public void test_folders_should_be_the_same_as_folder_collector() {
+		FileManifest manifest = FileManifest.discover(project, null);
+		assertEquals(new FolderCollector().getFolders(project), manifest.getFolders());
+	}
+
+	@Test
+	public void test_source_files_should_be_the_same_as_file_traversal() {
+		List<String> excludePaths = Collections.singletonList(new File(project, "test").getPath());
+		List<String> expected = new ArrayList<>();
+		FileTraversal traversal = new FileTraversal(file -> expected.add(FileUtil.uniqFilePath(file.getAbsolutePath())));
+		traversal.extensionFilter(new String[] {".java"});
+		traversal.setExcludePaths(excludePaths);
+		traversal.travers(project);
+
+		FileManifest manifest = FileManifest.discover(project, null);
+		List<String> files = manifest.getSourceFiles(new String[] {".java"}, excludePaths);
+		assertEquals(expected, files);
+		assertEquals(4, files.size());
+		assertEquals(6, manifest.getSourceFiles(new String[] {".java"}, new ArrayList<>()).size());
+	}
+
+	@Test
+	public void test_include_paths_out_of_project_should_be_indexed() {
+		String lib = new File(folder.getRoot(), "lib").getPath();
+		FileManifest manifest = FileManifest.discover(project, Collections.singletonList(lib));
+		assertTrue(manifest.covers(project, Collections.singletonList(lib)));
+		assertTrue(manifest.getPathIndex().isIndexed(lib + "/g.java"));
+		assertTrue(manifest.getPathIndex().exists(lib + "/g.java"));
+		// only the files of the project are parsed
+		assertFalse(manifest.getSourceFiles(new String[] {".java"}, null).contains(FileUtil.uniqFilePath(lib + "/g.java")));
+		assertFalse(FileManifest.discover(project, null).covers(project, Collections.singletonList(lib)));
+	}
+}
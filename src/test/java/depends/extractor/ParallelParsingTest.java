@@ -0,0 +1,54 @@
+package depends.extractor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import depends.entity.Entity;
+import depends.extractor.java.JavaProcessor;
+import depends.extractor.python.union.PythonProcessor;
+import depends.relations.Relation;
+import multilang.depends.util.file.FileUtil;
+
+public class ParallelParsingTest {
+	/* ids, names, parents and relations of all entities, in id order */
+	private List<String> build(Supplier<AbstractLangProcessor> processorCreator, String projectPath, int parseThreads) {
+		AbstractLangProcessor processor = processorCreator.get();
+		processor.initial(FileUtil.uniqFilePath(projectPath), new ArrayList<>(), new ArrayList<>(), false, false, false);
+		processor.setParseThreads(parseThreads);
+		processor.buildDependenciesForInitialVersion();
+		List<String> result = new ArrayList<>();
+		Iterator<Entity> it = processor.getEntityRepo().entityIterator();
+		while (it.hasNext()) {
+			Entity entity = it.next();
+			result.add(entity.getId() + " " + entity.getClass().getSimpleName() + ":" + entity.getQualifiedName()
+					+ "<" + (entity.getParent() == null ? "" : entity.getParent().getQualifiedName()));
+			for (Relation relation : entity.getRelations()) {
+				result.add("  " + relation.getType() + " " + relation.getEntity().getQualifiedName());
+			}
+		}
+		return result;
+	}
+
+	private void assertSameAsSequential(Supplier<AbstractLangProcessor> processorCreator, String projectPath) {
+		List<String> sequential = build(processorCreator, projectPath, 1);
+		assertTrue(sequential.size() > 0);
+		assertEquals(sequential, build(processorCreator, projectPath, 4));
+	}
+
+	@Test
+	public void test_java_files_parsed_in_parallel_should_be_the_same_as_sequential() {
+		assertSameAsSequential(JavaProcessor::new, "./src/test/resources/java-code-examples");
+	}
+
+	@Test
+	public void test_python_files_parsed_in_parallel_should_be_the_same_as_sequential() {
+		assertSameAsSequential(PythonProcessor::new, "./src/test/resources/python-code-examples");
+	}
+}
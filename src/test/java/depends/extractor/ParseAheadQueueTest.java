@@ -0,0 +1,129 @@
+package depends.extractor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ParseAheadQueueTest {
+	private final List<ParseAheadQueue<String>> queues = new ArrayList<>();
+
+	/* the tree of a file is its name, the imports are given */
+	private class FakeQueue extends ParseAheadQueue<String> {
+		final Map<String, List<String>> imports = new HashMap<>();
+		final AtomicInteger parsed = new AtomicInteger();
+
+		FakeQueue(int maxPendingTrees) {
+			super("fake-parse-worker", 2, maxPendingTrees);
+			queues.add(this);
+		}
+
+		@Override
+		protected String parseTree(String fileFullPath) {
+			parsed.incrementAndGet();
+			return fileFullPath;
+		}
+
+		@Override
+		protected void scanImports(String fileFullPath, String tree) {
+			for (String file : imports.getOrDefault(fileFullPath, Collections.emptyList())) {
+				enqueue(file);
+			}
+		}
+	}
+
+	@After
+	public void tearDown() {
+		for (ParseAheadQueue<String> queue : queues) {
+			queue.shutdown();
+		}
+	}
+
+	@Test
+	public void test_imports_should_be_parsed_ahead_transitively() {
+		FakeQueue queue = new FakeQueue(ParseAheadQueue.DEFAULT_MAX_PENDING_TREES);
+		queue.imports.put("a", Arrays.asList("b", "a"));
+		queue.imports.put("b", Arrays.asList("c"));
+		queue.enqueueImportsOf("a", "a");
+		assertEquals("b", queue.take("b"));
+		assertEquals("c", queue.take("c"));
+		// taken already, or parsed by the caller
+		assertNull(queue.take("b"));
+		assertNull(queue.take("a"));
+		assertEquals(2, queue.parsed.get());
+	}
+
+	@Test
+	public void test_discarded_and_superseded_trees_should_release_their_permits() {
+		FakeQueue queue = new FakeQueue(1);
+		queue.imports.put("a", Arrays.asList("b"));
+		queue.imports.put("c", Arrays.asList("d"));
+		queue.imports.put("e", Arrays.asList("f"));
+		queue.enqueueImportsOf("a", "a");
+		queue.discard("b");
+		queue.enqueueImportsOf("c", "c");
+		// d is parsed by the caller before it is taken
+		queue.enqueueImportsOf("d", "d");
+		queue.enqueueImportsOf("e", "e");
+		assertEquals("f", queue.take("f"));
+		assertNull(queue.take("b"));
+		assertNull(queue.take("d"));
+	}
+
+	@Test
+	public void test_oldest_tree_should_be_dropped_when_too_many_are_pending() {
+		FakeQueue queue = new FakeQueue(2);
+		queue.imports.put("a", Arrays.asList("b", "c", "d"));
+		queue.enqueueImportsOf("a", "a");
+		assertNull(queue.take("b"));
+		assertEquals("c", queue.take("c"));
+		assertEquals("d", queue.take("d"));
+	}
+
+	@Test
+	public void test_concurrent_enqueue_and_take_should_not_lose_trees() throws Exception {
+		FakeQueue queue = new FakeQueue(4);
+		List<String> files = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			files.add("f" + i);
+		}
+		queue.imports.put("root", files);
+		ExecutorService takers = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<String>> trees = new ArrayList<>();
+			for (String file : files) {
+				trees.add(takers.submit(() -> queue.take(file)));
+			}
+			queue.enqueueImportsOf("root", "root");
+			for (int i = 0; i < files.size(); i++) {
+				String tree = trees.get(i).get(10, TimeUnit.SECONDS);
+				if (tree != null)
+					assertEquals(files.get(i), tree);
+			}
+			// the permits of the trees taken or dropped are released
+			for (String file : files) {
+				queue.discard(file);
+			}
+			queue.imports.put("next", Arrays.asList("g1", "g2", "g3", "g4"));
+			queue.enqueueImportsOf("next", "next");
+			for (String file : queue.imports.get("next")) {
+				assertEquals(file, queue.take(file));
+			}
+		} finally {
+			takers.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package depends.extractor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import depends.entity.ContainerEntity;
+import depends.entity.Entity;
+import depends.entity.FileEntity;
+import depends.extractor.java.JavaProcessor;
+import multilang.depends.util.file.FileUtil;
+
+public class ParseCacheTest {
+	private static final String[] SOURCES = {
+			"./src/test/resources/java-code-examples/TypeInferUnderSamePackageA.java",
+			"./src/test/resources/java-code-examples/TypeInferUnderSamePackageB.java",
+			"./src/test/resources/java-code-examples/ComplexExpressionExample.java"};
+
+	private List<String> parse(String cacheDir, ParseCache[] cacheHolder) {
+		JavaProcessor processor = new JavaProcessor();
+		ParseCache cache = new ParseCache(cacheDir, 1024 * 1024 * 1024);
+		cacheHolder[0] = cache;
+		processor.setParseCache(cache);
+		for (String src : SOURCES) {
+			processor.parseFile(FileUtil.uniqFilePath(src));
+		}
+		return describe(processor);
+	}
+
+	/* names, parents and expression counts of all entities, in id order */
+	private List<String> describe(AbstractLangProcessor processor) {
+		List<String> result = new ArrayList<>();
+		Iterator<Entity> it = processor.getEntityRepo().entityIterator();
+		while (it.hasNext()) {
+			Entity entity = it.next();
+			String description = entity.getClass().getSimpleName() + ":" + entity.getQualifiedName()
+					+ "<" + (entity.getParent() == null ? "" : entity.getParent().getQualifiedName());
+			if (entity instanceof ContainerEntity) {
+				ContainerEntity container = (ContainerEntity) entity;
+				container.reloadExpression(processor.getEntityRepo());
+				description += "#" + container.expressionList().size();
+			}
+			result.add(description);
+		}
+		result.add("files:" + processor.getEntityRepo().getFileEntities().size());
+		return result;
+	}
+
+	@Test
+	public void test_unchanged_files_should_be_restored_from_cache() throws IOException {
+		String cacheDir = Files.createTempDirectory("depends_parse_cache").toString();
+		ParseCache[] cache = new ParseCache[1];
+		List<String> parsed = parse(cacheDir, cache);
+		assertEquals(0, cache[0].getHits());
+		assertEquals(SOURCES.length, cache[0].getMisses());
+
+		List<String> restored = parse(cacheDir, cache);
+		assertEquals(SOURCES.length, cache[0].getHits());
+		assertEquals(0, cache[0].getMisses());
+		assertEquals(parsed, restored);
+	}
+
+	@Test
+	public void test_cache_should_be_bounded() throws IOException {
+		String cacheDir = Files.createTempDirectory("depends_parse_cache").toString();
+		JavaProcessor processor = new JavaProcessor();
+		ParseCache cache = new ParseCache(cacheDir, 1);
+		processor.setParseCache(cache);
+		processor.parseFile(FileUtil.uniqFilePath(SOURCES[0]));
+		processor.parseFile(FileUtil.uniqFilePath(SOURCES[1]));
+		assertEquals(2, cache.getEvicted());
+		assertTrue(new File(cacheDir).list().length == 0);
+		Entity file = processor.getEntityRepo().getEntity(FileUtil.uniqFilePath(SOURCES[0]));
+		assertTrue(file instanceof FileEntity);
+	}
+
+	@Test
+	public void test_released_file_should_be_hashed_again() throws IOException {
+		String cacheDir = Files.createTempDirectory("depends_parse_cache").toString();
+		File source = new File(Files.createTempDirectory("depends_parse_source").toFile(), "A.java");
+		Files.write(source.toPath(), "class A {}".getBytes());
+		String path = FileUtil.uniqFilePath(source.getPath());
+		ParseCache cache = new ParseCache(cacheDir, 1024 * 1024);
+		assertFalse(cache.contains(path, "1"));
+		// e.g. the parse failed, and the file is changed before it is parsed again
+		cache.release(path);
+		Files.write(source.toPath(), "class A { int a; }".getBytes());
+		JavaProcessor processor = new JavaProcessor();
+		processor.setParseCache(cache);
+		processor.parseFile(path);
+		assertTrue(new ParseCache(cacheDir, 1024 * 1024).contains(path, processor.extractorVersion()));
+	}
+}
@@ -0,0 +1,89 @@
+package depends.extractor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import multilang.depends.util.file.FileUtil;
+
+public class PathIndexTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	private File project;
+	private File lib;
+
+	@Before
+	public void setUp() throws IOException {
+		project = folder.newFolder("project");
+		lib = folder.newFolder("lib");
+		create(new File(project, "src/a.h"));
+		create(new File(project, "src/sub/b.h"));
+		create(new File(project, "build/gen.h"));
+		create(new File(lib, "c.h"));
+		create(new File(folder.getRoot(), "outside.h"));
+	}
+
+	private void create(File file) throws IOException {
+		file.getParentFile().mkdirs();
+		file.createNewFile();
+	}
+
+	@Test
+	public void test_lookups_should_be_the_same_as_the_file_system() throws IOException {
+		Files.createSymbolicLink(new File(project, "linked").toPath(), lib.toPath());
+		PathIndex index = PathIndex.build(Arrays.asList(project.getPath(), lib.getPath()));
+		List<String> paths = new ArrayList<>(Arrays.asList(
+				project + "/src/a.h", project + "/src/sub/../a.h", project + "/src/sub", project + "/src/missing.h",
+				project + "/linked/c.h", project + "/linked", lib + "/c.h", folder.getRoot() + "/outside.h",
+				folder.getRoot() + "/missing.h"));
+		for (String path : paths) {
+			assertEquals(path, FileUtil.existFile(path), index.exists(path));
+			assertEquals(path, FileUtil.isDirectory(path), index.isDirectory(path));
+			assertEquals(path, new File(path).isFile(), index.isFile(path));
+			if (FileUtil.existFile(path))
+				assertEquals(path, FileUtil.uniqFilePath(path), index.canonicalPath(path));
+		}
+		assertTrue(index.isIndexed(project + "/src/missing.h"));
+		assertFalse(index.isIndexed(folder.getRoot() + "/outside.h"));
+	}
+
+	@Test
+	public void test_folder_should_be_listed() {
+		PathIndex index = PathIndex.build(Collections.singletonList(project.getPath()));
+		List<String> children = new ArrayList<>(index.list(project + "/src"));
+		Collections.sort(children);
+		assertEquals(Arrays.asList(new File(project, "src/a.h").getPath(), new File(project, "src/sub").getPath()), children);
+		assertTrue(index.list(project + "/src/a.h").isEmpty());
+		assertTrue(index.list(project + "/missing").isEmpty());
+	}
+
+	@Test
+	public void test_nested_roots_should_be_walked_once() {
+		PathIndex index = PathIndex.build(Arrays.asList(new File(project, "src").getPath(), project.getPath()));
+		// project, src, a.h, sub, b.h, build, gen.h
+		assertEquals(7, index.size());
+		assertTrue(index.exists(project + "/src/sub/b.h"));
+	}
+
+	@Test
+	public void test_file_system_index_should_look_up_on_disk() {
+		PathIndex index = PathIndex.fileSystem();
+		assertTrue(index.exists(project + "/src/a.h"));
+		assertFalse(index.isIndexed(project + "/src/a.h"));
+		assertEquals(FileUtil.uniqFilePath(project + "/src/../src/a.h"), index.canonicalPath(project + "/src/../src/a.h"));
+		assertEquals(0, index.size());
+	}
+}
@@ -0,0 +1,128 @@
+package depends.extractor.cpp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import depends.entity.Entity;
+import depends.entity.FileEntity;
+import depends.entity.GenericName;
+import depends.entity.MultiDeclareEntities;
+import depends.entity.TypeEntity;
+import depends.entity.repo.InMemoryEntityRepo;
+import depends.importtypes.FileImport;
+import depends.relations.Inferer;
+
+public class CppIncludedFilesTest {
+	private InMemoryEntityRepo repo;
+	private CppImportLookupStrategy strategy;
+	private Inferer inferer;
+
+	@Before
+	public void setUp() {
+		repo = new InMemoryEntityRepo();
+		strategy = new CppImportLookupStrategy();
+		inferer = new Inferer(repo, strategy, new CppBuiltInType(), false);
+	}
+
+	private FileEntity addFile(String path, String... includes) {
+		FileEntity file = new FileEntity(path, repo.generateId(), true);
+		repo.add(file);
+		repo.addFile(file);
+		for (String include : includes) {
+			file.addImport(new FileImport(include));
+		}
+		return file;
+	}
+
+	private TypeEntity addType(FileEntity file, String name) {
+		TypeEntity type = new TypeEntity(GenericName.build(name), file, repo.generateId());
+		repo.add(type);
+		file.addType(type);
+		return type;
+	}
+
+	private List<Integer> ids(Entity... entities) {
+		List<Integer> ids = new ArrayList<>();
+		for (Entity entity : entities) {
+			ids.add(entity.getId());
+		}
+		return ids;
+	}
+
+	@Test
+	public void test_included_files_should_be_in_the_depth_first_order() {
+		FileEntity a = addFile("/src/a.cpp", "/src/b.h", "/src/c.h");
+		FileEntity b = addFile("/src/b.h", "/src/d.h", "/src/c.h");
+		FileEntity c = addFile("/src/c.h", "/src/b.h");
+		FileEntity d = addFile("/src/d.h", "/src/b.h");
+		TypeEntity inD = addType(d, "X");
+		addType(c, "X");
+		TypeEntity y = addType(c, "Y");
+		inferer.resolveAllBindings(false, repo.getFileEntities(), null);
+
+		assertEquals(ids(b, d, c), strategy.getIncludedFiles(a));
+		/* the origin itself is not excluded, as it could be included back by a header */
+		assertEquals(ids(b, d, c), strategy.getIncludedFiles(c));
+		assertEquals(ids(d, b, c), strategy.getIncludedFiles(b));
+
+		inferer.getNameCache().setEnabled(true);
+		assertSame(inD, inferer.lookupTypeInImported(a, "X"));
+		assertSame(y, inferer.lookupTypeInImported(a, "Y"));
+		long misses = inferer.getNameCache().getMisses();
+		/* the included files are not searched again */
+		assertSame(inD, inferer.lookupTypeInImported(a, "X"));
+		assertSame(y, inferer.lookupTypeInImported(a, "Y"));
+		assertEquals(misses, inferer.getNameCache().getMisses());
+	}
+
+	/* the depth-first traversal of each translation unit on its own */
+	private void traverse(List<Integer> fileSet, Collection<Entity> importedFiles, String fileName, String originFileName) {
+		boolean isOrigin = fileName.substring(0, fileName.lastIndexOf(".")).equals(originFileName.substring(0, originFileName.lastIndexOf(".")));
+		for (Entity file : importedFiles) {
+			if (file == null || !(file instanceof FileEntity || file instanceof MultiDeclareEntities || (isOrigin && file instanceof TypeEntity)))
+				continue;
+			if (fileSet.contains(file.getId())) continue;
+			fileSet.add(file.getId());
+			if (file instanceof FileEntity)
+				traverse(fileSet, ((FileEntity) file).getImportedFiles(), file.getQualifiedName(), originFileName);
+		}
+	}
+
+	@Test
+	public void test_shared_closures_of_headers_should_keep_the_order_of_each_translation_unit() {
+		Random random = new Random(42);
+		List<String> names = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			names.add("/src/f" + i + ".h");
+			// a translation unit with the name of a header
+			if (i % 3 == 0)
+				names.add("/src/f" + i + ".cpp");
+		}
+		List<FileEntity> files = new ArrayList<>();
+		for (String name : names) {
+			String[] includes = new String[random.nextInt(5)];
+			for (int j = 0; j < includes.length; j++) {
+				includes[j] = names.get(random.nextInt(names.size()));
+			}
+			FileEntity file = addFile(name, includes);
+			addType(file, "T" + files.size());
+			// a type included by its name, e.g. a forward declaration
+			file.addImport(new FileImport("T" + random.nextInt(names.size())));
+			files.add(file);
+		}
+		inferer.resolveAllBindings(false, repo.getFileEntities(), null);
+		for (FileEntity file : files) {
+			List<Integer> expected = new ArrayList<>();
+			traverse(expected, file.getImportedFiles(), file.getQualifiedName(), file.getQualifiedName());
+			assertEquals(file.getQualifiedName(), expected, strategy.getIncludedFiles(file));
+		}
+	}
+}
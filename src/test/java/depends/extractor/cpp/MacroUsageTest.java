@@ -0,0 +1,75 @@
+package depends.extractor.cpp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class MacroUsageTest {
+	private static final String SOURCE = "#include \"a.h\"\n"
+			+ "#ifdef USE_FAST\n"
+			+ "int x = WIDTH * 10UL;\n"
+			+ "#endif\n"
+			+ "int y = MAX(x, 2);\n";
+
+	private Map<String, String> macros(String... keyValues) {
+		Map<String, String> macros = new HashMap<>();
+		for (int i = 0; i < keyValues.length; i += 2) {
+			macros.put(keyValues[i], keyValues[i + 1]);
+		}
+		return macros;
+	}
+
+	@Test
+	public void test_identifiers_of_source() {
+		assertEquals(new HashSet<>(Arrays.asList("include", "a", "h", "ifdef", "USE_FAST", "int", "x", "WIDTH", "endif", "y", "MAX")),
+				MacroUsage.identifiersOf(SOURCE.toCharArray()));
+		assertEquals("MAX", MacroUsage.macroName("MAX(a,b)"));
+	}
+
+	@Test
+	public void test_unused_macros_should_not_affect_the_source() {
+		MacroUsage usage = new MacroUsage(SOURCE.toCharArray());
+		Map<String, String> before = macros("WIDTH", "4");
+		assertFalse(usage.isAffectedBy(before, macros("WIDTH", "4")));
+		assertFalse(usage.isAffectedBy(before, macros("WIDTH", "4", "A_H_INCLUDED", "", "HEIGHT", "3")));
+	}
+
+	@Test
+	public void test_used_macros_should_affect_the_source() {
+		MacroUsage usage = new MacroUsage(SOURCE.toCharArray());
+		Map<String, String> before = macros("WIDTH", "4");
+		assertTrue(usage.isAffectedBy(before, macros("WIDTH", "8")));
+		assertTrue(usage.isAffectedBy(before, macros("WIDTH", "4", "USE_FAST", "")));
+		assertTrue(usage.isAffectedBy(before, macros("WIDTH", "4", "MAX(a,b)", "((a)>(b)?(a):(b))")));
+		assertTrue(usage.isAffectedBy(before, new HashMap<>()));
+	}
+
+	@Test
+	public void test_macros_used_by_expansions_should_affect_the_source() {
+		MacroUsage usage = new MacroUsage(SOURCE.toCharArray());
+		Map<String, String> before = macros("WIDTH", "COLUMNS * 2");
+		assertTrue(usage.isAffectedBy(before, macros("WIDTH", "COLUMNS * 2", "COLUMNS", "80")));
+		assertFalse(usage.isAffectedBy(before, macros("WIDTH", "COLUMNS * 2", "ROWS", "25")));
+	}
+
+	@Test
+	public void test_macros_made_by_token_pasting_should_affect_the_source() {
+		MacroUsage usage = new MacroUsage("int x = CAT(FOO, BAR);\n".toCharArray());
+		Map<String, String> before = macros("CAT(a,b)", "a##b");
+		// FOOBAR is only known after CAT is expanded
+		assertTrue(usage.isAffectedBy(before, macros("CAT(a,b)", "a##b", "FOOBAR", "1")));
+		// the expansion is not used
+		assertFalse(new MacroUsage(SOURCE.toCharArray()).isAffectedBy(before, macros("CAT(a,b)", "a##b", "FOOBAR", "1")));
+
+		MacroUsage pasting = new MacroUsage("#define CAT(a,b) a##b\nint x = CAT(FOO, BAR);\n".toCharArray());
+		assertTrue(pasting.isAffectedBy(new HashMap<>(), macros("FOOBAR", "1")));
+		assertFalse(pasting.isAffectedBy(new HashMap<>(), new HashMap<>()));
+	}
+}
@@ -0,0 +1,43 @@
+package depends.extractor.git;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.Test;
+
+public class GitExtractorTest {
+
+	private File createRepository() throws Exception {
+		File dir = Files.createTempDirectory("depends_git").toFile();
+		try (Git git = Git.init().setDirectory(dir).call()) {
+			for (int i = 0; i < 3; i++) {
+				Files.write(new File(dir, "A.java").toPath(), ("class A {int v" + i + ";}").getBytes(StandardCharsets.UTF_8));
+				git.add().addFilepattern("A.java").call();
+				git.commit().setMessage("commit " + i).call();
+			}
+			git.branchCreate().setName("old").setStartPoint("HEAD~1").call();
+		}
+		return dir;
+	}
+
+	@Test
+	public void test_commits_of_branch_should_be_listed_newest_first() throws Exception {
+		GitExtractor gitExtractor = new GitExtractor(createRepository().getAbsolutePath());
+		List<RevCommit> commits = gitExtractor.getRangeCommits(null, null, null, false);
+		assertEquals(3, commits.size());
+		assertEquals("commit 2", commits.get(0).getShortMessage());
+
+		commits = gitExtractor.getRangeCommits("old", null, "2037-01-01 00:00:00", false);
+		assertEquals(2, commits.size());
+		assertEquals("commit 1", commits.get(0).getShortMessage());
+
+		assertEquals(0, gitExtractor.getRangeCommits("2037-01-01 00:00:00", "2037-12-31 00:00:00", false).size());
+		assertEquals(0, gitExtractor.getRangeCommits("no-such-branch", null, null, false).size());
+	}
+}
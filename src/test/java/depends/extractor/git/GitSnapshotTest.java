@@ -0,0 +1,63 @@
+package depends.extractor.git;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.Test;
+
+import depends.entity.Entity;
+import depends.entity.FileEntity;
+import depends.extractor.java.JavaProcessor;
+
+public class GitSnapshotTest {
+
+	private void write(File dir, String path, String content) throws Exception {
+		File file = new File(dir, path);
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void test_files_should_be_parsed_from_git_objects() throws Exception {
+		File dir = Files.createTempDirectory("depends_git").toFile();
+		try (Git git = Git.init().setDirectory(dir).call()) {
+			write(dir, "src/x/A.java", "package x;\nclass A {\n  B b;\n}");
+			write(dir, "src/x/B.java", "package x;\nclass B {}");
+			write(dir, "src/test/x/ATest.java", "package x;\nclass ATest {}");
+			git.add().addFilepattern("src").call();
+			git.commit().setMessage("init").call();
+		}
+		GitExtractor gitExtractor = new GitExtractor(dir.getAbsolutePath());
+		RevCommit commit = gitExtractor.getAllCommits().get(0);
+		// the project folder does not exist at all
+		String projectPath = new File(dir, "checkout").getAbsolutePath();
+		GitSnapshot snapshot = gitExtractor.getSnapshot(commit, projectPath);
+		assertEquals(2, snapshot.getFilePaths().size());
+		assertNull(snapshot.open(projectPath + File.separator + "C.java"));
+
+		JavaProcessor processor = new JavaProcessor();
+		processor.initial(projectPath, new ArrayList<>(), new ArrayList<>(), false, false, true);
+		processor.setVirtualFiles(snapshot);
+		processor.buildDependenciesForInitialVersion();
+		assertFalse(new File(projectPath).exists());
+
+		List<String> files = new ArrayList<>();
+		for (Entity file : processor.getEntityRepo().getFileEntities()) {
+			files.add(file.getQualifiedName());
+		}
+		assertEquals(snapshot.getFilePaths(), files);
+		Entity a = processor.getEntityRepo().getEntity("x.A");
+		assertTrue(a.getAncestorOfType(FileEntity.class).getQualifiedName().endsWith("A.java"));
+		assertEquals("x.B", a.getRelations().get(0).getEntity().getQualifiedName());
+	}
+}
@@ -0,0 +1,166 @@
+package depends.extractor.git;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.patch.FileHeader;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import depends.entity.Entity;
+import depends.extractor.java.JavaProcessor;
+import depends.relations.Relation;
+import multilang.depends.util.file.FileUtil;
+
+public class IncrementalVersionTest {
+	private File gitDir;
+
+	/* the files are given as path, content pairs; a null content removes the file */
+	private void commit(Git git, String message, String... files) throws Exception {
+		for (int i = 0; i < files.length; i += 2) {
+			File file = new File(gitDir, files[i]);
+			if (files[i + 1] == null) {
+				git.rm().addFilepattern(files[i]).call();
+				continue;
+			}
+			file.getParentFile().mkdirs();
+			Files.write(file.toPath(), files[i + 1].getBytes(StandardCharsets.UTF_8));
+			git.add().addFilepattern(files[i]).call();
+		}
+		git.commit().setMessage(message).call();
+	}
+
+	private List<RevCommit> createCommits() throws Exception {
+		gitDir = Files.createTempDirectory("depends_git").toFile();
+		try (Git git = Git.init().setDirectory(gitDir).call()) {
+			commit(git, "initial",
+					"src/p/A.java", "package p; public class A { B b; }",
+					"src/p/B.java", "package p; public class B { }",
+					"src/p/D.java", "package p; public class D { A a; }");
+			commit(git, "add C, change B",
+					"src/p/B.java", "package p; public class B { public void m() { } }",
+					"src/p/C.java", "package p; public class C extends B { }");
+			commit(git, "change A, remove D",
+					"src/p/A.java", "package p; public class A { C c; void f() { c.m(); } }",
+					"src/p/D.java", null);
+		}
+		return new GitExtractor(gitDir.getAbsolutePath()).getRangeCommits(null, null, false);
+	}
+
+	/**
+	 * The diff of a commit in the layout of CLDiff: the changed files are written
+	 * into [output]/[commit]/prev|curr/[project]/, without running CLDiff
+	 */
+	private class SnapshotCommitExtractor extends CommitExtractor {
+		SnapshotCommitExtractor(GitExtractor gitExtractor) {
+			super(gitExtractor);
+		}
+
+		@Override
+		public Map<String, JSONArray> getDiffData(RevCommit revCommit, String CLDiffOutputPath) {
+			Map<String, JSONArray> diffData = new HashMap<>();
+			JSONArray files = new JSONArray();
+			try (Repository repository = Git.open(gitDir).getRepository()) {
+				RevCommit parent = repository.parseCommit(revCommit.getParent(0));
+				for (FileHeader header : gitExtractor.getFileHeaderBetweenCommits(revCommit, parent).values()) {
+					JSONObject file = new JSONObject();
+					file.put("action", actionOf(header.getChangeType()));
+					file.put("prevPath", write(repository, parent, header.getOldPath(), CLDiffOutputPath + "/" + revCommit.getName() + "/prev"));
+					file.put("curPath", write(repository, revCommit, header.getNewPath(), CLDiffOutputPath + "/" + revCommit.getName() + "/curr"));
+					files.put(file);
+				}
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+			diffData.put(revCommit.getName(), files);
+			return diffData;
+		}
+
+		private String write(Repository repository, RevCommit commit, String path, String dir) throws IOException {
+			if (DiffEntry.DEV_NULL.equals(path))
+				return "null";
+			File file = new File(dir + "/" + gitDir.getName() + "/" + path);
+			file.getParentFile().mkdirs();
+			try (TreeWalk treeWalk = TreeWalk.forPath(repository, path, commit.getTree())) {
+				Files.write(file.toPath(), repository.open(treeWalk.getObjectId(0)).getBytes());
+			}
+			return file.getAbsolutePath();
+		}
+
+		private String actionOf(DiffEntry.ChangeType changeType) {
+			switch (changeType) {
+			case ADD:
+				return "added";
+			case DELETE:
+				return "removed";
+			case RENAME:
+				return "renamed";
+			default:
+				return "modified";
+			}
+		}
+	}
+
+	private JavaProcessor createProcessor(String projectPath) {
+		JavaProcessor processor = new JavaProcessor();
+		processor.initial(FileUtil.uniqFilePath(projectPath), new ArrayList<>(), new ArrayList<>(), false, false, false);
+		return processor;
+	}
+
+	/* the relations between the files, as they do not depend on the order of the entities */
+	private TreeSet<String> relationsOf(JavaProcessor processor, String projectPath) {
+		TreeSet<String> relations = new TreeSet<>();
+		Iterator<Entity> it = processor.getEntityRepo().entityIterator();
+		while (it.hasNext()) {
+			Entity entity = it.next();
+			for (Relation relation : entity.getRelations()) {
+				if (relation.getEntity().getQualifiedName().startsWith("p."))
+					relations.add(entity.getQualifiedName().replace(projectPath, "") + " " + relation.getType() + " "
+							+ relation.getEntity().getQualifiedName());
+			}
+		}
+		return relations;
+	}
+
+	@Test
+	public void test_replayed_commits_should_be_the_same_as_the_latest_version() throws Exception {
+		List<RevCommit> commits = createCommits();
+		assertEquals(3, commits.size());
+		GitExtractor gitExtractor = new GitExtractor(gitDir.getAbsolutePath());
+
+		File replayed = Files.createTempDirectory("depends_replayed").toFile();
+		gitExtractor.checkOutToCommit(commits.get(commits.size() - 1), replayed.getAbsolutePath());
+		JavaProcessor processor = createProcessor(replayed.getAbsolutePath());
+		processor.buildDependenciesForInitialVersion();
+		String output = Files.createTempDirectory("depends_cldiff").toFile().getAbsolutePath();
+		processor.buildDependenciesForIncrementalVersion(new SnapshotCommitExtractor(gitExtractor), commits, output, 2);
+
+		File latest = Files.createTempDirectory("depends_latest").toFile();
+		gitExtractor.checkOutToCommit(commits.get(0), latest.getAbsolutePath());
+		JavaProcessor expected = createProcessor(latest.getAbsolutePath());
+		expected.buildDependenciesForInitialVersion();
+
+		TreeSet<String> relations = relationsOf(processor, FileUtil.uniqFilePath(replayed.getAbsolutePath()));
+		assertTrue(relations.toString(), relations.stream().anyMatch(relation -> relation.contains("Call p.B.m")));
+		assertTrue(relations.toString(), relations.stream().noneMatch(relation -> relation.contains("p.D")));
+		assertEquals(relationsOf(expected, FileUtil.uniqFilePath(latest.getAbsolutePath())), relations);
+		assertEquals(null, processor.getEntityRepo().getFileEntityByPath(FileUtil.uniqFilePath(replayed.getAbsolutePath()) + "/src/p/D.java"));
+	}
+}
@@ -0,0 +1,46 @@
+package depends.extractor.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import depends.entity.FileEntity;
+import depends.entity.GenericName;
+import depends.entity.PackageEntity;
+import depends.entity.TypeEntity;
+import depends.importtypes.ExactMatchImport;
+
+public class JavaImportSuffixMatchTest extends JavaParserTest{
+	@Before
+	public void setUp() {
+		super.init();
+	}
+
+	private void addType(String packageName, String typeName) {
+		PackageEntity pkg = new PackageEntity(packageName, entityRepo.generateId());
+		entityRepo.add(pkg);
+		entityRepo.add(new TypeEntity(GenericName.build(typeName), pkg, entityRepo.generateId()));
+	}
+
+	@Test
+	public void test_suffix_match_should_return_the_first_imported_type() {
+		addType("a.b", "ClassX");
+		addType("e.c", "ClassX");
+		addType("d", "Other");
+		FileEntity file = new FileEntity("/tmp/Main.java", entityRepo.generateId(), true);
+		entityRepo.add(file);
+		file.addImport(new ExactMatchImport("a.b.ClassX"));
+		file.addImport(new ExactMatchImport("e.c.ClassX"));
+		file.addImport(new ExactMatchImport("d.Other"));
+		file.inferLocalLevelEntities(inferer);
+
+		assertEquals("a.b.ClassX", file.importedSuffixMatch("ClassX"));
+		assertEquals("a.b.ClassX", file.importedSuffixMatch("b.ClassX"));
+		assertEquals("e.c.ClassX", file.importedSuffixMatch("c.ClassX"));
+		assertEquals("d.Other", file.importedSuffixMatch("Other"));
+		assertNull(file.importedSuffixMatch("X"));
+		assertNull(file.importedSuffixMatch("e.Other"));
+	}
+}
@@ -0,0 +1,37 @@
+package depends.extractor.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import depends.entity.Entity;
+import depends.entity.FileEntity;
+
+public class JavaReverseDependencyTest extends JavaParserTest{
+	@Before
+	public void setUp() {
+		super.init();
+	}
+
+	@Test
+	public void test_dependent_files_should_be_indexed_and_cleared() throws IOException {
+        String src = "./src/test/resources/java-code-examples/TypeInferUnderSamePackageA.java";
+        JavaFileParser parser = createParser(src);
+        parser.parse();
+        src = "./src/test/resources/java-code-examples/TypeInferUnderSamePackageB.java";
+        parser = createParser(src);
+        parser.parse();
+        inferer.resolveAllBindings(false, entityRepo.getFileEntities(), null);
+        Entity typeA = entityRepo.getEntity("x.TypeInferUnderSamePackageA");
+        Entity subType = entityRepo.getEntity("x.TypeInferUnderSamePackageB.SubType");
+        Entity fileA = typeA.getAncestorOfType(FileEntity.class);
+        assertTrue(subType.getDependentFileIds().contains(fileA.getId()));
+
+        typeA.clearRelations();
+        assertEquals(0,subType.getDependentFileIds().size());
+	}
+}
@@ -0,0 +1,76 @@
+package depends.extractor.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import depends.format.FileAttributes;
+import depends.format.json.JsonDependencyWriter;
+import depends.generator.DependencyGenerator;
+import depends.generator.FileDependencyGenerator;
+import depends.generator.FunctionDependencyGenerator;
+import depends.matrix.core.DependencyMatrix;
+import depends.matrix.transform.OrderedMatrixGenerator;
+
+public class JavaStreamingOutputTest extends JavaParserTest{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Before
+	public void setUp() throws IOException {
+		super.init();
+		createParser("./src/test/resources/java-code-examples/TypeInferUnderSamePackageA.java").parse();
+		createParser("./src/test/resources/java-code-examples/TypeInferUnderSamePackageB.java").parse();
+		createParser("./src/test/resources/java-code-examples/ExpressionCallTest.java").parse();
+		inferer.resolveAllBindings(false, entityRepo.getFileEntities(), null);
+	}
+
+	private String read(File file) throws IOException {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+
+	private void assertStreamedAsBuilt(DependencyGenerator generator) throws IOException {
+		generator.setGenerateDetail(true);
+		File built = new File(folder.getRoot(), "built.json");
+		DependencyMatrix matrix = new OrderedMatrixGenerator(generator.build(entityRepo, null)).build();
+		try (JsonDependencyWriter writer = new JsonDependencyWriter(built.getPath(), new FileAttributes("test"))) {
+			writer.write(matrix);
+		}
+		File streamed = new File(folder.getRoot(), "streamed.json");
+		try (JsonDependencyWriter writer = new JsonDependencyWriter(streamed.getPath(), new FileAttributes("test"))) {
+			generator.stream(entityRepo, null, Collections.singletonList(writer));
+		}
+		assertTrue(matrix.getDependencyPairs().size() > 0);
+		assertEquals(read(built), read(streamed));
+	}
+
+	@Test
+	public void test_streamed_file_dependencies_should_be_the_same_as_built() throws IOException {
+		assertStreamedAsBuilt(new FileDependencyGenerator());
+	}
+
+	@Test
+	public void test_streamed_function_dependencies_should_be_the_same_as_built() throws IOException {
+		assertStreamedAsBuilt(new FunctionDependencyGenerator());
+	}
+
+	@Test
+	public void test_streamed_dependencies_should_be_filtered_by_type() throws IOException {
+		File streamed = new File(folder.getRoot(), "streamed.json");
+		try (JsonDependencyWriter writer = new JsonDependencyWriter(streamed.getPath(), new FileAttributes("test"))) {
+			new FileDependencyGenerator().stream(entityRepo, Arrays.asList("NoSuchType"), Collections.singletonList(writer));
+		}
+		assertTrue(read(streamed).contains("\"cells\" : [ ]"));
+	}
+}
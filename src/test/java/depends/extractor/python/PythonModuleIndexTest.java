@@ -0,0 +1,108 @@
+package depends.extractor.python;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import depends.extractor.python.union.PythonImportQueue;
+import depends.extractor.python.union.PythonModuleIndex;
+import depends.extractor.ruby.IncludedFileLocator;
+import multilang.depends.util.file.FileUtil;
+
+public class PythonModuleIndexTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	private File project;
+	private File lib;
+
+	@Before
+	public void setUp() throws IOException {
+		project = folder.newFolder("project");
+		lib = folder.newFolder("lib");
+		write(new File(project, "main.py"), "import util\nfrom pkg import a\nfrom . import local\n");
+		write(new File(project, "local.py"), "x = 1\n");
+		write(new File(project, "pkg/__init__.py"), "x = 1\n");
+		write(new File(project, "pkg/a.py"), "from .. import local\n");
+		write(new File(lib, "util.py"), "import pkg.b\n");
+		write(new File(lib, "pkg/b.py"), "x = 1\n");
+	}
+
+	private void write(File file, String content) throws IOException {
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private String path(File file) {
+		return FileUtil.uniqFilePath(file.getPath());
+	}
+
+	@Test
+	public void test_modules_should_be_resolved_as_the_file_system_lookup() {
+		PythonModuleIndex index = new PythonModuleIndex(Arrays.asList(lib.getPath(), project.getPath()), project.getPath());
+		IncludedFileLocator locator = new IncludedFileLocator(Arrays.asList(lib.getPath(), project.getPath()));
+		String main = path(new File(project, "main.py"));
+		String dir = project.getPath() + File.separator;
+		for (String name : new String[] { "util.py", "pkg", "pkg/a.py", "pkg/b.py", "local.py", "none.py", "pkg/none.py" }) {
+			assertEquals(name, locator.uniqFileName(dir, name), index.uniqFileName(dir, name));
+		}
+		assertEquals(path(new File(lib, "util.py")), index.resolveModule(main, 0, "util"));
+		assertEquals(path(new File(project, "pkg")), index.resolveModule(main, 0, "pkg"));
+		assertEquals(path(new File(project, "local.py")), index.resolveModule(path(new File(project, "pkg/a.py")), 2, "local"));
+		assertNull(index.resolveModule(main, 0, "missing"));
+		assertTrue(index.isDirectory(path(new File(project, "pkg"))));
+		assertFalse(index.exists(path(new File(project, "pkg/none.py"))));
+		assertEquals(Arrays.asList(path(new File(project, "pkg/__init__.py")), path(new File(project, "pkg/a.py"))),
+				sorted(index.filesOfModule(main, 0, path(new File(project, "pkg")))));
+		assertEquals(Collections.emptyList(), index.filesOfModule(main, 1, index.resolveModule(main, 1, null)));
+	}
+
+	private static List<String> sorted(List<String> files) {
+		List<String> result = new ArrayList<>(files);
+		Collections.sort(result);
+		return result;
+	}
+
+	@Test
+	public void test_imports_should_be_parsed_ahead_transitively() throws Exception {
+		PythonModuleIndex index = new PythonModuleIndex(Arrays.asList(lib.getPath(), project.getPath()), null);
+		PythonImportQueue queue = new PythonImportQueue(index, 2);
+		try {
+			String main = path(new File(project, "main.py"));
+			queue.enqueueImportsOf(main, parse(main));
+			assertNotNull(queue.take(path(new File(lib, "util.py"))));
+			assertNotNull(queue.take(path(new File(project, "pkg/a.py"))));
+			// imported by util.py
+			assertNotNull(queue.take(path(new File(lib, "pkg/b.py"))));
+			// the folder of main.py itself is not parsed ahead
+			assertNull(queue.take(path(new File(project, "local.py"))));
+			// taken already
+			assertNull(queue.take(path(new File(lib, "util.py"))));
+		} finally {
+			queue.shutdown();
+		}
+	}
+
+	private PythonParser.File_inputContext parse(String file) throws IOException {
+		PythonParser parser = new PythonParser(new CommonTokenStream(new PythonLexer(CharStreams.fromFileName(file))));
+		return parser.file_input();
+	}
+}
@@ -2,8 +2,6 @@ package depends.extractor.ruby;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import depends.entity.repo.EntityRepo;
 import depends.entity.repo.InMemoryEntityRepo;
@@ -24,8 +22,7 @@ public abstract class RubyParserTest extends ParserTest implements ParserCreator
 	}
 	
 	public FileParser createFileParser(String src) {
-		ExecutorService executor = Executors.newSingleThreadExecutor();
-		return new JRubyFileParser(src,entityRepo, executor,new IncludedFileLocator(includePaths()), inferer, this);
+		return new JRubyFileParser(src,entityRepo, new IncludedFileLocator(includePaths()), inferer, this);
 	}
 
 	private List<String> includePaths() {
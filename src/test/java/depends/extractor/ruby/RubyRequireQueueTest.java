@@ -0,0 +1,74 @@
+package depends.extractor.ruby;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import org.jrubyparser.CompatVersion;
+import org.jrubyparser.Parser;
+import org.jrubyparser.ast.Node;
+import org.jrubyparser.parser.ParserConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import depends.extractor.ruby.jruby.RubyRequireQueue;
+import multilang.depends.util.file.FileUtil;
+
+public class RubyRequireQueueTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	private RubyRequireQueue queue;
+
+	@Before
+	public void setUp() throws IOException {
+		queue = new RubyRequireQueue(new IncludedFileLocator(new ArrayList<>()), 2);
+		write("a.rb", "require 'b'\nrequire_relative 'missing'\nclass A\nend\n");
+		write("b.rb", "require 'c'\nrequire 'a'\nclass B\nend\n");
+		write("c.rb", "class C\nend\n");
+	}
+
+	@After
+	public void tearDown() {
+		queue.shutdown();
+	}
+
+	private void write(String name, String content) throws IOException {
+		Files.write(new File(folder.getRoot(), name).toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private String path(String name) {
+		return FileUtil.uniqFilePath(new File(folder.getRoot(), name).getPath());
+	}
+
+	private Node parse(String file) throws IOException {
+		String content = new String(Files.readAllBytes(new File(file).toPath()), StandardCharsets.UTF_8);
+		return new Parser().parse("<code>", new StringReader(content), new ParserConfiguration(0, CompatVersion.RUBY2_3));
+	}
+
+	@Test
+	public void test_required_files_should_be_parsed_ahead_transitively() throws IOException {
+		queue.enqueueImportsOf(path("a.rb"), parse(path("a.rb")));
+		assertNotNull(queue.take(path("b.rb")));
+		// required by b.rb
+		assertNotNull(queue.take(path("c.rb")));
+		// the requiring file itself is not parsed again
+		assertNull(queue.take(path("a.rb")));
+		assertNull(queue.take(path("b.rb")));
+	}
+
+	@Test
+	public void test_shut_down_queue_should_drop_the_trees() throws IOException {
+		queue.enqueueImportsOf(path("b.rb"), parse(path("b.rb")));
+		queue.shutdown();
+		assertNull(queue.take(path("c.rb")));
+	}
+}
@@ -0,0 +1,126 @@
+package depends.format;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import depends.format.binary.BinaryDependencyReader;
+import depends.format.binary.BinaryDependencyWriter;
+import depends.matrix.core.DependencyDetail;
+import depends.matrix.core.DependencyMatrix;
+import depends.matrix.core.DependencyPair;
+import depends.matrix.core.DependencyValue;
+import depends.matrix.core.LocationInfo;
+
+public class BinaryDependencyFormatTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	private DependencyMatrix matrix;
+	private int files = 0;
+
+	@Before
+	public void setUp() {
+		matrix = new DependencyMatrix();
+		matrix.addNode("a.中文", 0);
+		matrix.addNode("b", 1);
+		matrix.addNode("c", 2);
+		matrix.addNode("d", 3);
+		matrix.addDependency("Call", 0, 1, 1, new DependencyDetail(new LocationInfo("x", "a", 1, 2), new LocationInfo("y", "b", 3, 4)));
+		matrix.addDependency("Call", 0, 1, 1, new DependencyDetail(new LocationInfo("x", "a", 5, 6), new LocationInfo("y", "b", 3, 4)));
+		matrix.addDependency("Use", 0, 1, 2, (DependencyDetail) null);
+		matrix.addDependency("Import", 3, 0, 1, (DependencyDetail) null);
+		matrix.addDependency("Use", 3, 1, 4, (DependencyDetail) null);
+	}
+
+	private File write(DependencyMatrix matrix) throws IOException {
+		File file = new File(folder.getRoot(), "test" + (files++) + ".dsm");
+		try (BinaryDependencyWriter writer = new BinaryDependencyWriter(file.getPath())) {
+			writer.write(matrix);
+		}
+		return file;
+	}
+
+	private String describe(DependencyPair pair) {
+		StringBuilder sb = new StringBuilder(pair.getFrom() + "->" + pair.getTo());
+		List<DependencyValue> values = new ArrayList<>(pair.getDependencies());
+		values.sort(Comparator.comparing(DependencyValue::getType));
+		for (DependencyValue value : values) {
+			sb.append(" ").append(value.getType()).append("(").append(value.getWeight()).append(")").append(value.getDetails());
+		}
+		return sb.toString();
+	}
+
+	private List<String> describe(List<DependencyPair> pairs) {
+		List<String> result = new ArrayList<>();
+		for (DependencyPair pair : pairs) {
+			result.add(describe(pair));
+		}
+		return result;
+	}
+
+	@Test
+	public void test_rows_columns_and_cells_should_be_queried() throws IOException {
+		try (BinaryDependencyReader reader = new BinaryDependencyReader(write(matrix).getPath())) {
+			assertEquals(matrix.getNodes(), reader.getNodes());
+			assertEquals("a.中文", reader.getNodeName(0));
+			assertEquals(3, reader.getCellCount());
+			assertTrue(reader.hasDetails());
+			assertEquals("[0->1 Call(2)[x(a:1)->y(b:3), x(a:5)->y(b:3)] Use(2)[]]", describe(reader.getRow(0)).toString());
+			assertTrue(reader.getRow(1).isEmpty());
+			assertEquals("[3->0 Import(1)[], 3->1 Use(4)[]]", describe(reader.getRow(3)).toString());
+			assertEquals("[0->1 Call(2)[x(a:1)->y(b:3), x(a:5)->y(b:3)] Use(2)[], 3->1 Use(4)[]]", describe(reader.getColumn(1)).toString());
+			assertTrue(reader.getColumn(3).isEmpty());
+			assertEquals("3->0 Import(1)[]", describe(reader.getCell(3, 0)));
+			assertNull(reader.getCell(1, 0));
+			assertNull(reader.getCell(3, 2));
+		}
+	}
+
+	@Test
+	public void test_loaded_matrix_should_be_the_same() throws IOException {
+		DependencyMatrix loaded;
+		try (BinaryDependencyReader reader = new BinaryDependencyReader(write(matrix).getPath())) {
+			loaded = reader.toMatrix();
+		}
+		assertEquals(matrix.getNodes(), loaded.getNodes());
+		assertEquals(matrix.relationCount(), loaded.relationCount());
+		List<DependencyPair> expected = new ArrayList<>(matrix.getDependencyPairs());
+		expected.sort(Comparator.comparing(DependencyPair::getFrom).thenComparing(DependencyPair::getTo));
+		List<DependencyPair> actual = new ArrayList<>(loaded.getDependencyPairs());
+		actual.sort(Comparator.comparing(DependencyPair::getFrom).thenComparing(DependencyPair::getTo));
+		assertEquals(describe(expected), describe(actual));
+	}
+
+	@Test
+	public void test_details_section_should_be_optional() throws IOException {
+		DependencyMatrix noDetails = new DependencyMatrix();
+		noDetails.addNode("a", 0);
+		noDetails.addNode("b", 1);
+		noDetails.addDependency("Call", 1, 0, 3, (DependencyDetail) null);
+		try (BinaryDependencyReader reader = new BinaryDependencyReader(write(noDetails).getPath())) {
+			assertFalse(reader.hasDetails());
+			assertEquals("[1->0 Call(3)[]]", describe(reader.getColumn(0)).toString());
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void test_cells_out_of_order_should_be_rejected() throws IOException {
+		try (BinaryDependencyWriter writer = new BinaryDependencyWriter(new File(folder.getRoot(), "test.dsm").getPath())) {
+			writer.begin(matrix.getNodes());
+			writer.writeCell(new DependencyPair(3, 0));
+			writer.writeCell(new DependencyPair(0, 1));
+		}
+	}
+}
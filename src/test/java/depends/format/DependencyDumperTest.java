@@ -0,0 +1,73 @@
+package depends.format;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import depends.matrix.core.DependencyDetail;
+import depends.matrix.core.DependencyMatrix;
+import depends.matrix.core.PrimitiveDependencyMatrix;
+
+public class DependencyDumperTest {
+	private static final String[] FORMATS = new String[] {"json", "xml", "dot", "plantuml", "detail", "xlsx"};
+	private static final String[] FILES = new String[] {"test.json", "test.xml", "test.dot", "test.uml", "test.txt"};
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	private DependencyMatrix matrix;
+
+	@Before
+	public void setUp() {
+		matrix = new PrimitiveDependencyMatrix();
+		for (int i = 0; i < 20; i++) {
+			matrix.addNode("node" + i, i);
+		}
+		for (int i = 0; i < 20; i++) {
+			matrix.addDependency("Call", i, (i + 1) % 20, 1, (List<DependencyDetail>) null);
+			matrix.addDependency("Use", i, (i + 7) % 20, 2, (List<DependencyDetail>) null);
+		}
+	}
+
+	private String read(File file) throws IOException {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+
+	private File output(int threads) throws IOException {
+		File dir = folder.newFolder("threads" + threads);
+		DependencyDumper dumper = new DependencyDumper(matrix);
+		dumper.setThreads(threads);
+		dumper.outputResult("test", dir.getPath(), FORMATS);
+		return dir;
+	}
+
+	@Test
+	public void test_formats_dumped_in_parallel_should_be_the_same_as_sequentially() throws IOException {
+		File sequential = output(1);
+		File parallel = output(4);
+		for (String file : FILES) {
+			assertEquals(file, read(new File(sequential, file)), read(new File(parallel, file)));
+		}
+		assertTrue(new File(parallel, "test.xlsx").length() > 0);
+	}
+
+	@Test
+	public void test_dumpers_of_the_same_file_should_run_in_order() throws IOException {
+		File dir = folder.newFolder("dot");
+		DependencyDumper dumper = new DependencyDumper(matrix);
+		dumper.setThreads(4);
+		dumper.outputResult("test", dir.getPath(), new String[] {"dot", "dotx", "json"});
+		/* the full name dot dumper comes last and overwrites the file */
+		String dot = read(new File(dir, "test.dot"));
+		assertTrue(dot.contains("\"node0\" -> \"node1\";"));
+		assertEquals(2, dir.list().length);
+	}
+}
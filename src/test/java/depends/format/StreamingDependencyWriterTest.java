@@ -0,0 +1,140 @@
+package depends.format;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import depends.format.excel.ExcelXlsxDependencyWriter;
+import depends.format.json.JCellObject;
+import depends.format.json.JDataBuilder;
+import depends.format.json.JDepObject;
+import depends.format.json.JsonDependencyWriter;
+import depends.format.xml.XmlDependencyWriter;
+import depends.matrix.core.DependencyDetail;
+import depends.matrix.core.DependencyMatrix;
+import depends.matrix.core.DependencyPair;
+import depends.matrix.core.LocationInfo;
+
+public class StreamingDependencyWriterTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	private DependencyMatrix matrix;
+
+	@Before
+	public void setUp() {
+		matrix = new DependencyMatrix();
+		matrix.addNode("a<&>\"b", 0);
+		matrix.addNode("c", 1);
+		matrix.addNode("d", 2);
+		matrix.addDependency("Call", 0, 1, 1, new DependencyDetail(new LocationInfo("x", "a", 1, 2), new LocationInfo("y", "c", 3, 4)));
+		matrix.addDependency("Use", 0, 1, 2, (DependencyDetail) null);
+		matrix.addDependency("Import", 2, 0, 1, (DependencyDetail) null);
+	}
+
+	private String read(File file) throws IOException {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void test_json_should_be_the_same_as_the_serialized_object() throws IOException {
+		File file = new File(folder.getRoot(), "test.json");
+		try (JsonDependencyWriter writer = new JsonDependencyWriter(file.getPath(), new FileAttributes("test"))) {
+			writer.write(matrix);
+		}
+		JDepObject expected = new JDataBuilder().build(matrix, new FileAttributes("test"));
+		expected.getCells().sort(Comparator.comparing((JCellObject cell) -> cell.getSrc()));
+		assertEquals(new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(expected), read(file));
+	}
+
+	@Test
+	public void test_xml_should_be_the_same_as_the_marshalled_object() throws IOException {
+		File file = new File(folder.getRoot(), "test.xml");
+		try (XmlDependencyWriter writer = new XmlDependencyWriter(file.getPath(), new FileAttributes("test"))) {
+			writer.write(matrix);
+		}
+		String expected = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+				+ "<matrix name=\"test-sdsm\" schema-version=\"1.0\" xmlns=\"http://dv8.archdia.com/xml/matrix\">\n"
+				+ "    <variables>\n"
+				+ "        <variable>a&lt;&amp;&gt;\"b</variable>\n"
+				+ "        <variable>c</variable>\n"
+				+ "        <variable>d</variable>\n"
+				+ "    </variables>\n"
+				+ "    <cells>\n"
+				+ "        <cell dest=\"1\" src=\"0\">\n"
+				+ "            <depend name=\"Call\" weight=\"1.0\"/>\n"
+				+ "            <depend name=\"Use\" weight=\"2.0\"/>\n"
+				+ "        </cell>\n"
+				+ "        <cell dest=\"0\" src=\"2\">\n"
+				+ "            <depend name=\"Import\" weight=\"1.0\"/>\n"
+				+ "        </cell>\n"
+				+ "    </cells>\n"
+				+ "</matrix>\n";
+		assertEquals(expected, read(file));
+	}
+
+	@Test
+	public void test_xlsx_rows_should_be_flushed_out_of_the_window() throws IOException {
+		File file = new File(folder.getRoot(), "test.xlsx");
+		try (ExcelXlsxDependencyWriter writer = new ExcelXlsxDependencyWriter(file.getPath(), 1)) {
+			writer.write(matrix);
+		}
+		try (XSSFWorkbook workbook = new XSSFWorkbook(new FileInputStream(file))) {
+			XSSFSheet sheet = workbook.getSheet("DSM");
+			assertEquals(3, sheet.getLastRowNum());
+			assertEquals(2.0, sheet.getRow(0).getCell(4).getNumericCellValue(), 0);
+			assertEquals("c", sheet.getRow(2).getCell(1).getStringCellValue());
+			assertEquals("(1)", sheet.getRow(2).getCell(3).getStringCellValue());
+			assertEquals("Call(1),Use(2)", sheet.getRow(1).getCell(3).getStringCellValue());
+			assertEquals("Import(1)", sheet.getRow(3).getCell(2).getStringCellValue());
+		}
+	}
+
+	@Test
+	public void test_xlsx_columns_should_be_split_across_sheets() throws IOException {
+		File file = new File(folder.getRoot(), "test.xlsx");
+		try (ExcelXlsxDependencyWriter writer = new ExcelXlsxDependencyWriter(file.getPath(), 1, 2)) {
+			writer.write(matrix);
+		}
+		try (XSSFWorkbook workbook = new XSSFWorkbook(new FileInputStream(file))) {
+			assertEquals(2, workbook.getNumberOfSheets());
+			XSSFSheet first = workbook.getSheet("DSM");
+			XSSFSheet second = workbook.getSheet("DSM 2");
+			assertEquals(3, first.getLastRowNum());
+			assertEquals(3, second.getLastRowNum());
+			assertEquals(1.0, first.getRow(0).getCell(3).getNumericCellValue(), 0);
+			assertEquals(2.0, second.getRow(0).getCell(2).getNumericCellValue(), 0);
+			assertEquals("d", second.getRow(3).getCell(1).getStringCellValue());
+			assertEquals("Call(1),Use(2)", first.getRow(1).getCell(3).getStringCellValue());
+			assertEquals("Import(1)", first.getRow(3).getCell(2).getStringCellValue());
+			assertEquals("(2)", second.getRow(3).getCell(2).getStringCellValue());
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void test_xlsx_cells_of_flushed_rows_should_be_rejected() throws IOException {
+		File file = new File(folder.getRoot(), "test.xlsx");
+		try (ExcelXlsxDependencyWriter writer = new ExcelXlsxDependencyWriter(file.getPath(), 1)) {
+			writer.begin(new ArrayList<>(matrix.getNodes()));
+			ArrayList<DependencyPair> cells = new ArrayList<>(matrix.getDependencyPairs());
+			cells.sort(Comparator.comparing(DependencyPair::getFrom).reversed());
+			for (DependencyPair cell : cells) {
+				writer.writeCell(cell);
+			}
+		}
+	}
+}
@@ -2,8 +2,17 @@ package depends.matrix;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
 import org.junit.Test;
 
+import depends.matrix.core.DependencyDetail;
+import depends.matrix.core.DependencyMatrix;
+import depends.matrix.core.DependencyPair;
+import depends.matrix.core.DependencyValue;
 import depends.matrix.transform.MatrixLevelReducer;
 
 public class MatrixLevelReducerTest {
@@ -49,4 +58,64 @@ public class MatrixLevelReducerTest {
 		assertEquals("/maven",
 				MatrixLevelReducer.calcuateNodeAtLevel(node, 1));
 	}
+
+	@Test
+	public void test_MatrixLevelReducer_mixed_splitters() {
+		assertEquals("a.b", MatrixLevelReducer.calcuateNodeAtLevel("a.b/c/d.java", 1));
+		assertEquals("a\\b/c", MatrixLevelReducer.calcuateNodeAtLevel("a\\b/c\\d", 2));
+		assertEquals("", MatrixLevelReducer.calcuateNodeAtLevel("", 1));
+		assertEquals("/", MatrixLevelReducer.calcuateNodeAtLevel("//", 2));
+	}
+
+	private DependencyMatrix buildMatrix() {
+		DependencyMatrix matrix = new DependencyMatrix();
+		String[] nodes = new String[] {"/src/a/x/A.java", "/src/a/x/B.java", "/src/a/y/C.java", "/src/b/D.java", "/src/E.java", "/lib/F.java"};
+		for (int i = 0; i < nodes.length; i++) {
+			matrix.addNode(nodes[i], i);
+		}
+		matrix.addDependency("Call", 0, 1, 1, (DependencyDetail) null);
+		matrix.addDependency("Call", 0, 2, 2, (DependencyDetail) null);
+		matrix.addDependency("Use", 2, 3, 1, (DependencyDetail) null);
+		matrix.addDependency("Use", 3, 0, 3, (DependencyDetail) null);
+		matrix.addDependency("Import", 4, 5, 1, (DependencyDetail) null);
+		matrix.addDependency("Call", 1, 2, 4, (DependencyDetail) null);
+		return matrix;
+	}
+
+	private List<String> describe(DependencyMatrix matrix) {
+		List<String> cells = new ArrayList<>();
+		for (DependencyPair pair : matrix.getDependencyPairs()) {
+			for (DependencyValue value : pair.getDependencies()) {
+				cells.add(matrix.getNodeName(pair.getFrom()) + "->" + matrix.getNodeName(pair.getTo()) + ":" + value.getType() + "(" + value.getWeight() + ")");
+			}
+		}
+		cells.sort(null);
+		return cells;
+	}
+
+	@Test
+	public void test_MatrixLevelReducer_shrink_to_level() {
+		DependencyMatrix reduced = new MatrixLevelReducer(buildMatrix(), "3").shrinkToLevel();
+		assertEquals(Arrays.asList("/lib/F.java", "/src/E.java", "/src/a/x", "/src/a/y", "/src/b/D.java"), reduced.getNodes());
+		assertEquals(Arrays.asList("/src/E.java->/lib/F.java:Import(1)", "/src/a/x->/src/a/y:Call(6)",
+				"/src/a/y->/src/b/D.java:Use(1)", "/src/b/D.java->/src/a/x:Use(3)"), describe(reduced));
+	}
+
+	@Test
+	public void test_MatrixLevelReducer_shrink_to_levels_in_one_pass() {
+		DependencyMatrix origin = buildMatrix();
+		Map<Integer, DependencyMatrix> levels = MatrixLevelReducer.shrinkToLevels(origin, 1, 2, 3, 4);
+		assertEquals(Arrays.asList(1, 2, 3, 4), new ArrayList<>(levels.keySet()));
+		assertEquals(Arrays.asList("/lib", "/src"), levels.get(1).getNodes());
+		assertEquals(Arrays.asList("/src->/lib:Import(1)"), describe(levels.get(1)));
+		assertEquals(Arrays.asList("/lib/F.java", "/src/E.java", "/src/a", "/src/b"), levels.get(2).getNodes());
+		assertEquals(Arrays.asList("/src/E.java->/lib/F.java:Import(1)", "/src/a->/src/b:Use(1)", "/src/b->/src/a:Use(3)"), describe(levels.get(2)));
+		for (int level = 1; level <= 4; level++) {
+			assertEquals(describe(new MatrixLevelReducer(origin, String.valueOf(level)).shrinkToLevel()), describe(levels.get(level)));
+		}
+		List<String> sortedNodes = new ArrayList<>(origin.getNodes());
+		sortedNodes.sort(null);
+		assertEquals(sortedNodes, levels.get(4).getNodes());
+		assertEquals(describe(origin), describe(levels.get(4)));
+	}
 }
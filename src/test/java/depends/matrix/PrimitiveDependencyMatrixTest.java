@@ -0,0 +1,58 @@
+package depends.matrix;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import depends.matrix.core.DependencyDetail;
+import depends.matrix.core.DependencyMatrix;
+import depends.matrix.core.DependencyPair;
+import depends.matrix.core.DependencyValue;
+import depends.matrix.core.LocationInfo;
+import depends.matrix.core.PrimitiveDependencyMatrix;
+
+public class PrimitiveDependencyMatrixTest {
+	private static final String[] TYPES = {"Call", "Use", "Import", "Contain"};
+
+	/* pair -> type -> weight/number of details */
+	private TreeMap<String, TreeMap<String, String>> describe(DependencyMatrix matrix) {
+		TreeMap<String, TreeMap<String, String>> result = new TreeMap<>();
+		for (DependencyPair pair : matrix.getDependencyPairs()) {
+			TreeMap<String, String> values = new TreeMap<>();
+			for (DependencyValue value : pair.getDependencies()) {
+				values.put(value.getType(), value.getWeight() + "/" + value.getDetails().size());
+			}
+			result.put(pair.getFrom() + "->" + pair.getTo(), values);
+		}
+		return result;
+	}
+
+	@Test
+	public void test_should_be_same_as_the_default_matrix() {
+		DependencyMatrix expected = new DependencyMatrix(Arrays.asList("Call", "Use", "Contain"));
+		PrimitiveDependencyMatrix actual = new PrimitiveDependencyMatrix(Arrays.asList("Call", "Use", "Contain"), 4);
+		Random random = new Random(1);
+		for (int i = 0; i < 20000; i++) {
+			int from = random.nextInt(300) - 1;
+			int to = random.nextInt(300) - 1;
+			String type = TYPES[random.nextInt(TYPES.length)];
+			int weight = random.nextInt(3);
+			DependencyDetail detail = random.nextBoolean() ? null
+					: new DependencyDetail(new LocationInfo("a", "A", i, i), new LocationInfo("b", "B", i, i));
+			expected.addDependency(type, from, to, weight, detail);
+			actual.addDependency(type, from, to, weight, detail);
+		}
+		// big ids
+		expected.addDependency("Call", 100000, Integer.MAX_VALUE, 1, new ArrayList<>());
+		actual.addDependency("Call", 100000, Integer.MAX_VALUE, 1, new ArrayList<>());
+
+		assertEquals(describe(expected), describe(actual));
+		assertEquals(expected.relationCount(), actual.relationCount());
+		assertEquals(expected.getDependencyPairs().size(), actual.pairCount());
+	}
+}
@@ -0,0 +1,45 @@
+package depends.relations;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import depends.entity.Entity;
+import depends.entity.FileEntity;
+
+public class FileTaskExecutorTest {
+
+	private List<Entity> buildFiles(int count) {
+		List<Entity> files = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			files.add(new FileEntity("/tmp/f" + i + ".java", i, false));
+		}
+		return files;
+	}
+
+	@Test
+	public void test_each_file_should_be_visited_once_in_parallel() {
+		List<Entity> files = buildFiles(500);
+		Map<Integer, AtomicInteger> visited = new ConcurrentHashMap<>();
+		ProgressReporter progress = new ProgressReporter("test", files.size());
+		new FileTaskExecutor(4).run(files,
+				file -> visited.computeIfAbsent(file.getId(), k -> new AtomicInteger()).incrementAndGet(), progress);
+		assertEquals(500, visited.size());
+		visited.values().forEach(count -> assertEquals(1, count.get()));
+		assertEquals(500, progress.getFinished());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void test_exception_of_task_should_be_rethrown() {
+		new FileTaskExecutor(4).run(buildFiles(10), file -> {
+			if (file.getId() == 5)
+				throw new IllegalArgumentException();
+		}, new ProgressReporter("test", 10));
+	}
+}
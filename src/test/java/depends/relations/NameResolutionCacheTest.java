@@ -0,0 +1,167 @@
+package depends.relations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import depends.entity.Entity;
+import depends.entity.FileEntity;
+import depends.entity.GenericName;
+import depends.entity.PackageEntity;
+import depends.entity.TypeEntity;
+import depends.entity.repo.InMemoryEntityRepo;
+
+public class NameResolutionCacheTest {
+	private InMemoryEntityRepo repo;
+	private Entity container;
+	private Entity found;
+	private AtomicInteger lookups;
+
+	@Before
+	public void setUp() {
+		repo = new InMemoryEntityRepo();
+		container = new PackageEntity("a", repo.generateId());
+		found = new PackageEntity("b", repo.generateId());
+		repo.add(container);
+		lookups = new AtomicInteger();
+	}
+
+	private Entity lookup(NameResolutionCache cache, String name, Entity result) {
+		return cache.get(container, name, true, () -> {
+			lookups.incrementAndGet();
+			return result;
+		});
+	}
+
+	@Test
+	public void test_found_and_unsolved_names_should_be_cached() {
+		NameResolutionCache cache = new NameResolutionCache(repo);
+		cache.setEnabled(true);
+		assertSame(found, lookup(cache, "b", found));
+		assertSame(found, lookup(cache, "b", null));
+		assertNull(lookup(cache, "c", null));
+		assertNull(lookup(cache, "c", found));
+		assertEquals(2, lookups.get());
+		assertEquals(2, cache.getHits());
+		assertEquals(2, cache.getMisses());
+	}
+
+	@Test
+	public void test_imported_names_should_be_cached_apart_from_scopes() {
+		NameResolutionCache cache = new NameResolutionCache(repo);
+		cache.setEnabled(true);
+		assertNull(lookup(cache, "b", null));
+		assertSame(found, cache.getImported(container, "b", () -> found));
+		assertSame(found, cache.getImported(container, "b", () -> null));
+		assertNull(lookup(cache, "b", found));
+		assertEquals(1, lookups.get());
+		assertEquals(2, cache.getHits());
+	}
+
+	@Test
+	public void test_changes_of_files_should_invalidate_the_cache() {
+		NameResolutionCache cache = new NameResolutionCache(repo);
+		cache.setEnabled(true);
+		assertNull(lookup(cache, "b", null));
+		FileEntity file = new FileEntity("/tmp/b.java", repo.generateId(), true);
+		repo.add(file);
+		repo.addFile(file);
+		assertSame(found, lookup(cache, "b", found));
+		repo.removeEntity(file);
+		assertNull(lookup(cache, "b", null));
+		assertEquals(3, lookups.get());
+		assertEquals(0, cache.getHits());
+	}
+
+	@Test
+	public void test_other_changes_of_repo_should_keep_the_cache() {
+		NameResolutionCache cache = new NameResolutionCache(repo);
+		cache.setEnabled(true);
+		assertNull(lookup(cache, "b", null));
+		// e.g. the candidate types added while the relations are computed
+		repo.add(found);
+		assertNull(lookup(cache, "b", found));
+		assertEquals(1, lookups.get());
+		assertEquals(1, cache.getHits());
+	}
+
+	@Test
+	public void test_changed_scope_should_only_invalidate_its_file() {
+		NameResolutionCache cache = new NameResolutionCache(repo);
+		cache.setEnabled(true);
+		FileEntity fileA = new FileEntity("/tmp/A.java", repo.generateId(), true);
+		FileEntity fileB = new FileEntity("/tmp/B.java", repo.generateId(), true);
+		TypeEntity typeA = new TypeEntity(GenericName.build("A"), fileA, repo.generateId());
+		TypeEntity typeB = new TypeEntity(GenericName.build("B"), fileB, repo.generateId());
+		cache.get(typeA, "x", true, () -> null);
+		cache.get(typeB, "x", true, () -> null);
+		assertEquals(2, cache.size());
+		cache.invalidate(typeA);
+		assertEquals(1, cache.size());
+		assertSame(found, cache.get(typeA, "x", true, () -> found));
+		assertNull(cache.get(typeB, "x", true, () -> found));
+		assertEquals(1, cache.getInvalidations());
+	}
+
+	@Test
+	public void test_changed_scope_should_invalidate_the_files_inheriting_it() {
+		NameResolutionCache cache = new NameResolutionCache(repo);
+		cache.setEnabled(true);
+		FileEntity fileA = new FileEntity("/tmp/A.java", repo.generateId(), true);
+		FileEntity fileB = new FileEntity("/tmp/B.java", repo.generateId(), true);
+		FileEntity fileC = new FileEntity("/tmp/C.java", repo.generateId(), true);
+		FileEntity fileD = new FileEntity("/tmp/D.java", repo.generateId(), true);
+		TypeEntity typeA = new TypeEntity(GenericName.build("A"), fileA, repo.generateId());
+		TypeEntity typeB = new TypeEntity(GenericName.build("B"), fileB, repo.generateId());
+		TypeEntity typeC = new TypeEntity(GenericName.build("C"), fileC, repo.generateId());
+		TypeEntity typeD = new TypeEntity(GenericName.build("D"), fileD, repo.generateId());
+		// C extends B extends A, B and C are resolved before A
+		cache.addInheritingScope(typeA, typeB);
+		cache.addInheritingScope(typeB, typeC);
+		// the members of A are not found through B yet
+		assertNull(cache.get(typeB, "x", true, () -> null));
+		assertNull(cache.get(typeC, "x", true, () -> null));
+		assertNull(cache.get(typeD, "x", true, () -> null));
+		cache.invalidate(typeA);
+		assertEquals(1, cache.size());
+		assertSame(found, cache.get(typeB, "x", true, () -> found));
+		assertSame(found, cache.get(typeC, "x", true, () -> found));
+		assertNull(cache.get(typeD, "x", true, () -> found));
+	}
+
+	@Test
+	public void test_explicit_invalidation() {
+		NameResolutionCache cache = new NameResolutionCache(repo);
+		cache.setEnabled(true);
+		lookup(cache, "b", null);
+		cache.invalidate();
+		assertSame(found, lookup(cache, "b", found));
+		assertEquals(2, lookups.get());
+		assertEquals(1, cache.getInvalidations());
+	}
+
+	@Test
+	public void test_disabled_cache_should_always_lookup() {
+		NameResolutionCache cache = new NameResolutionCache(repo);
+		lookup(cache, "b", found);
+		lookup(cache, "b", found);
+		assertEquals(2, lookups.get());
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void test_full_cache_should_be_evicted() {
+		NameResolutionCache cache = new NameResolutionCache(repo, 2);
+		cache.setEnabled(true);
+		lookup(cache, "b", found);
+		lookup(cache, "c", found);
+		lookup(cache, "d", found);
+		assertEquals(2, cache.getEvictions());
+		assertEquals(1, cache.size());
+	}
+}
@@ -0,0 +1,67 @@
+package depends.relations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import depends.entity.Entity;
+import depends.extractor.AbstractLangProcessor;
+import depends.extractor.java.JavaProcessor;
+import depends.extractor.python.union.PythonProcessor;
+import multilang.depends.util.file.FileUtil;
+
+public class ParallelResolvingTest {
+	private static final int RUNS = 10;
+
+	/* all relations as from-id, to-id and type, in the order of the entities and of their relations */
+	private List<String> build(Supplier<AbstractLangProcessor> processorCreator, String projectPath, int resolveThreads) {
+		AbstractLangProcessor processor = processorCreator.get();
+		processor.setConcurrentEntityRepo(resolveThreads > 1);
+		processor.initial(FileUtil.uniqFilePath(projectPath), new ArrayList<>(), new ArrayList<>(), false, false, false);
+		processor.setResolveThreads(resolveThreads);
+		processor.buildDependenciesForInitialVersion();
+		List<String> result = new ArrayList<>();
+		Iterator<Entity> it = processor.getEntityRepo().entityIterator();
+		while (it.hasNext()) {
+			Entity entity = it.next();
+			for (Relation relation : entity.getRelations()) {
+				result.add(entity.getId() + " " + relation.getEntity().getId() + " " + relation.getType());
+			}
+		}
+		return result;
+	}
+
+	private List<String> assertSameAsSequential(Supplier<AbstractLangProcessor> processorCreator, String projectPath) {
+		List<String> sequential = build(processorCreator, projectPath, 1);
+		assertTrue(sequential.size() > 0);
+		for (int i = 0; i < RUNS; i++) {
+			assertEquals(sequential, build(processorCreator, projectPath, 4));
+		}
+		return sequential;
+	}
+
+	@Test
+	public void test_java_types_resolved_in_parallel_should_be_the_same_as_sequential() {
+		assertSameAsSequential(JavaProcessor::new, "./src/test/resources/java-code-examples");
+	}
+
+	@Test
+	public void test_nested_types_inherited_across_files_should_be_the_same_as_sequential() {
+		// each level finds Base.Inner through the levels above it, which are declared in other files,
+		// so the types found depend on the order the files are resolved in
+		List<String> relations = assertSameAsSequential(JavaProcessor::new, "./src/test/resources/java-code-examples/InheritedNestedTypes");
+		// at least inner.run() of each level
+		assertTrue(relations.toString(), relations.stream().filter(relation -> relation.endsWith(" Call")).count() >= 8);
+	}
+
+	@Test
+	public void test_python_types_resolved_in_parallel_should_be_the_same_as_sequential() {
+		assertSameAsSequential(PythonProcessor::new, "./src/test/resources/python-code-examples");
+	}
+}
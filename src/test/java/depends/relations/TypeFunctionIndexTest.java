@@ -0,0 +1,165 @@
+package depends.relations;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import depends.entity.Entity;
+import depends.entity.FileEntity;
+import depends.entity.FunctionCall;
+import depends.entity.FunctionEntity;
+import depends.entity.GenericName;
+import depends.entity.TypeEntity;
+import depends.entity.repo.InMemoryEntityRepo;
+import depends.extractor.HandlerContext;
+import depends.extractor.java.JavaHandlerContext;
+
+public class TypeFunctionIndexTest {
+	private InMemoryEntityRepo repo;
+	private TypeFunctionIndex index;
+
+	@Before
+	public void setUp() {
+		repo = new InMemoryEntityRepo();
+		index = new TypeFunctionIndex(repo);
+	}
+
+	private FileEntity addFile(String path) {
+		FileEntity file = new FileEntity(path, repo.generateId(), true);
+		repo.add(file);
+		repo.addFile(file);
+		return file;
+	}
+
+	private TypeEntity addType(FileEntity file, String name, String... functions) {
+		TypeEntity type = new TypeEntity(GenericName.build(name), file, repo.generateId());
+		repo.add(type);
+		file.addType(type);
+		for (String function : functions) {
+			addFunction(type, function);
+		}
+		return type;
+	}
+
+	private void addFunction(TypeEntity type, String function) {
+		FunctionEntity functionEntity = new FunctionEntity(GenericName.build(function), type, repo.generateId(), null);
+		repo.add(functionEntity);
+		type.addFunction(functionEntity);
+	}
+
+	private List<FunctionCall> calls(String... names) {
+		List<FunctionCall> calls = new ArrayList<>();
+		for (String name : names) {
+			calls.add(new FunctionCall(GenericName.build(name)));
+		}
+		return calls;
+	}
+
+	/* the linear search replaced by the index */
+	private List<TypeEntity> search(List<FunctionCall> functionCalls) {
+		List<TypeEntity> types = new ArrayList<>();
+		Iterator<Entity> iterator = repo.sortedFileIterator();
+		while (iterator.hasNext()) {
+			for (TypeEntity type : ((FileEntity) iterator.next()).getDeclaredTypes()) {
+				if (new FunctionMatcher(type.getFunctions()).containsAll(functionCalls))
+					types.add(type);
+			}
+		}
+		return types;
+	}
+
+	private void assertSameAsSearch(String... names) {
+		assertEquals(search(calls(names)), index.typesContainingAll(calls(names)));
+	}
+
+	@Test
+	public void test_types_should_be_found_in_the_order_of_files() {
+		FileEntity a = addFile("/tmp/a.py");
+		FileEntity b = addFile("/tmp/b.py");
+		TypeEntity duck = addType(b, "Duck", "walk", "quack");
+		TypeEntity robot = addType(a, "Robot", "walk", "quack", "charge");
+		addType(a, "Dog", "walk", "bark");
+		assertEquals(Arrays.asList(robot, duck), index.typesContainingAll(calls("quack", "walk")));
+		assertSameAsSearch("walk");
+		assertSameAsSearch("charge", "walk");
+		assertSameAsSearch("fly");
+		assertSameAsSearch();
+	}
+
+	@Test
+	public void test_index_should_follow_removed_and_added_files() {
+		FileEntity a = addFile("/tmp/a.py");
+		FileEntity b = addFile("/tmp/b.py");
+		addType(a, "Robot", "walk", "quack");
+		TypeEntity duck = addType(b, "Duck", "walk", "quack");
+		assertSameAsSearch("walk", "quack");
+		assertEquals(2, index.size());
+
+		repo.removeEntity(a);
+		assertEquals(Arrays.asList(duck), index.typesContainingAll(calls("walk", "quack")));
+		assertEquals(1, index.size());
+
+		FileEntity c = addFile("/tmp/c.py");
+		addType(c, "Goose", "walk", "honk");
+		addFunction(duck, "honk");
+		assertSameAsSearch("walk", "honk");
+		assertSameAsSearch("quack");
+		assertEquals(2, index.size());
+	}
+
+	@Test
+	public void test_lookups_should_run_in_parallel() throws Exception {
+		FileEntity a = addFile("/tmp/a.py");
+		TypeEntity robot = addType(a, "Robot", "walk", "quack");
+		List<TypeEntity> expected = Arrays.asList(robot);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<List<TypeEntity>>> results = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				results.add(executor.submit(() -> index.typesContainingAll(calls("walk", "quack"))));
+			}
+			for (Future<List<TypeEntity>> result : results) {
+				assertEquals(expected, result.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		// other entities (e.g. the candidate types of a variable) do not change the declared types
+		long version = repo.getFileModificationCount();
+		addFunction(robot, "charge");
+		assertEquals(version, repo.getFileModificationCount());
+		assertEquals(expected, index.typesContainingAll(calls("walk", "quack")));
+	}
+
+	@Test
+	public void test_types_and_functions_added_to_an_indexed_file_should_be_found() {
+		HandlerContext context = new JavaHandlerContext(repo, null);
+		FileEntity a = context.startFile("/tmp/A.java");
+		TypeEntity robot = context.foundNewType("Robot", 1, 10);
+		context.foundMethodDeclarator("walk", 2);
+		context.exitLastedEntity();
+		context.done();
+		assertSameAsSearch("walk");
+		assertEquals(1, index.size());
+
+		// the file is parsed again in place: it is not added to the repo again
+		context.resumeFile(a);
+		context.foundMethodDeclarator(robot, "quack", 3);
+		context.exitLastedEntity();
+		context.foundNewType("Duck", 11, 20);
+		context.foundMethodDeclarator("quack", 12);
+		assertEquals(2, index.typesContainingAll(calls("quack")).size());
+		assertSameAsSearch("quack");
+		assertSameAsSearch("walk", "quack");
+		assertEquals(2, index.size());
+	}
+}
@@ -0,0 +1,10 @@
+package base;
+
+public class Base {
+	public static class Inner {
+		public void run() {
+		}
+	}
+
+	protected Inner inner;
+}
@@ -0,0 +1,14 @@
+package inherited;
+
+import base.Base;
+
+public class Level1 extends Base {
+	Inner field;
+
+	void call() {
+		inner.run();
+		field.run();
+		Inner created = new Inner();
+		created.run();
+	}
+}
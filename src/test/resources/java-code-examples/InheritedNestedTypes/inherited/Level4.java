@@ -0,0 +1,12 @@
+package inherited;
+
+public class Level4 extends Level3 {
+	Inner field;
+
+	void call() {
+		inner.run();
+		field.run();
+		Inner created = new Inner();
+		created.run();
+	}
+}
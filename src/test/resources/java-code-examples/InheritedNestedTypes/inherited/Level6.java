@@ -0,0 +1,12 @@
+package inherited;
+
+public class Level6 extends Level5 {
+	Inner field;
+
+	void call() {
+		inner.run();
+		field.run();
+		Inner created = new Inner();
+		created.run();
+	}
+}
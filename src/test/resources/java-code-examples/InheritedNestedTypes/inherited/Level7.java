@@ -0,0 +1,12 @@
+package inherited;
+
+public class Level7 extends Level6 {
+	Inner field;
+
+	void call() {
+		inner.run();
+		field.run();
+		Inner created = new Inner();
+		created.run();
+	}
+}
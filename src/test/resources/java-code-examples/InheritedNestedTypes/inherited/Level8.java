@@ -0,0 +1,12 @@
+package inherited;
+
+public class Level8 extends Level7 {
+	Inner field;
+
+	void call() {
+		inner.run();
+		field.run();
+		Inner created = new Inner();
+		created.run();
+	}
+}